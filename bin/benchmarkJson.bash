@@ -0,0 +1,14 @@
+# Start from the root folder (project's).
+
+# Compile the interpreter.
+cd src
+javac -encoding UTF-8 -d ./classes lango/main/Lango.java
+cd ..
+
+# Generate the fixture once, it's about 30 MB.
+if [ ! -f benchmarks/json/fixture.json ]; then
+  echo "Generating benchmarks/json/fixture.json"
+  java -cp ./src/classes lango.main.Lango benchmarks/json/generate.lango
+fi
+
+java -cp ./src/classes lango.main.Lango benchmarks/json/bench.lango
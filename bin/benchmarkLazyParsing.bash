@@ -0,0 +1,26 @@
+# Start from the root folder (project's).
+
+# Compile the interpreter.
+cd src
+javac -encoding UTF-8 -d ./classes lango/main/Lango.java
+cd ..
+
+# Generate the library once.
+if [ ! -f benchmarks/lazy/library.lango ]; then
+  echo "Generating benchmarks/lazy/library.lango"
+  for i in $(seq 0 2999); do
+    echo "fun helper$i(n) {"
+    echo "  var total = 0;"
+    echo "  for (var i = 0; i < n; i = i + 1) {"
+    echo "    if (i < $i) { total = total + i * 2; } else { total = total - 1; }"
+    echo "  }"
+    echo "  var table = {\"n\": n, \"total\": total, \"items\": [1, 2, 3]};"
+    echo "  return table[\"total\"] + len(table[\"items\"]);"
+    echo "}"
+  done > benchmarks/lazy/library.lango
+fi
+
+echo "Parsing every body:"
+time java -Dlango.cache=false -cp ./src/classes lango.main.Lango benchmarks/lazy/bench.lango
+echo "Parsing bodies by their first call:"
+time java -Dlango.lazyParsing=true -cp ./src/classes lango.main.Lango benchmarks/lazy/bench.lango
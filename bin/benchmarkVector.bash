@@ -0,0 +1,10 @@
+# Start from the root folder (project's).
+
+# Compile the interpreter with the SIMD operations, which need the incubating
+# Vector API module.
+cd src
+javac -encoding UTF-8 --add-modules jdk.incubator.vector -d ./classes lango/main/Lango.java lango/vector/SimdOps.java
+cd ..
+
+# Without --add-modules the natives fall back to scalar loops.
+java --add-modules jdk.incubator.vector -cp ./src/classes lango.main.Lango benchmarks/vector/bench.lango
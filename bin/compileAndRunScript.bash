@@ -1,13 +1,14 @@
 # Start from the root folder (project's).
 
 # Redirect compiled files to classes folder, remember to add it to gitignore.
+# The SIMD operations of the vector natives need the Vector API module.
 cd src
-javac -d ./classes lango/main/Lango.java
+javac --add-modules jdk.incubator.vector -d ./classes lango/main/Lango.java lango/vector/SimdOps.java
 
 # Use this to fire the REPL
 # java -cp ./classes jlox.main.JLox
 
 # Use this to run code from a script file.
-java -cp ./classes lango.main.Lango ../script.lango
+java --add-modules jdk.incubator.vector -cp ./classes lango.main.Lango ../script.lango
 
 cd ..
@@ -2,6 +2,7 @@ package lango;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import lango.parser.RuntimeError;
 import lango.scanner.Token;
@@ -42,6 +43,13 @@ public class Environment {
     values.put(name, value);
   }
 
+  /**
+   * Visits the variables of this scope, not the enclosing ones.
+   */
+  public void forEach(BiConsumer<String, Object> action) {
+    values.forEach(action);
+  }
+
   public Object get(Token name) {
     if (values.containsKey(name.lexeme)) {
       return values.get(name.lexeme);
@@ -54,11 +62,18 @@ public class Environment {
     throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'.");
   }
 
-  public Object getAt(Integer distance, String name) {
-    return ancestor(distance).values.get(name);
+  public Object getAt(int distance, String name) {
+    return ancestor(distance).getHere(name);
+  }
+
+  /**
+   * Reads a variable of this scope, null if it's not defined.
+   */
+  protected Object getHere(String name) {
+    return values.get(name);
   }
 
-  private Environment ancestor(Integer distance) {
+  private Environment ancestor(int distance) {
     Environment environment = this;
     for (int i = 0; i < distance; i++) {
       environment = environment.enclosing;
@@ -82,8 +97,8 @@ public class Environment {
         "Undefined variable '" + name.lexeme + "'.");
   }
 
-  public void assignAt(Integer distance, Token name, Object value) {
-    ancestor(distance).values.put(name.lexeme, value);
+  public void assignAt(int distance, Token name, Object value) {
+    ancestor(distance).define(name.lexeme, value);
   }
 
 }
@@ -0,0 +1,162 @@
+package lango;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import lango.parser.RuntimeError;
+import lango.scanner.Token;
+
+/**
+ * The outermost environment, shared by every thread running code of an
+ * interpreter.
+ * 
+ * Each global lives in a {@link Slot}, created by its first definition and
+ * never removed. Slots are found by name in a concurrent map, whose reads don't
+ * lock; a slot's value is volatile. A definition or an assignment is so visible
+ * to any thread reading the variable afterwards.
+ * 
+ * Every global name also has an index in the {@link GlobalNames} of the
+ * engine, the same in all its global environments, which the resolver stores
+ * on the syntax tree. Each environment keeps the slots it looked up by that
+ * index too, in pages of {@value #PAGE_SIZE} slots allocated on demand, so
+ * reading a global function is as cheap as reading an array element, while the
+ * tree stays the same whichever environment of the engine runs it.
+ */
+public class GlobalEnvironment extends Environment {
+
+  /**
+   * Holds the value of a global variable.
+   */
+  public static final class Slot {
+    private volatile Object value;
+
+    private Slot() {
+    }
+
+    public Object get() {
+      return value;
+    }
+
+    public void set(Object value) {
+      this.value = value;
+    }
+  }
+
+  private static final int PAGE_BITS = 6;
+  private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+  /**
+   * The indices of the global names the trees run here were resolved with.
+   */
+  private final GlobalNames names;
+
+  private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+
+  /**
+   * The slots already looked up by index, in pages of {@link #PAGE_SIZE}, null
+   * where a page or a slot wasn't looked up yet. Grown and filled under the
+   * lock of this environment.
+   */
+  private volatile Slot[][] pages = new Slot[0][];
+
+  /**
+   * Creates an environment with a table of its own, for trees resolved with
+   * {@link #names()}.
+   */
+  public GlobalEnvironment() {
+    this(new GlobalNames());
+  }
+
+  public GlobalEnvironment(GlobalNames names) {
+    this.names = names;
+  }
+
+  /**
+   * @return the table the trees run in this environment must be resolved with.
+   */
+  public GlobalNames names() {
+    return names;
+  }
+
+  /**
+   * @return the slot of a defined global.
+   * @throws RuntimeError if the global isn't defined.
+   */
+  public Slot slot(Token name) {
+    Slot slot = slots.get(name.lexeme);
+    if (slot == null) {
+      throw new RuntimeError(name, "Undefined variable '" + name.lexeme + "'.");
+    }
+
+    return slot;
+  }
+
+  /**
+   * @param index the index of the global's name in {@link #names()}, or -1
+   *              to look it up by name.
+   * @return the slot of a defined global.
+   * @throws RuntimeError if the global isn't defined.
+   */
+  public Slot slot(int index, Token name) {
+    Slot[][] table = pages;
+    int page = index >>> PAGE_BITS;
+    if (index >= 0 && page < table.length) {
+      Slot[] slots = table[page];
+      if (slots != null) {
+        Slot slot = slots[index & (PAGE_SIZE - 1)];
+        if (slot != null)
+          return slot;
+      }
+    }
+
+    Slot slot = slot(name);
+    if (index >= 0) {
+      remember(index, slot);
+    }
+    return slot;
+  }
+
+  private synchronized void remember(int index, Slot slot) {
+    Slot[][] table = pages;
+    int page = index >>> PAGE_BITS;
+    if (page >= table.length) {
+      table = Arrays.copyOf(table, Math.max(page + 1, table.length * 2));
+    }
+    if (table[page] == null) {
+      table[page] = new Slot[PAGE_SIZE];
+    }
+    table[page][index & (PAGE_SIZE - 1)] = slot;
+    pages = table;
+  }
+
+  @Override
+  public void define(String name, Object value) {
+    Slot slot = slots.get(name);
+    if (slot == null) {
+      slot = slots.computeIfAbsent(name, key -> new Slot());
+    }
+    slot.set(value);
+  }
+
+  @Override
+  public void forEach(BiConsumer<String, Object> action) {
+    slots.forEach((name, slot) -> action.accept(name, slot.get()));
+  }
+
+  @Override
+  public Object get(Token name) {
+    return slot(name).get();
+  }
+
+  @Override
+  protected Object getHere(String name) {
+    Slot slot = slots.get(name);
+    return slot == null ? null : slot.get();
+  }
+
+  @Override
+  public void assign(Token name, Object value) {
+    slot(name).set(value);
+  }
+}
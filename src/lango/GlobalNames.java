@@ -0,0 +1,33 @@
+package lango;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Numbers the names of the global variables, so that the resolver can store
+ * on the syntax tree where a global is found in a {@link GlobalEnvironment}.
+ * 
+ * A table belongs to an engine: its front end resolves every tree with it and
+ * the global environments of its contexts look globals up with it, so an index
+ * means the same name to all of them. It only grows with the distinct global
+ * names the engine compiled, and goes away with the engine. The indices of two
+ * tables are unrelated, so a tree only runs in the environments of the table
+ * it was resolved with.
+ */
+public final class GlobalNames {
+
+  private final ConcurrentHashMap<String, Integer> indices = new ConcurrentHashMap<>();
+  private final AtomicInteger nextIndex = new AtomicInteger();
+
+  /**
+   * @return the index of a global name, numbered from 0 in the order the names
+   *         are first seen.
+   */
+  public int indexOf(String name) {
+    Integer index = indices.get(name);
+    if (index == null) {
+      index = indices.computeIfAbsent(name, key -> nextIndex.getAndIncrement());
+    }
+    return index;
+  }
+}
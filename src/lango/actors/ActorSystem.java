@@ -0,0 +1,154 @@
+package lango.actors;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import lango.collections.LangoRope;
+import lango.concurrent.VirtualThreads;
+import lango.diagnostics.ErrorReporter;
+import lango.engine.CompiledScript;
+import lango.engine.LangoContext;
+import lango.engine.LangoEngine;
+import lango.engine.ScriptCompileException;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+import lango.interpreter.Interpreter;
+import lango.interpreter.ScriptInterruptedException;
+
+/**
+ * Creates actors: scripts running isolated from each other, each in its own
+ * context and on its own thread (a virtual thread when the JDK has them), that
+ * only communicate through copied messages. Stateful logic can so be sharded
+ * across cores without any lock in the scripts.
+ * 
+ * From Java, actors are created by {@link #spawn} and used through
+ * {@link LangoActor#tell} and {@link LangoActor#ask}. Contexts given to
+ * {@link #install} (and the contexts of the actors) get the same as natives:
+ * 
+ * <pre>
+ * var counter = actor("counter.lango");  // runs the script as a new actor
+ * tell(counter, "increment");            // sends a message
+ * print ask(counter, "total");           // waits for onMessage's result
+ * </pre>
+ * 
+ * An actor can refer to itself with the global {@code self}.
+ */
+public class ActorSystem implements AutoCloseable {
+
+  /**
+   * How long a blocked ask waits before checking again if its script was
+   * interrupted.
+   */
+  private static final long POLL_MILLIS = 50;
+
+  private final LangoEngine engine;
+  private final ErrorReporter reporter;
+  private final CopyStats stats = new CopyStats();
+  private final List<LangoActor> actors = new CopyOnWriteArrayList<>();
+
+  /**
+   * @param reporter receives the errors of the actors.
+   */
+  public ActorSystem(LangoEngine engine, ErrorReporter reporter) {
+    this.engine = engine;
+    this.reporter = reporter;
+  }
+
+  /**
+   * Starts an actor running the given script.
+   */
+  public LangoActor spawn(String name, CompiledScript script) {
+    LangoContext context = engine.newContext(reporter);
+    LangoActor actor = new LangoActor(name, context, stats);
+    install(context);
+    context.define("self", actor);
+    actors.add(actor);
+
+    VirtualThreads.start("lango-actor-" + name, () -> actor.run(script));
+    return actor;
+  }
+
+  /**
+   * Defines the actor natives in a context.
+   */
+  public void install(LangoContext context) {
+    context.define("actor", new NativeFunction("actor", 1, (evaluator, arguments) -> {
+      if (!LangoRope.isString(arguments.get(0)))
+        throw new NativeError("Argument of 'actor' must be the path of a script.");
+      return spawn(arguments.get(0).toString());
+    }));
+
+    context.define("tell", new NativeFunction("tell", 2, (evaluator, arguments) -> {
+      actor(arguments.get(0), "tell").tell(arguments.get(1));
+      return null;
+    }));
+
+    context.define("ask", new NativeFunction("ask", 2, (evaluator, arguments) -> {
+      LangoActor actor = actor(arguments.get(0), "ask");
+      Object reply = await(actor.ask(arguments.get(1)), evaluator.interpreter());
+      return actor.thaw(reply, evaluator.interpreter().globals());
+    }));
+  }
+
+  /**
+   * @return the cost of the copies of the messages sent so far.
+   */
+  public CopyStats copyStats() {
+    return stats;
+  }
+
+  /**
+   * Stops all the actors once they handled the messages in their mailboxes.
+   */
+  @Override
+  public void close() {
+    for (LangoActor actor : actors) {
+      actor.stop();
+    }
+    actors.clear();
+  }
+
+  private LangoActor spawn(String path) {
+    String source;
+    try {
+      source = Files.readString(Path.of(path));
+    } catch (IOException e) {
+      throw new NativeError("Could not read the actor script '" + path + "'.");
+    }
+
+    try {
+      return spawn(path, engine.compile(path, source));
+    } catch (ScriptCompileException e) {
+      throw new NativeError(e.getMessage());
+    }
+  }
+
+  private static Object await(CompletableFuture<Object> reply, Interpreter interpreter) {
+    while (true) {
+      interpreter.checkInterrupted();
+      try {
+        return reply.get(POLL_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        // Wake up to notice an interruption of the asking script.
+      } catch (ExecutionException e) {
+        throw new NativeError(e.getCause().getMessage());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ScriptInterruptedException("Interrupted while waiting for an actor.");
+      }
+    }
+  }
+
+  private static LangoActor actor(Object value, String name) {
+    if (!(value instanceof LangoActor))
+      throw new NativeError("First argument of '" + name + "' must be an actor.");
+    return (LangoActor) value;
+  }
+}
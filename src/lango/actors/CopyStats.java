@@ -0,0 +1,46 @@
+package lango.actors;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures the cost of copying the messages exchanged by the actors of a
+ * system, replies included.
+ */
+public class CopyStats {
+  private final LongAdder messages = new LongAdder();
+  private final LongAdder values = new LongAdder();
+  private final LongAdder nanos = new LongAdder();
+
+  void record(long copiedValues, long elapsedNanos) {
+    messages.increment();
+    values.add(copiedValues);
+    nanos.add(elapsedNanos);
+  }
+
+  /**
+   * @return the number of copies made: one when a message is sent, one when
+   *         it's received, and the same for a reply.
+   */
+  public long messages() {
+    return messages.sum();
+  }
+
+  /**
+   * @return the number of arrays, instances and their elements copied.
+   */
+  public long values() {
+    return values.sum();
+  }
+
+  /**
+   * @return the total time spent copying, in nanoseconds.
+   */
+  public long copyNanos() {
+    return nanos.sum();
+  }
+
+  @Override
+  public String toString() {
+    return messages() + " copies of " + values() + " values in " + copyNanos() / 1000 + " us";
+  }
+}
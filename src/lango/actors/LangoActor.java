@@ -0,0 +1,193 @@
+package lango.actors;
+
+import java.util.Arrays;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import lango.Environment;
+import lango.engine.CompiledScript;
+import lango.engine.LangoContext;
+import lango.functions.LangoCallable;
+import lango.functions.NativeError;
+import lango.interpreter.ScriptInterruptedException;
+import lango.parser.RuntimeError;
+import lango.scanner.Token;
+import lango.scanner.TokenType;
+
+/**
+ * A script running in a context of its own, on a thread of its own, which
+ * handles the messages sent to its mailbox one at a time.
+ * 
+ * The script is executed first, then each message is passed to the global
+ * {@code onMessage(message)} function it declares. Messages and replies are
+ * copied (see {@link MessageCopier}), so an actor's state is only ever touched
+ * by its own thread.
+ */
+public class LangoActor {
+
+  /**
+   * The name of the function handling the messages.
+   */
+  public static final String HANDLER = "onMessage";
+
+  private static final Envelope STOP = new Envelope(null, null);
+
+  /**
+   * The actor whose script or handler runs on the current thread.
+   */
+  private static final ThreadLocal<LangoActor> CURRENT = new ThreadLocal<>();
+
+  private static final class Envelope {
+    final Object message;
+    final CompletableFuture<Object> reply;
+
+    Envelope(Object message, CompletableFuture<Object> reply) {
+      this.message = message;
+      this.reply = reply;
+    }
+  }
+
+  private final String name;
+  private final LangoContext context;
+  private final CopyStats stats;
+  private final BlockingQueue<Envelope> mailbox = new LinkedBlockingQueue<>();
+
+  /**
+   * Set once the actor doesn't handle messages anymore.
+   */
+  private volatile boolean stopped = false;
+
+  LangoActor(String name, LangoContext context, CopyStats stats) {
+    this.name = name;
+    this.context = context;
+    this.stats = stats;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  /**
+   * Sends a message without waiting for it to be handled.
+   * 
+   * @throws NativeError if the message holds a value that can't be sent.
+   */
+  public void tell(Object message) {
+    mailbox.add(new Envelope(MessageCopier.freeze(message, stats), null));
+  }
+
+  /**
+   * Sends a message and gets the value returned by its handler, copied into
+   * the given context.
+   * 
+   * @throws NativeError if the message holds a value that can't be sent.
+   */
+  public CompletableFuture<Object> ask(Object message, LangoContext receiver) {
+    Environment globals = receiver.interpreter().globals();
+    return ask(message).thenApply(reply -> MessageCopier.thaw(reply, globals, stats));
+  }
+
+  /**
+   * @return the frozen reply, to be thawed by the receiver.
+   * @throws NativeError if the actor asks itself, its reply would only be
+   *                     handled once the asking handler returned.
+   */
+  CompletableFuture<Object> ask(Object message) {
+    if (CURRENT.get() == this)
+      throw new NativeError("An actor can't ask itself, use tell instead.");
+
+    CompletableFuture<Object> reply = new CompletableFuture<>();
+    mailbox.add(new Envelope(MessageCopier.freeze(message, stats), reply));
+    if (stopped)
+      failPending("Actor '" + name + "' stopped.");
+    return reply;
+  }
+
+  Object thaw(Object frozen, Environment globals) {
+    return MessageCopier.thaw(frozen, globals, stats);
+  }
+
+  /**
+   * Stops the actor once the messages already in its mailbox are handled.
+   */
+  public void stop() {
+    mailbox.add(STOP);
+  }
+
+  void run(CompiledScript script) {
+    String reason = "Actor '" + name + "' stopped.";
+    CURRENT.set(this);
+    try {
+      if (!context.execute(script)) {
+        reason = "Actor '" + name + "' failed to start.";
+        return;
+      }
+
+      Environment globals = context.interpreter().globals();
+      while (true) {
+        Envelope envelope = mailbox.take();
+        if (envelope == STOP)
+          break;
+
+        handle(envelope, globals);
+      }
+    } catch (InterruptedException | ScriptInterruptedException e) {
+      // Stopped by the system.
+    } catch (RuntimeException e) {
+      // A failure of the interpreter itself, the actor's state can't be trusted
+      // anymore.
+      reason = "Actor '" + name + "' crashed: " + e;
+      context.reporter().runtimeError(new RuntimeError(handlerToken(), reason));
+    } finally {
+      CURRENT.remove();
+      stopped = true;
+      failPending(reason);
+    }
+  }
+
+  private void handle(Envelope envelope, Environment globals) {
+    try {
+      Object handler = globals.getAt(0, HANDLER);
+      if (!(handler instanceof LangoCallable) || ((LangoCallable) handler).arity() != 1) {
+        throw new NativeError("Actor '" + name + "' must declare a function " + HANDLER + "(message).");
+      }
+
+      Object message = thaw(envelope.message, globals);
+      Object result = context.interpreter().call((LangoCallable) handler, Arrays.asList(message));
+      if (envelope.reply != null)
+        envelope.reply.complete(MessageCopier.freeze(result, stats));
+    } catch (RuntimeError error) {
+      context.reporter().runtimeError(error);
+      if (envelope.reply != null)
+        envelope.reply.completeExceptionally(error);
+    } catch (NativeError error) {
+      // There's no call site to blame, report it at the handler.
+      RuntimeError runtimeError = new RuntimeError(handlerToken(), error.getMessage());
+      context.reporter().runtimeError(runtimeError);
+      if (envelope.reply != null)
+        envelope.reply.completeExceptionally(runtimeError);
+    } catch (RuntimeException e) {
+      if (envelope.reply != null)
+        envelope.reply.completeExceptionally(e);
+      throw e;
+    }
+  }
+
+  private static Token handlerToken() {
+    return new Token(HANDLER, TokenType.IDENTIFIER, null, 0);
+  }
+
+  private void failPending(String reason) {
+    Envelope envelope;
+    while ((envelope = mailbox.poll()) != null) {
+      if (envelope.reply != null)
+        envelope.reply.completeExceptionally(new IllegalStateException(reason));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "<actor " + name + ">";
+  }
+}
@@ -0,0 +1,200 @@
+package lango.actors;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import lango.Environment;
+import lango.classes.LangoClass;
+import lango.classes.LangoInstance;
+import lango.functions.NativeError;
+import lango.collections.LangoArray;
+import lango.collections.LangoMap;
+import lango.collections.LangoRope;
+
+/**
+ * Copies the messages sent between actors, so they never share a mutable
+ * value.
+ * 
+ * A message is frozen by the sender into a detached copy, which the receiver
+ * thaws into values of its own. Nil, booleans, numbers, strings and actors are
+ * immutable and passed as they are. Arrays, maps and instances are copied deeply,
+ * keeping cycles and shared references; an instance is attached to the class
+ * of the same name in the receiver, as classes (like functions) carry the
+ * scope of the actor that declared them and can't be sent.
+ */
+final class MessageCopier {
+
+  private static final class FrozenArray {
+    final Object[] elements;
+
+    FrozenArray(int length) {
+      elements = new Object[length];
+    }
+  }
+
+  private static final class FrozenMap {
+    final Object[] keys;
+    final Object[] values;
+
+    FrozenMap(int size) {
+      keys = new Object[size];
+      values = new Object[size];
+    }
+  }
+
+  private static final class FrozenInstance {
+    final String className;
+    final String[] names;
+    final Object[] values;
+
+    FrozenInstance(String className, int size) {
+      this.className = className;
+      this.names = new String[size];
+      this.values = new Object[size];
+    }
+  }
+
+  private final CopyStats stats;
+  private final Map<Object, Object> copies = new IdentityHashMap<>();
+  private long copied = 0;
+
+  private MessageCopier(CopyStats stats) {
+    this.stats = stats;
+  }
+
+  /**
+   * Makes a detached copy of a message, on the sender's thread.
+   * 
+   * @throws NativeError if the message holds a value that can't be sent.
+   */
+  static Object freeze(Object message, CopyStats stats) {
+    MessageCopier copier = new MessageCopier(stats);
+    long start = System.nanoTime();
+    Object frozen = copier.freeze(message);
+    stats.record(copier.copied, System.nanoTime() - start);
+    return frozen;
+  }
+
+  /**
+   * Makes the values of the receiver out of a detached copy, on the receiver's
+   * thread.
+   * 
+   * @param globals the globals of the receiver, where the classes of the
+   *                instances are looked up.
+   * @throws NativeError if the receiver has no class for an instance.
+   */
+  static Object thaw(Object frozen, Environment globals, CopyStats stats) {
+    MessageCopier copier = new MessageCopier(stats);
+    long start = System.nanoTime();
+    Object message = copier.thaw(frozen, globals);
+    stats.record(copier.copied, System.nanoTime() - start);
+    return message;
+  }
+
+  private Object freeze(Object value) {
+    // A rope shares its builder with the ropes of the sender.
+    value = LangoRope.flatten(value);
+    if (value == null || value instanceof Boolean || value instanceof Double || value instanceof String
+        || value instanceof LangoActor) {
+      return value;
+    }
+
+    Object copy = copies.get(value);
+    if (copy != null)
+      return copy;
+
+    if (value instanceof LangoArray && ((LangoArray) value).holdsNumbers()) {
+      // The copy holds no reference, the receiver can take it as it is.
+      copy = ((LangoArray) value).copy();
+      copies.put(value, copy);
+      copied++;
+      return copy;
+    }
+
+    if (value instanceof LangoArray) {
+      LangoArray array = (LangoArray) value;
+      FrozenArray frozen = new FrozenArray(array.size());
+      copies.put(value, frozen);
+      copied++;
+      for (int i = 0; i < array.size(); i++) {
+        frozen.elements[i] = freeze(array.get(i));
+      }
+      return frozen;
+    }
+
+    if (value instanceof LangoMap) {
+      LangoMap map = (LangoMap) value;
+      FrozenMap frozen = new FrozenMap(map.size());
+      copies.put(value, frozen);
+      copied++;
+      LangoArray keys = map.keys();
+      for (int i = 0; i < keys.size(); i++) {
+        frozen.keys[i] = freeze(keys.get(i));
+        frozen.values[i] = freeze(map.get(keys.get(i)));
+      }
+      return frozen;
+    }
+
+    if (value instanceof LangoInstance) {
+      LangoInstance instance = (LangoInstance) value;
+      Map<String, Object> fields = instance.fields();
+      FrozenInstance frozen = new FrozenInstance(instance.klass().name(), fields.size());
+      copies.put(value, frozen);
+      copied++;
+      int i = 0;
+      for (Map.Entry<String, Object> field : fields.entrySet()) {
+        frozen.names[i] = field.getKey();
+        frozen.values[i] = freeze(field.getValue());
+        i++;
+      }
+      return frozen;
+    }
+
+    throw new NativeError("Can't send " + value + " to an actor, only nil, booleans, numbers, strings, "
+        + "arrays, maps, instances and actors.");
+  }
+
+  private Object thaw(Object value, Environment globals) {
+    if (!(value instanceof FrozenArray) && !(value instanceof FrozenMap) && !(value instanceof FrozenInstance))
+      return value;
+
+    Object copy = copies.get(value);
+    if (copy != null)
+      return copy;
+
+    if (value instanceof FrozenArray) {
+      FrozenArray frozen = (FrozenArray) value;
+      LangoArray array = new LangoArray(frozen.elements.length);
+      copies.put(value, array);
+      copied++;
+      for (int i = 0; i < frozen.elements.length; i++) {
+        array.set(i, thaw(frozen.elements[i], globals));
+      }
+      return array;
+    }
+
+    if (value instanceof FrozenMap) {
+      FrozenMap frozen = (FrozenMap) value;
+      LangoMap map = new LangoMap();
+      copies.put(value, map);
+      copied++;
+      for (int i = 0; i < frozen.keys.length; i++) {
+        map.put(thaw(frozen.keys[i], globals), thaw(frozen.values[i], globals));
+      }
+      return map;
+    }
+
+    FrozenInstance frozen = (FrozenInstance) value;
+    Object klass = globals.getAt(0, frozen.className);
+    if (!(klass instanceof LangoClass))
+      throw new NativeError("Class '" + frozen.className + "' of a received instance isn't defined.");
+
+    LangoInstance instance = ((LangoClass) klass).instantiate();
+    copies.put(value, instance);
+    copied++;
+    for (int i = 0; i < frozen.names.length; i++) {
+      instance.setField(frozen.names[i], thaw(frozen.values[i], globals));
+    }
+    return instance;
+  }
+}
@@ -17,6 +17,14 @@ public abstract class Expr {
 
     R visitSetExpr(Set expr);
 
+    R visitArrayLiteralExpr(ArrayLiteral expr);
+
+    R visitMapLiteralExpr(MapLiteral expr);
+
+    R visitIndexExpr(Index expr);
+
+    R visitIndexSetExpr(IndexSet expr);
+
     R visitSuperExpr(Super expr);
 
     R visitThisExpr(This expr);
@@ -47,6 +55,16 @@ public abstract class Expr {
 
     public final Token name;
     public final Expr value;
+    /**
+     * Number of scopes between this expression and the variable's declaration,
+     * set by the resolver. -1 means the variable is global.
+     */
+    public int depth = -1;
+    /**
+     * Index of the global variable in the GlobalNames of the engine, set by
+     * the resolver when the variable is global. -1 means the variable is local.
+     */
+    public int global = -1;
   }
 
   public static class Binary extends Expr {
@@ -96,6 +114,11 @@ public abstract class Expr {
 
     public final List<Token> params;
     public final List<Stmt> body;
+    /**
+     * Whether the body contains a yield statement, set by the parser. Calling a
+     * generator returns a generator object instead of running the body.
+     */
+    public boolean isGenerator = false;
   }
 
   public static class Get extends Expr {
@@ -130,6 +153,70 @@ public abstract class Expr {
     public final Expr value;
   }
 
+  public static class ArrayLiteral extends Expr {
+    public ArrayLiteral(List<Expr> elements) {
+      this.elements = elements;
+    }
+
+    @Override
+    public <R> R accept(Visitor<R> visitor) {
+      return visitor.visitArrayLiteralExpr(this);
+    }
+
+    public final List<Expr> elements;
+  }
+
+  public static class MapLiteral extends Expr {
+    public MapLiteral(List<Expr> keys, List<Expr> values) {
+      this.keys = keys;
+      this.values = values;
+    }
+
+    @Override
+    public <R> R accept(Visitor<R> visitor) {
+      return visitor.visitMapLiteralExpr(this);
+    }
+
+    public final List<Expr> keys;
+    public final List<Expr> values;
+  }
+
+  public static class Index extends Expr {
+    public Index(Expr object, Token bracket, Expr index) {
+      this.object = object;
+      this.bracket = bracket;
+      this.index = index;
+    }
+
+    @Override
+    public <R> R accept(Visitor<R> visitor) {
+      return visitor.visitIndexExpr(this);
+    }
+
+    public final Expr object;
+    public final Token bracket;
+    public final Expr index;
+  }
+
+  public static class IndexSet extends Expr {
+    public IndexSet(Expr object, Token bracket, Expr index, Expr value) {
+      this.object = object;
+      this.bracket = bracket;
+      this.index = index;
+      this.value = value;
+    }
+
+    @Override
+    public <R> R accept(Visitor<R> visitor) {
+      return visitor.visitIndexSetExpr(this);
+    }
+
+    public final Expr object;
+    public final Token bracket;
+    public final Expr index;
+    public final Expr value;
+  }
+
   public static class Super extends Expr {
     public Super(Token keyword, Token method) {
       this.keyword = keyword;
@@ -143,6 +230,11 @@ public abstract class Expr {
 
     public final Token keyword;
     public final Token method;
+    /**
+     * Number of scopes between this expression and the variable's declaration,
+     * set by the resolver. -1 means the variable is global.
+     */
+    public int depth = -1;
   }
 
   public static class This extends Expr {
@@ -156,6 +248,11 @@ public abstract class Expr {
     }
 
     public final Token keyword;
+    /**
+     * Number of scopes between this expression and the variable's declaration,
+     * set by the resolver. -1 means the variable is global.
+     */
+    public int depth = -1;
   }
 
   public static class Grouping extends Expr {
@@ -227,5 +324,15 @@ public abstract class Expr {
     }
 
     public final Token name;
+    /**
+     * Number of scopes between this expression and the variable's declaration,
+     * set by the resolver. -1 means the variable is global.
+     */
+    public int depth = -1;
+    /**
+     * Index of the global variable in the GlobalNames of the engine, set by
+     * the resolver when the variable is global. -1 means the variable is local.
+     */
+    public int global = -1;
   }
 }
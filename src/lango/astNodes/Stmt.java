@@ -21,8 +21,12 @@ public abstract class Stmt {
 
     R visitReturnStmt(Return stmt);
 
+    R visitYieldStmt(Yield stmt);
+
     R visitBreakStmt(Break stmt);
 
+    R visitImportStmt(Import stmt);
+
     R visitVarStmt(Var stmt);
 
     R visitWhileStmt(While stmt);
@@ -88,6 +92,11 @@ public abstract class Stmt {
     public final Token name;
     public final List<Token> params;
     public final List<Stmt> body;
+    /**
+     * Whether the body contains a yield statement, set by the parser. Calling a
+     * generator returns a generator object instead of running the body.
+     */
+    public boolean isGenerator = false;
   }
 
   public static class If extends Stmt {
@@ -152,6 +161,21 @@ public abstract class Stmt {
     public final Expr value;
   }
 
+  public static class Yield extends Stmt {
+    public Yield(Token keyword, Expr value) {
+      this.keyword = keyword;
+      this.value = value;
+    }
+
+    @Override
+    public <R> R accept(Visitor<R> visitor) {
+      return visitor.visitYieldStmt(this);
+    }
+
+    public final Token keyword;
+    public final Expr value;
+  }
+
   public static class Break extends Stmt {
     public Break(Token keyword) {
       this.keyword = keyword;
@@ -165,6 +189,21 @@ public abstract class Stmt {
     public final Token keyword;
   }
 
+  public static class Import extends Stmt {
+    public Import(Token keyword, Token path) {
+      this.keyword = keyword;
+      this.path = path;
+    }
+
+    @Override
+    public <R> R accept(Visitor<R> visitor) {
+      return visitor.visitImportStmt(this);
+    }
+
+    public final Token keyword;
+    public final Token path;
+  }
+
   public static class Var extends Stmt {
     public Var(Token name, Expr initializer) {
       this.name = name;
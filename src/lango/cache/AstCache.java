@@ -0,0 +1,147 @@
+package lango.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import lango.compact.CompactAst;
+
+/**
+ * An on-disk cache of resolved syntax trees, keyed by the hash of the source
+ * code. Entries are stored in the flat {@link CompactAst} form the front end
+ * runs cached scripts from.
+ * 
+ * Scripts that didn't change since their last run are loaded straight from the
+ * cache, skipping the scanner, the parser and the resolver. A script whose
+ * content changed gets a different key, so entries never need to be
+ * invalidated.
+ */
+public class AstCache {
+  /**
+   * Bumped whenever the serialized format changes, it's part of the key so old
+   * entries are simply ignored.
+   */
+  static final int FORMAT_VERSION = 7;
+
+  /**
+   * "LNGO" in ASCII.
+   */
+  private static final int MAGIC = 0x4C4E474F;
+
+  private final Path directory;
+
+  public AstCache(Path directory) {
+    this.directory = directory;
+  }
+
+  /**
+   * Creates the cache configured through the system properties.
+   * 
+   * The cache lives in {@code ~/.lango/cache} unless {@code lango.cacheDir} is
+   * set, and is disabled with {@code -Dlango.cache=false}.
+   * 
+   * @return the cache or null if caching is disabled.
+   */
+  public static AstCache fromSystemProperties() {
+    if ("false".equals(System.getProperty("lango.cache")))
+      return null;
+
+    String directory = System.getProperty("lango.cacheDir");
+    if (directory != null)
+      return new AstCache(Path.of(directory));
+
+    return new AstCache(Path.of(System.getProperty("user.home"), ".lango", "cache"));
+  }
+
+  /**
+   * Looks up the resolved tree of the given source code.
+   * 
+   * @param source the source code.
+   * @return the cached tree, already resolved, or null if it's not cached or
+   *         the entry is unusable.
+   */
+  public CompactAst load(String source) {
+    byte[] bytes;
+    try {
+      bytes = Files.readAllBytes(entry(source));
+    } catch (IOException e) {
+      return null;
+    }
+
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+    try {
+      if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION)
+        return null;
+
+      return CompactAst.read(in);
+    } catch (IOException | RuntimeException e) {
+      // A truncated or corrupted entry is treated as a miss.
+      return null;
+    }
+  }
+
+  /**
+   * Stores a resolved tree. Failing to write the cache isn't an error, the
+   * script is just parsed again next time.
+   * 
+   * @param source the source code the tree was parsed from.
+   * @param ast    the resolved tree.
+   */
+  public void store(String source, CompactAst ast) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT_VERSION);
+      ast.write(out);
+      out.flush();
+
+      Files.createDirectories(directory);
+      // Written to a temporary file first so that concurrent runs never read a
+      // partially written entry.
+      Path temporary = Files.createTempFile(directory, "ast", ".tmp");
+      try {
+        Files.write(temporary, bytes.toByteArray());
+        Files.move(temporary, entry(source), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+        Files.deleteIfExists(temporary);
+      }
+    } catch (IOException e) {
+      // Ignored, see the method's documentation.
+    }
+  }
+
+  private Path entry(String source) {
+    return directory.resolve(key(source) + ".ast");
+  }
+
+  /**
+   * @return the hex encoded SHA-256 hash of the format version and the source.
+   */
+  static String key(String source) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+
+    digest.update((byte) FORMAT_VERSION);
+    byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+
+    StringBuilder key = new StringBuilder();
+    for (byte b : hash) {
+      key.append(String.format("%02x", b));
+    }
+    return key.toString();
+  }
+}
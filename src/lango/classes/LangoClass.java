@@ -1,11 +1,12 @@
 package lango.classes;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
 import lango.functions.LangoCallable;
 import lango.functions.LangoFunction;
-import lango.interpreter.Interpreter;
+import lango.interpreter.Evaluator;
 
 public class LangoClass implements LangoCallable {
 
@@ -20,17 +21,40 @@ public class LangoClass implements LangoCallable {
   }
 
   @Override
-  public Object call(Interpreter interpreter, List<Object> arguments) {
+  public Object call(Evaluator evaluator, List<Object> arguments) {
     LangoInstance instance = new LangoInstance(this);
 
     LangoFunction initializer = findMethod("init");
     if (initializer != null) {
-      initializer.bind(instance).call(interpreter, arguments);
+      initializer.bind(instance).call(evaluator, arguments);
     }
 
     return instance;
   }
 
+  public String name() {
+    return name;
+  }
+
+  public LangoClass superclass() {
+    return superclass;
+  }
+
+  /**
+   * @return a read-only view of the methods declared by the class itself.
+   */
+  public Map<String, LangoFunction> methods() {
+    return Collections.unmodifiableMap(methods);
+  }
+
+  /**
+   * Creates an instance without calling the initializer, i.e. to copy the
+   * fields of another instance into it.
+   */
+  public LangoInstance instantiate() {
+    return new LangoInstance(this);
+  }
+
   public LangoFunction findMethod(String name) {
     if (methods.containsKey(name)) {
       return methods.get(name);
@@ -1,5 +1,6 @@
 package lango.classes;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -32,6 +33,21 @@ public class LangoInstance {
     fields.put(name.lexeme, value);
   }
 
+  public LangoClass klass() {
+    return klass;
+  }
+
+  /**
+   * @return a read-only view of the fields.
+   */
+  public Map<String, Object> fields() {
+    return Collections.unmodifiableMap(fields);
+  }
+
+  public void setField(String name, Object value) {
+    fields.put(name, value);
+  }
+
   @Override
   public String toString() {
     return klass.name + " instance";
@@ -0,0 +1,266 @@
+package lango.collections;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import lango.interpreter.Interpreter;
+
+/**
+ * A growable array of values, indexed from 0.
+ * 
+ * While it only holds numbers and nils, the elements are kept unboxed in a
+ * {@code double[]}, a fourth of the memory of boxed doubles with no pointer to
+ * follow, and the nils are marked in a bit set. So an array created with a
+ * length, full of nils, stays unboxed while numbers are stored into it.
+ * Storing any other value switches it for good to an {@code Object[]}.
+ * 
+ * It's not synchronized: tasks may write numbers or nils to distinct indices
+ * concurrently, the bits of the nils are updated atomically, but appending to
+ * an array shared by tasks, or storing a value that isn't a number into it,
+ * races.
+ */
+public class LangoArray {
+  private static final int MIN_CAPACITY = 4;
+
+  /**
+   * The elements while they're all numbers, null afterwards.
+   */
+  private double[] numbers;
+
+  /**
+   * The indices holding nil while the elements are unboxed, a bit per index
+   * of {@link #numbers}, null if none ever did.
+   */
+  private volatile AtomicLongArray nils;
+
+  /**
+   * How many bits are set in {@link #nils}, null along with it.
+   */
+  private volatile AtomicInteger nilCount;
+
+  /**
+   * The elements once they're not all numbers, null before.
+   */
+  private Object[] elements;
+
+  private int size;
+
+  /**
+   * Creates an array of the given length filled with nils, stored unboxed.
+   */
+  public LangoArray(int length) {
+    numbers = new double[Math.max(MIN_CAPACITY, length)];
+    if (length > 0) {
+      long[] words = new long[words(numbers.length)];
+      Arrays.fill(words, 0, length >>> 6, -1L);
+      if ((length & 63) != 0) {
+        words[length >>> 6] = (1L << length) - 1;
+      }
+      nils = new AtomicLongArray(words);
+      nilCount = new AtomicInteger(length);
+    }
+    size = length;
+  }
+
+  /**
+   * Wraps the given elements, the array takes ownership of them unless they're
+   * all numbers.
+   */
+  public LangoArray(Object[] elements) {
+    this.size = elements.length;
+    for (Object element : elements) {
+      if (!(element instanceof Double)) {
+        this.elements = elements;
+        return;
+      }
+    }
+
+    numbers = new double[Math.max(MIN_CAPACITY, size)];
+    for (int i = 0; i < size; i++) {
+      numbers[i] = (double) elements[i];
+    }
+  }
+
+  /**
+   * Wraps the first {@code size} numbers of the given array, which the array
+   * takes ownership of.
+   */
+  public LangoArray(double[] numbers, int size) {
+    this.numbers = numbers.length < MIN_CAPACITY ? Arrays.copyOf(numbers, MIN_CAPACITY) : numbers;
+    this.size = size;
+  }
+
+  /**
+   * @return a shallow copy, with the same storage.
+   */
+  public LangoArray copy() {
+    LangoArray copy = new LangoArray(0);
+    copy.numbers = numbers == null ? null : numbers.clone();
+    if (nils != null) {
+      copy.nils = copyOf(nils, nils.length());
+      copy.nilCount = new AtomicInteger(nilCount.get());
+    }
+    copy.elements = elements == null ? null : elements.clone();
+    copy.size = size;
+    return copy;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return whether the elements are all numbers, stored unboxed.
+   */
+  public boolean holdsNumbers() {
+    return numbers != null && !hasNils();
+  }
+
+  /**
+   * @return the unboxed elements, valid up to {@link #size()}, for natives
+   *         working on numbers in bulk; null unless {@link #holdsNumbers()}.
+   */
+  public double[] numbers() {
+    return holdsNumbers() ? numbers : null;
+  }
+
+  public Object get(int index) {
+    if (numbers != null) {
+      if (hasNils() && isNil(index))
+        return null;
+      return numbers[index];
+    }
+    return elements[index];
+  }
+
+  public void set(int index, Object value) {
+    if (numbers != null) {
+      if (value instanceof Double) {
+        numbers[index] = (double) value;
+        if (hasNils() && updateNil(index, false)) {
+          nilCount.decrementAndGet();
+        }
+        return;
+      }
+      if (value == null) {
+        markNil(index);
+        return;
+      }
+      box();
+    }
+    elements[index] = value;
+  }
+
+  public void append(Object value) {
+    if (numbers != null) {
+      if (value instanceof Double || value == null) {
+        if (size == numbers.length) {
+          numbers = Arrays.copyOf(numbers, size * 2);
+          if (nils != null) {
+            nils = copyOf(nils, words(numbers.length));
+          }
+        }
+        if (value == null) {
+          markNil(size);
+        } else {
+          numbers[size] = (double) value;
+        }
+        size++;
+        return;
+      }
+      box();
+    }
+
+    if (size == elements.length) {
+      elements = Arrays.copyOf(elements, Math.max(MIN_CAPACITY, size * 2));
+    }
+    elements[size++] = value;
+  }
+
+  private void markNil(int index) {
+    if (nils == null) {
+      createNils();
+    }
+    numbers[index] = 0;
+    if (updateNil(index, true)) {
+      nilCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Creates the bit set of the nils, once even when tasks store nils
+   * concurrently.
+   */
+  private synchronized void createNils() {
+    if (nils == null) {
+      nils = new AtomicLongArray(words(numbers.length));
+      nilCount = new AtomicInteger();
+    }
+  }
+
+  private boolean hasNils() {
+    AtomicInteger count = nilCount;
+    return count != null && count.get() > 0;
+  }
+
+  private boolean isNil(int index) {
+    return (nils.get(index >>> 6) & (1L << index)) != 0;
+  }
+
+  /**
+   * Sets or clears the bit of an index without losing the bits of the
+   * neighbouring indices written by other tasks.
+   * 
+   * @return whether the bit changed.
+   */
+  private boolean updateNil(int index, boolean nil) {
+    AtomicLongArray words = nils;
+    int word = index >>> 6;
+    long bit = 1L << index;
+    long old;
+    do {
+      old = words.get(word);
+      if (((old & bit) != 0) == nil)
+        return false;
+    } while (!words.compareAndSet(word, old, old ^ bit));
+    return true;
+  }
+
+  private static int words(int capacity) {
+    return (capacity + 63) >>> 6;
+  }
+
+  private static AtomicLongArray copyOf(AtomicLongArray words, int length) {
+    long[] copy = new long[length];
+    for (int i = 0; i < Math.min(length, words.length()); i++) {
+      copy[i] = words.get(i);
+    }
+    return new AtomicLongArray(copy);
+  }
+
+  /**
+   * Switches to boxed storage, before storing a value that isn't a number or
+   * nil.
+   */
+  private void box() {
+    elements = new Object[numbers.length];
+    for (int i = 0; i < size; i++) {
+      elements[i] = hasNils() && isNil(i) ? null : numbers[i];
+    }
+    numbers = null;
+    nils = null;
+    nilCount = null;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("[");
+    for (int i = 0; i < size; i++) {
+      if (i > 0)
+        builder.append(", ");
+      builder.append(Interpreter.stringify(get(i)));
+    }
+    return builder.append("]").toString();
+  }
+}
@@ -0,0 +1,300 @@
+package lango.collections;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+
+import lango.interpreter.Interpreter;
+
+/**
+ * A hash map from values to values, where keys are equal as the interpreter's
+ * {@code ==} defines it: numbers and strings by value, nil to nil, anything
+ * else by identity. Ropes are flattened into the string keys they stand for.
+ * 
+ * It's an open-addressing table with linear probing: keys and values live in
+ * flat arrays, so an entry costs no allocation. While every key is a number,
+ * the keys are kept unboxed in a {@code long[]} of their bits (which is how
+ * {@link Double#equals} compares them); the first key that isn't a number
+ * switches the map for good to an {@code Object[]} of keys. Removal shifts the
+ * following entries back instead of leaving tombstones.
+ * 
+ * It's not synchronized.
+ */
+public class LangoMap {
+  private static final int MIN_CAPACITY = 8;
+
+  /**
+   * Marks an empty slot of {@link #numberKeys}: a NaN that
+   * {@link Double#doubleToLongBits} never returns, since it collapses all NaNs
+   * into one.
+   */
+  private static final long EMPTY_BITS = 0x7ff0000000000001L;
+
+  /**
+   * Stands for a nil key in {@link #objectKeys}, where null marks an empty
+   * slot.
+   */
+  private static final Object NIL = new Object();
+
+  /**
+   * The keys while they're all numbers, null afterwards.
+   */
+  private long[] numberKeys;
+
+  /**
+   * The keys once they're not all numbers, null before.
+   */
+  private Object[] objectKeys;
+
+  private Object[] values;
+  private int size;
+
+  public LangoMap() {
+    numberKeys = new long[MIN_CAPACITY];
+    Arrays.fill(numberKeys, EMPTY_BITS);
+    values = new Object[MIN_CAPACITY];
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * @return the value of a key, null if there's none.
+   */
+  public Object get(Object key) {
+    key = LangoRope.flatten(key);
+    int slot = find(key);
+    return slot < 0 ? null : values[slot];
+  }
+
+  public boolean containsKey(Object key) {
+    key = LangoRope.flatten(key);
+    return find(key) >= 0;
+  }
+
+  public void put(Object key, Object value) {
+    key = LangoRope.flatten(key);
+    if (numberKeys != null && !(key instanceof Double)) {
+      rehash(values.length, false);
+    }
+    if ((size + 1) * 3 > values.length * 2) {
+      rehash(values.length * 2, numberKeys != null);
+    }
+
+    int mask = values.length - 1;
+    if (numberKeys != null) {
+      long bits = Double.doubleToLongBits((double) key);
+      int slot = hash(bits) & mask;
+      while (numberKeys[slot] != EMPTY_BITS) {
+        if (numberKeys[slot] == bits) {
+          values[slot] = value;
+          return;
+        }
+        slot = (slot + 1) & mask;
+      }
+      numberKeys[slot] = bits;
+      values[slot] = value;
+    } else {
+      Object stored = key == null ? NIL : key;
+      int slot = hash(stored) & mask;
+      while (objectKeys[slot] != null) {
+        if (objectKeys[slot].equals(stored)) {
+          values[slot] = value;
+          return;
+        }
+        slot = (slot + 1) & mask;
+      }
+      objectKeys[slot] = stored;
+      values[slot] = value;
+    }
+    size++;
+  }
+
+  /**
+   * @return the value the key had, null if there was none.
+   */
+  public Object remove(Object key) {
+    key = LangoRope.flatten(key);
+    int slot = find(key);
+    if (slot < 0)
+      return null;
+
+    Object removed = values[slot];
+    size--;
+
+    // Shift back the entries of the run that follows, so the ones that
+    // probed past the removed slot can still be found.
+    int mask = values.length - 1;
+    int hole = slot;
+    int next = (slot + 1) & mask;
+    while (!isEmpty(next)) {
+      int home = home(next) & mask;
+      // The entry can move to the hole if its home isn't between the hole
+      // (exclusive) and its slot (inclusive), cyclically.
+      if (((next - home) & mask) >= ((next - hole) & mask)) {
+        moveSlot(next, hole);
+        hole = next;
+      }
+      next = (next + 1) & mask;
+    }
+    clearSlot(hole);
+    return removed;
+  }
+
+  /**
+   * Visits the entries, in no particular order.
+   */
+  public void forEach(BiConsumer<Object, Object> action) {
+    for (int slot = 0; slot < values.length; slot++) {
+      if (!isEmpty(slot)) {
+        action.accept(keyAt(slot), values[slot]);
+      }
+    }
+  }
+
+  /**
+   * @return the keys, in no particular order.
+   */
+  public LangoArray keys() {
+    Object[] keys = new Object[size];
+    int i = 0;
+    for (int slot = 0; slot < values.length; slot++) {
+      if (!isEmpty(slot)) {
+        keys[i++] = keyAt(slot);
+      }
+    }
+    return new LangoArray(keys);
+  }
+
+  /**
+   * @return the slot of a key, -1 if it's not in the map.
+   */
+  private int find(Object key) {
+    int mask = values.length - 1;
+    if (numberKeys != null) {
+      if (!(key instanceof Double))
+        return -1;
+
+      long bits = Double.doubleToLongBits((double) key);
+      int slot = hash(bits) & mask;
+      while (numberKeys[slot] != EMPTY_BITS) {
+        if (numberKeys[slot] == bits)
+          return slot;
+        slot = (slot + 1) & mask;
+      }
+      return -1;
+    }
+
+    Object stored = key == null ? NIL : key;
+    int slot = hash(stored) & mask;
+    while (objectKeys[slot] != null) {
+      if (objectKeys[slot].equals(stored))
+        return slot;
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  /**
+   * Moves the entries to new arrays of the given capacity.
+   * 
+   * @param numbers whether the keys stay unboxed.
+   */
+  private void rehash(int capacity, boolean numbers) {
+    long[] oldNumberKeys = numberKeys;
+    Object[] oldObjectKeys = objectKeys;
+    Object[] oldValues = values;
+
+    values = new Object[capacity];
+    if (numbers) {
+      numberKeys = new long[capacity];
+      Arrays.fill(numberKeys, EMPTY_BITS);
+      objectKeys = null;
+    } else {
+      numberKeys = null;
+      objectKeys = new Object[capacity];
+    }
+    size = 0;
+
+    for (int slot = 0; slot < oldValues.length; slot++) {
+      if (oldNumberKeys != null && oldNumberKeys[slot] != EMPTY_BITS) {
+        put(Double.longBitsToDouble(oldNumberKeys[slot]), oldValues[slot]);
+      } else if (oldObjectKeys != null && oldObjectKeys[slot] != null) {
+        Object key = oldObjectKeys[slot];
+        put(key == NIL ? null : key, oldValues[slot]);
+      }
+    }
+  }
+
+  private boolean isEmpty(int slot) {
+    if (numberKeys != null)
+      return numberKeys[slot] == EMPTY_BITS;
+    return objectKeys[slot] == null;
+  }
+
+  private Object keyAt(int slot) {
+    if (numberKeys != null)
+      return Double.longBitsToDouble(numberKeys[slot]);
+    Object key = objectKeys[slot];
+    return key == NIL ? null : key;
+  }
+
+  private int home(int slot) {
+    if (numberKeys != null)
+      return hash(numberKeys[slot]);
+    return hash(objectKeys[slot]);
+  }
+
+  private void moveSlot(int from, int to) {
+    if (numberKeys != null) {
+      numberKeys[to] = numberKeys[from];
+    } else {
+      objectKeys[to] = objectKeys[from];
+    }
+    values[to] = values[from];
+  }
+
+  private void clearSlot(int slot) {
+    if (numberKeys != null) {
+      numberKeys[slot] = EMPTY_BITS;
+    } else {
+      objectKeys[slot] = null;
+    }
+    values[slot] = null;
+  }
+
+  /**
+   * Mixes all the bits of a number key into the low bits the table is indexed
+   * by (murmur3's 64-bit finalizer). Integral doubles only differ in their
+   * high bits, a multiplication alone would leave their low bits all zero.
+   */
+  private static int hash(long bits) {
+    long h = bits;
+    h ^= h >>> 33;
+    h *= 0xFF51AFD7ED558CCDL;
+    h ^= h >>> 33;
+    h *= 0xC4CEB9FE1A85EC53L;
+    h ^= h >>> 33;
+    return (int) h;
+  }
+
+  /**
+   * Spreads the hash code, so keys with close hash codes (i.e. short strings)
+   * don't cluster in the table.
+   */
+  private static int hash(Object key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder("{");
+    forEach((key, value) -> {
+      if (builder.length() > 1)
+        builder.append(", ");
+      builder.append(Interpreter.stringify(key)).append(": ").append(Interpreter.stringify(value));
+    });
+    return builder.append("}").toString();
+  }
+}
@@ -0,0 +1,127 @@
+package lango.collections;
+
+import lango.interpreter.Interpreter;
+
+/**
+ * A string made by concatenation, whose characters are appended to a builder
+ * instead of being copied into a new string by every {@code +}.
+ *
+ * A rope is a prefix of its builder: concatenating to the rope that ends the
+ * builder appends in place and makes a longer rope over the same builder, so
+ * {@code s = s + piece} in a loop is linear. Concatenating to an older rope
+ * (the builder went on since) or prepending copies, like strings do. The
+ * characters of a rope never change, it's flattened into a {@link String}
+ * when it's observed (printed, compared, used as a map key or handed to a
+ * native or the host) and the string is kept. A flattened rope lets go of the
+ * builder as soon as it can't append to it in place anymore, so a short rope
+ * doesn't keep alive the characters appended after it.
+ *
+ * Short results stay plain strings, the builder only pays off for long ones.
+ */
+public final class LangoRope implements CharSequence {
+
+  /**
+   * Length under which a concatenation makes a plain string.
+   */
+  static final int MIN_LENGTH = 64;
+
+  /**
+   * Shared by the ropes made from each other, it's locked to append to it and
+   * to read from it, since ropes may be used by several threads. Null once the
+   * rope is flattened and no longer ends the builder.
+   */
+  private volatile StringBuilder builder;
+  private final int length;
+
+  /**
+   * Set before the builder is dropped.
+   */
+  private volatile String flat = null;
+
+  private LangoRope(StringBuilder builder, int length) {
+    this.builder = builder;
+    this.length = length;
+  }
+
+  /**
+   * Concatenates two values, at least one of them being a string or a rope,
+   * the other being stringified.
+   *
+   * @return a {@link String} or a {@link LangoRope}.
+   */
+  public static Object concat(Object left, Object right) {
+    String suffix = Interpreter.stringify(right);
+
+    if (left instanceof LangoRope) {
+      LangoRope rope = (LangoRope) left;
+      StringBuilder shared = rope.builder;
+      if (shared != null) {
+        synchronized (shared) {
+          if (shared.length() == rope.length) {
+            shared.append(suffix);
+            if (rope.flat != null) {
+              // The longer rope owns the builder now.
+              rope.builder = null;
+            }
+            return new LangoRope(shared, shared.length());
+          }
+        }
+      }
+    }
+
+    String prefix = Interpreter.stringify(left);
+    int length = prefix.length() + suffix.length();
+    if (length < MIN_LENGTH)
+      return prefix + suffix;
+
+    StringBuilder builder = new StringBuilder(Math.max(length * 2, 2 * MIN_LENGTH));
+    builder.append(prefix).append(suffix);
+    return new LangoRope(builder, length);
+  }
+
+  public static boolean isString(Object value) {
+    return value instanceof String || value instanceof LangoRope;
+  }
+
+  /**
+   * @return the string of a rope, any other value as it is.
+   */
+  public static Object flatten(Object value) {
+    return value instanceof LangoRope ? value.toString() : value;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    return toString().charAt(index);
+  }
+
+  @Override
+  public CharSequence subSequence(int start, int end) {
+    return toString().substring(start, end);
+  }
+
+  @Override
+  public String toString() {
+    String string = flat;
+    if (string != null)
+      return string;
+
+    StringBuilder shared = builder;
+    if (shared == null)
+      return flat;
+
+    synchronized (shared) {
+      string = shared.substring(0, length);
+      flat = string;
+      if (shared.length() != length) {
+        builder = null;
+      }
+    }
+    return string;
+  }
+}
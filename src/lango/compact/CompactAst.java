@@ -0,0 +1,405 @@
+package lango.compact;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import lango.scanner.Token;
+import lango.scanner.TokenType;
+
+/**
+ * A syntax tree flattened into a handful of int arrays.
+ * 
+ * Each node is an index into {@link #kinds}, its operands live in
+ * {@link #operands} between {@code offsets[node]} and
+ * {@code offsets[node + 1]}. Operands follow the order of the fields of the
+ * matching {@code Expr}/{@code Stmt} class and are either:
+ * 
+ * - a child node index (-1 when the child is missing),
+ * - a token index into the token arrays (-1 when the token is missing),
+ * - a constant index into {@link #constants} (-1 for nil),
+ * - the size of a list, followed by its elements (the keys and values of a map
+ * literal are interleaved),
+ * - the resolved scope distance of a variable (-1 for a global variable),
+ * - a flag, 1 for true and 0 for false.
+ * 
+ * Children are always stored before their parents, so the program node is the
+ * last one. Tokens only keep their type, lexeme, literal and line, and every
+ * distinct lexeme and literal is stored once in the constant pool.
+ * 
+ * The tree is walked with a {@link Visitor}. The interpreter runs from it
+ * through {@link CompactAstInflater}, which only turns the nodes a program
+ * executes into objects, function bodies on their first call.
+ */
+public class CompactAst {
+
+  // Statements.
+  public static final int PROGRAM = 0;
+  public static final int BLOCK = 1;
+  public static final int CLASS = 2;
+  public static final int EXPRESSION = 3;
+  public static final int FUNCTION = 4;
+  public static final int IF = 5;
+  public static final int ELIF = 6;
+  public static final int PRINT = 7;
+  public static final int RETURN = 8;
+  public static final int BREAK = 9;
+  public static final int VAR = 10;
+  public static final int WHILE = 11;
+  public static final int YIELD = 12;
+  public static final int IMPORT = 13;
+
+  // Expressions.
+  public static final int ASSIGN = 32;
+  public static final int BINARY = 33;
+  public static final int CALL = 34;
+  public static final int ANONYMOUS_FUNC = 35;
+  public static final int GET = 36;
+  public static final int SET = 37;
+  public static final int SUPER = 38;
+  public static final int THIS = 39;
+  public static final int GROUPING = 40;
+  public static final int LITERAL = 41;
+  public static final int LOGICAL = 42;
+  public static final int UNARY = 43;
+  public static final int VARIABLE = 44;
+  public static final int ARRAY_LITERAL = 45;
+  public static final int INDEX = 46;
+  public static final int INDEX_SET = 47;
+  public static final int MAP_LITERAL = 48;
+
+  private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+  // Constant tags used by the binary form.
+  private static final int TRUE_CONSTANT = 0;
+  private static final int FALSE_CONSTANT = 1;
+  private static final int NUMBER_CONSTANT = 2;
+  private static final int STRING_CONSTANT = 3;
+
+  final int[] kinds;
+  final int[] offsets;
+  final int[] operands;
+
+  final int[] tokenTypes;
+  final int[] tokenLexemes;
+  final int[] tokenLiterals;
+  final int[] tokenLines;
+
+  final Object[] constants;
+
+  CompactAst(int[] kinds, int[] offsets, int[] operands, int[] tokenTypes, int[] tokenLexemes,
+      int[] tokenLiterals, int[] tokenLines, Object[] constants) {
+    this.kinds = kinds;
+    this.offsets = offsets;
+    this.operands = operands;
+    this.tokenTypes = tokenTypes;
+    this.tokenLexemes = tokenLexemes;
+    this.tokenLiterals = tokenLiterals;
+    this.tokenLines = tokenLines;
+    this.constants = constants;
+  }
+
+  /**
+   * Visits the nodes of a compact tree by index, the way {@code Expr.Visitor}
+   * and {@code Stmt.Visitor} visit the node objects.
+   */
+  public interface Visitor<R> {
+    R visitProgramStmt(int node);
+
+    R visitBlockStmt(int node);
+
+    R visitClassStmt(int node);
+
+    R visitExpressionStmt(int node);
+
+    R visitFunctionStmt(int node);
+
+    R visitIfStmt(int node);
+
+    R visitElifStmt(int node);
+
+    R visitPrintStmt(int node);
+
+    R visitReturnStmt(int node);
+
+    R visitBreakStmt(int node);
+
+    R visitVarStmt(int node);
+
+    R visitWhileStmt(int node);
+
+    R visitYieldStmt(int node);
+
+    R visitImportStmt(int node);
+
+    R visitAssignExpr(int node);
+
+    R visitBinaryExpr(int node);
+
+    R visitCallExpr(int node);
+
+    R visitAnonymousFuncExpr(int node);
+
+    R visitGetExpr(int node);
+
+    R visitSetExpr(int node);
+
+    R visitSuperExpr(int node);
+
+    R visitThisExpr(int node);
+
+    R visitGroupingExpr(int node);
+
+    R visitLiteralExpr(int node);
+
+    R visitLogicalExpr(int node);
+
+    R visitUnaryExpr(int node);
+
+    R visitVariableExpr(int node);
+
+    R visitArrayLiteralExpr(int node);
+
+    R visitIndexExpr(int node);
+
+    R visitIndexSetExpr(int node);
+
+    R visitMapLiteralExpr(int node);
+  }
+
+  /**
+   * Dispatches on the kind of a node.
+   * 
+   * @param node the node, or -1 for a missing child, which is visited as null.
+   */
+  public <R> R accept(int node, Visitor<R> visitor) {
+    if (node < 0)
+      return null;
+
+    switch (kinds[node]) {
+      case PROGRAM:
+        return visitor.visitProgramStmt(node);
+      case BLOCK:
+        return visitor.visitBlockStmt(node);
+      case CLASS:
+        return visitor.visitClassStmt(node);
+      case EXPRESSION:
+        return visitor.visitExpressionStmt(node);
+      case FUNCTION:
+        return visitor.visitFunctionStmt(node);
+      case IF:
+        return visitor.visitIfStmt(node);
+      case ELIF:
+        return visitor.visitElifStmt(node);
+      case PRINT:
+        return visitor.visitPrintStmt(node);
+      case RETURN:
+        return visitor.visitReturnStmt(node);
+      case BREAK:
+        return visitor.visitBreakStmt(node);
+      case VAR:
+        return visitor.visitVarStmt(node);
+      case WHILE:
+        return visitor.visitWhileStmt(node);
+      case YIELD:
+        return visitor.visitYieldStmt(node);
+      case IMPORT:
+        return visitor.visitImportStmt(node);
+      case ASSIGN:
+        return visitor.visitAssignExpr(node);
+      case BINARY:
+        return visitor.visitBinaryExpr(node);
+      case CALL:
+        return visitor.visitCallExpr(node);
+      case ANONYMOUS_FUNC:
+        return visitor.visitAnonymousFuncExpr(node);
+      case GET:
+        return visitor.visitGetExpr(node);
+      case SET:
+        return visitor.visitSetExpr(node);
+      case SUPER:
+        return visitor.visitSuperExpr(node);
+      case THIS:
+        return visitor.visitThisExpr(node);
+      case GROUPING:
+        return visitor.visitGroupingExpr(node);
+      case LITERAL:
+        return visitor.visitLiteralExpr(node);
+      case LOGICAL:
+        return visitor.visitLogicalExpr(node);
+      case UNARY:
+        return visitor.visitUnaryExpr(node);
+      case VARIABLE:
+        return visitor.visitVariableExpr(node);
+      case ARRAY_LITERAL:
+        return visitor.visitArrayLiteralExpr(node);
+      case INDEX:
+        return visitor.visitIndexExpr(node);
+      case INDEX_SET:
+        return visitor.visitIndexSetExpr(node);
+      case MAP_LITERAL:
+        return visitor.visitMapLiteralExpr(node);
+      default:
+        throw new IllegalStateException("Node " + node + " has an unknown kind " + kinds[node] + ".");
+    }
+  }
+
+  /**
+   * @return the index of the program node, whose operands are the top-level
+   *         statements.
+   */
+  public int root() {
+    return kinds.length - 1;
+  }
+
+  public int nodeCount() {
+    return kinds.length;
+  }
+
+  public int kind(int node) {
+    return kinds[node];
+  }
+
+  public int operandCount(int node) {
+    return offsets[node + 1] - offsets[node];
+  }
+
+  public int operand(int node, int index) {
+    return operands[offsets[node] + index];
+  }
+
+  /**
+   * @return the value of a constant, or null for the nil constant (-1).
+   */
+  public Object constant(int index) {
+    return index < 0 ? null : constants[index];
+  }
+
+  public TokenType tokenType(int token) {
+    return TOKEN_TYPES[tokenTypes[token]];
+  }
+
+  public String lexeme(int token) {
+    return (String) constants[tokenLexemes[token]];
+  }
+
+  public int tokenLine(int token) {
+    return tokenLines[token];
+  }
+
+  /**
+   * Materializes a token, i.e. when it's needed to report an error.
+   * 
+   * @return the token or null for a missing token (-1).
+   */
+  public Token token(int token) {
+    if (token < 0)
+      return null;
+    return new Token(lexeme(token), tokenType(token), constant(tokenLiterals[token]), tokenLines[token]);
+  }
+
+  /**
+   * Writes the arrays using variable-length integers.
+   */
+  public void write(DataOutputStream out) throws IOException {
+    writeArray(out, kinds);
+    writeArray(out, offsets);
+    writeArray(out, operands);
+    writeArray(out, tokenTypes);
+    writeArray(out, tokenLexemes);
+    writeArray(out, tokenLiterals);
+    writeArray(out, tokenLines);
+
+    writeInt(out, constants.length);
+    for (Object constant : constants) {
+      if (constant instanceof Boolean) {
+        writeInt(out, (Boolean) constant ? TRUE_CONSTANT : FALSE_CONSTANT);
+      } else if (constant instanceof Double) {
+        writeInt(out, NUMBER_CONSTANT);
+        out.writeDouble((Double) constant);
+      } else {
+        writeInt(out, STRING_CONSTANT);
+        byte[] bytes = ((String) constant).getBytes(StandardCharsets.UTF_8);
+        writeInt(out, bytes.length);
+        out.write(bytes);
+      }
+    }
+  }
+
+  public static CompactAst read(DataInputStream in) throws IOException {
+    int[] kinds = readArray(in);
+    int[] offsets = readArray(in);
+    int[] operands = readArray(in);
+    int[] tokenTypes = readArray(in);
+    int[] tokenLexemes = readArray(in);
+    int[] tokenLiterals = readArray(in);
+    int[] tokenLines = readArray(in);
+
+    Object[] constants = new Object[readInt(in)];
+    for (int i = 0; i < constants.length; i++) {
+      int tag = readInt(in);
+      switch (tag) {
+        case TRUE_CONSTANT:
+          constants[i] = true;
+          break;
+        case FALSE_CONSTANT:
+          constants[i] = false;
+          break;
+        case NUMBER_CONSTANT:
+          constants[i] = in.readDouble();
+          break;
+        case STRING_CONSTANT:
+          byte[] bytes = new byte[readInt(in)];
+          in.readFully(bytes);
+          constants[i] = new String(bytes, StandardCharsets.UTF_8);
+          break;
+        default:
+          throw new IOException("Unknown constant tag " + tag + ".");
+      }
+    }
+
+    return new CompactAst(kinds, offsets, operands, tokenTypes, tokenLexemes, tokenLiterals, tokenLines,
+        constants);
+  }
+
+  private static void writeArray(DataOutputStream out, int[] values) throws IOException {
+    writeInt(out, values.length);
+    for (int value : values) {
+      writeInt(out, value);
+    }
+  }
+
+  private static int[] readArray(DataInputStream in) throws IOException {
+    int[] values = new int[readInt(in)];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = readInt(in);
+    }
+    return values;
+  }
+
+  /**
+   * Writes an integer using 7 bits per byte. Values are shifted by one so the
+   * -1 used for missing operands fits in a single byte as well.
+   */
+  private static void writeInt(DataOutputStream out, int value) throws IOException {
+    int bits = value + 1;
+    while ((bits & ~0x7F) != 0) {
+      out.writeByte((bits & 0x7F) | 0x80);
+      bits >>>= 7;
+    }
+    out.writeByte(bits);
+  }
+
+  private static int readInt(DataInputStream in) throws IOException {
+    int bits = 0;
+    int shift = 0;
+    while (true) {
+      int b = in.readUnsignedByte();
+      bits |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0)
+        return bits - 1;
+      shift += 7;
+    }
+  }
+}
@@ -0,0 +1,366 @@
+package lango.compact;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lango.astNodes.Expr;
+import lango.astNodes.Stmt;
+import lango.astNodes.Expr.*;
+import lango.astNodes.Stmt.Block;
+import lango.astNodes.Stmt.Break;
+import lango.astNodes.Stmt.Class;
+import lango.astNodes.Stmt.Elif;
+import lango.astNodes.Stmt.Expression;
+import lango.astNodes.Stmt.Function;
+import lango.astNodes.Stmt.If;
+import lango.astNodes.Stmt.Import;
+import lango.astNodes.Stmt.Print;
+import lango.astNodes.Stmt.Return;
+import lango.astNodes.Stmt.Var;
+import lango.astNodes.Stmt.While;
+import lango.astNodes.Stmt.Yield;
+import lango.scanner.Token;
+
+/**
+ * Flattens a syntax tree into a {@link CompactAst}.
+ * 
+ * Each visit method encodes the children first and returns the index of the
+ * node it added, so a parent only has to collect the indices of its children.
+ */
+public class CompactAstBuilder implements Expr.Visitor<Integer>, Stmt.Visitor<Integer> {
+
+  private final IntList kinds = new IntList();
+  private final IntList offsets = new IntList();
+  private final IntList operands = new IntList();
+
+  private final IntList tokenTypes = new IntList();
+  private final IntList tokenLexemes = new IntList();
+  private final IntList tokenLiterals = new IntList();
+  private final IntList tokenLines = new IntList();
+
+  private final List<Object> constants = new ArrayList<>();
+  private final Map<Object, Integer> constantIndices = new HashMap<>();
+
+  private CompactAstBuilder() {
+  }
+
+  /**
+   * Flattens a program.
+   * 
+   * @param statements the top-level statements.
+   * @return the flattened tree.
+   */
+  public static CompactAst build(List<Stmt> statements) {
+    CompactAstBuilder builder = new CompactAstBuilder();
+    IntList program = new IntList();
+    builder.addStatements(program, statements);
+    builder.node(CompactAst.PROGRAM, program);
+    return builder.finish();
+  }
+
+  private CompactAst finish() {
+    offsets.add(operands.size());
+    return new CompactAst(kinds.toArray(), offsets.toArray(), operands.toArray(), tokenTypes.toArray(),
+        tokenLexemes.toArray(), tokenLiterals.toArray(), tokenLines.toArray(), constants.toArray());
+  }
+
+  private int node(int kind, IntList nodeOperands) {
+    int[] values = nodeOperands.toArray();
+    kinds.add(kind);
+    offsets.add(operands.size());
+    for (int value : values) {
+      operands.add(value);
+    }
+    return kinds.size() - 1;
+  }
+
+  private int node(int kind, int... nodeOperands) {
+    kinds.add(kind);
+    offsets.add(operands.size());
+    for (int value : nodeOperands) {
+      operands.add(value);
+    }
+    return kinds.size() - 1;
+  }
+
+  private int encode(Stmt stmt) {
+    return stmt == null ? -1 : stmt.accept(this);
+  }
+
+  private int encode(Expr expr) {
+    return expr == null ? -1 : expr.accept(this);
+  }
+
+  private void addStatements(IntList list, List<? extends Stmt> statements) {
+    // Children are encoded before the list is added, so the list is contiguous.
+    int[] children = new int[statements.size()];
+    for (int i = 0; i < children.length; i++) {
+      children[i] = encode(statements.get(i));
+    }
+    list.add(children.length);
+    for (int child : children) {
+      list.add(child);
+    }
+  }
+
+  private void addTokens(IntList list, List<Token> tokens) {
+    list.add(tokens.size());
+    for (Token token : tokens) {
+      list.add(token(token));
+    }
+  }
+
+  private int token(Token token) {
+    if (token == null)
+      return -1;
+
+    tokenTypes.add(token.type.ordinal());
+    tokenLexemes.add(constant(token.lexeme));
+    tokenLiterals.add(constant(token.literal));
+    tokenLines.add(token.line);
+    return tokenTypes.size() - 1;
+  }
+
+  private int constant(Object value) {
+    if (value == null)
+      return -1;
+
+    Integer index = constantIndices.get(value);
+    if (index == null) {
+      index = constants.size();
+      constants.add(value);
+      constantIndices.put(value, index);
+    }
+    return index;
+  }
+
+  @Override
+  public Integer visitBlockStmt(Block stmt) {
+    IntList ops = new IntList();
+    addStatements(ops, stmt.statements);
+    return node(CompactAst.BLOCK, ops);
+  }
+
+  @Override
+  public Integer visitClassStmt(Class stmt) {
+    int superclass = encode(stmt.superclass);
+    IntList ops = new IntList();
+    ops.add(token(stmt.name));
+    ops.add(superclass);
+    addStatements(ops, stmt.methods);
+    return node(CompactAst.CLASS, ops);
+  }
+
+  @Override
+  public Integer visitExpressionStmt(Expression stmt) {
+    return node(CompactAst.EXPRESSION, encode(stmt.expression));
+  }
+
+  @Override
+  public Integer visitFunctionStmt(Function stmt) {
+    IntList ops = new IntList();
+    ops.add(token(stmt.name));
+    addTokens(ops, stmt.params);
+    addStatements(ops, stmt.body);
+    ops.add(stmt.isGenerator ? 1 : 0);
+    return node(CompactAst.FUNCTION, ops);
+  }
+
+  @Override
+  public Integer visitIfStmt(If stmt) {
+    int condition = encode(stmt.condition);
+    int thenBranch = encode(stmt.thenBranch);
+    IntList ops = new IntList();
+    ops.add(condition);
+    ops.add(thenBranch);
+    addStatements(ops, stmt.elseIfBranches);
+    ops.add(encode(stmt.elseBranch));
+    return node(CompactAst.IF, ops);
+  }
+
+  @Override
+  public Integer visitElifStmt(Elif stmt) {
+    int condition = encode(stmt.condition);
+    return node(CompactAst.ELIF, condition, encode(stmt.body));
+  }
+
+  @Override
+  public Integer visitPrintStmt(Print stmt) {
+    return node(CompactAst.PRINT, encode(stmt.expression));
+  }
+
+  @Override
+  public Integer visitReturnStmt(Return stmt) {
+    int value = encode(stmt.value);
+    return node(CompactAst.RETURN, token(stmt.keyword), value);
+  }
+
+  @Override
+  public Integer visitYieldStmt(Yield stmt) {
+    int value = encode(stmt.value);
+    return node(CompactAst.YIELD, token(stmt.keyword), value);
+  }
+
+  @Override
+  public Integer visitBreakStmt(Break stmt) {
+    return node(CompactAst.BREAK, token(stmt.keyword));
+  }
+
+  @Override
+  public Integer visitImportStmt(Import stmt) {
+    return node(CompactAst.IMPORT, token(stmt.keyword), token(stmt.path));
+  }
+
+  @Override
+  public Integer visitVarStmt(Var stmt) {
+    int initializer = encode(stmt.initializer);
+    return node(CompactAst.VAR, token(stmt.name), initializer);
+  }
+
+  @Override
+  public Integer visitWhileStmt(While stmt) {
+    int condition = encode(stmt.condition);
+    return node(CompactAst.WHILE, condition, encode(stmt.body));
+  }
+
+  @Override
+  public Integer visitAssignExpr(Assign expr) {
+    int value = encode(expr.value);
+    return node(CompactAst.ASSIGN, token(expr.name), value, expr.depth);
+  }
+
+  @Override
+  public Integer visitBinaryExpr(Binary expr) {
+    int left = encode(expr.left);
+    int right = encode(expr.right);
+    return node(CompactAst.BINARY, left, token(expr.operator), right);
+  }
+
+  @Override
+  public Integer visitCallExpr(Call expr) {
+    int callee = encode(expr.callee);
+    int[] arguments = new int[expr.arguments.size()];
+    for (int i = 0; i < arguments.length; i++) {
+      arguments[i] = encode(expr.arguments.get(i));
+    }
+
+    IntList ops = new IntList();
+    ops.add(callee);
+    ops.add(token(expr.paren));
+    ops.add(arguments.length);
+    for (int argument : arguments) {
+      ops.add(argument);
+    }
+    return node(CompactAst.CALL, ops);
+  }
+
+  @Override
+  public Integer visitAnonymousFuncExpr(AnonymousFunc expr) {
+    IntList ops = new IntList();
+    addTokens(ops, expr.params);
+    addStatements(ops, expr.body);
+    ops.add(expr.isGenerator ? 1 : 0);
+    return node(CompactAst.ANONYMOUS_FUNC, ops);
+  }
+
+  @Override
+  public Integer visitGetExpr(Get expr) {
+    int object = encode(expr.object);
+    return node(CompactAst.GET, object, token(expr.name));
+  }
+
+  @Override
+  public Integer visitArrayLiteralExpr(ArrayLiteral expr) {
+    int[] elements = new int[expr.elements.size()];
+    for (int i = 0; i < elements.length; i++) {
+      elements[i] = encode(expr.elements.get(i));
+    }
+
+    IntList ops = new IntList();
+    ops.add(elements.length);
+    for (int element : elements) {
+      ops.add(element);
+    }
+    return node(CompactAst.ARRAY_LITERAL, ops);
+  }
+
+  @Override
+  public Integer visitMapLiteralExpr(MapLiteral expr) {
+    int[] keys = new int[expr.keys.size()];
+    int[] values = new int[keys.length];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = encode(expr.keys.get(i));
+      values[i] = encode(expr.values.get(i));
+    }
+
+    IntList ops = new IntList();
+    ops.add(keys.length);
+    for (int i = 0; i < keys.length; i++) {
+      ops.add(keys[i]);
+      ops.add(values[i]);
+    }
+    return node(CompactAst.MAP_LITERAL, ops);
+  }
+
+  @Override
+  public Integer visitIndexExpr(Index expr) {
+    int object = encode(expr.object);
+    int index = encode(expr.index);
+    return node(CompactAst.INDEX, object, token(expr.bracket), index);
+  }
+
+  @Override
+  public Integer visitIndexSetExpr(IndexSet expr) {
+    int object = encode(expr.object);
+    int index = encode(expr.index);
+    int value = encode(expr.value);
+    return node(CompactAst.INDEX_SET, object, token(expr.bracket), index, value);
+  }
+
+  @Override
+  public Integer visitSetExpr(Set expr) {
+    int object = encode(expr.object);
+    int value = encode(expr.value);
+    return node(CompactAst.SET, object, token(expr.name), value);
+  }
+
+  @Override
+  public Integer visitSuperExpr(Super expr) {
+    return node(CompactAst.SUPER, token(expr.keyword), token(expr.method), expr.depth);
+  }
+
+  @Override
+  public Integer visitThisExpr(This expr) {
+    return node(CompactAst.THIS, token(expr.keyword), expr.depth);
+  }
+
+  @Override
+  public Integer visitGroupingExpr(Grouping expr) {
+    return node(CompactAst.GROUPING, encode(expr.expression));
+  }
+
+  @Override
+  public Integer visitLiteralExpr(Literal expr) {
+    return node(CompactAst.LITERAL, constant(expr.value));
+  }
+
+  @Override
+  public Integer visitLogicalExpr(Logical expr) {
+    int left = encode(expr.left);
+    int right = encode(expr.right);
+    return node(CompactAst.LOGICAL, left, token(expr.operator), right);
+  }
+
+  @Override
+  public Integer visitUnaryExpr(Unary expr) {
+    int right = encode(expr.right);
+    return node(CompactAst.UNARY, token(expr.operator), right);
+  }
+
+  @Override
+  public Integer visitVariableExpr(Variable expr) {
+    return node(CompactAst.VARIABLE, token(expr.name), expr.depth);
+  }
+}
@@ -0,0 +1,295 @@
+package lango.compact;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lango.GlobalNames;
+import lango.astNodes.Expr;
+import lango.astNodes.Stmt;
+import lango.scanner.Token;
+
+/**
+ * Walks a {@link CompactAst} and rebuilds the {@code Stmt}/{@code Expr} nodes
+ * that the interpreter executes.
+ * 
+ * Only the top-level statements are rebuilt up front: the bodies of functions
+ * and methods stay in the compact arrays until their first call (see
+ * {@link CompactBody}), so a program pays for the nodes it actually runs.
+ * 
+ * The resolved distances stored in the compact tree are restored on the
+ * rebuilt nodes, so the tree doesn't have to be resolved again. The inflater
+ * keeps no state besides the tree, so bodies may be inflated by any thread.
+ */
+public class CompactAstInflater implements CompactAst.Visitor<Object> {
+
+  private final CompactAst ast;
+
+  /**
+   * The table the global variables are indexed with, the compact tree only
+   * stores that they're global.
+   */
+  private final GlobalNames names;
+
+  public CompactAstInflater(CompactAst ast, GlobalNames names) {
+    this.ast = ast;
+    this.names = names;
+  }
+
+  /**
+   * @return the top-level statements of the program.
+   */
+  @SuppressWarnings("unchecked")
+  public List<Stmt> statements() {
+    return (List<Stmt>) ast.accept(ast.root(), this);
+  }
+
+  /**
+   * Rebuilds the statements of a list that starts at the given operand.
+   */
+  List<Stmt> stmtList(int node, int start) {
+    int size = ast.operand(node, start);
+    List<Stmt> statements = new ArrayList<>(size);
+    for (int i = 1; i <= size; i++) {
+      statements.add(stmt(ast.operand(node, start + i)));
+    }
+    return statements;
+  }
+
+  private List<Token> tokenList(int node, int start) {
+    int size = ast.operand(node, start);
+    List<Token> tokens = new ArrayList<>(size);
+    for (int i = 1; i <= size; i++) {
+      tokens.add(ast.token(ast.operand(node, start + i)));
+    }
+    return tokens;
+  }
+
+  private Token token(int node, int index) {
+    return ast.token(ast.operand(node, index));
+  }
+
+  private Expr expr(int node, int index) {
+    return expr(ast.operand(node, index));
+  }
+
+  private Stmt stmt(int node, int index) {
+    return stmt(ast.operand(node, index));
+  }
+
+  private int depth(int node, int index) {
+    return ast.operand(node, index);
+  }
+
+  private boolean flag(int node, int index) {
+    return ast.operand(node, index) != 0;
+  }
+
+  private Stmt stmt(int node) {
+    return (Stmt) ast.accept(node, this);
+  }
+
+  private Expr expr(int node) {
+    return (Expr) ast.accept(node, this);
+  }
+
+  @Override
+  public Object visitProgramStmt(int node) {
+    return stmtList(node, 0);
+  }
+
+  @Override
+  public Object visitBlockStmt(int node) {
+    return new Stmt.Block(stmtList(node, 0));
+  }
+
+  @Override
+  public Object visitClassStmt(int node) {
+    List<Stmt.Function> methods = new ArrayList<>();
+    for (Stmt method : stmtList(node, 2)) {
+      methods.add((Stmt.Function) method);
+    }
+    return new Stmt.Class(token(node, 0), (Expr.Variable) expr(node, 1), methods);
+  }
+
+  @Override
+  public Object visitExpressionStmt(int node) {
+    return new Stmt.Expression(expr(node, 0));
+  }
+
+  @Override
+  public Object visitFunctionStmt(int node) {
+    List<Token> params = tokenList(node, 1);
+    int body = 2 + params.size();
+    Stmt.Function function = new Stmt.Function(token(node, 0), params, new CompactBody(this, node, body));
+    function.isGenerator = flag(node, body + 1 + ast.operand(node, body));
+    return function;
+  }
+
+  @Override
+  public Object visitIfStmt(int node) {
+    List<Stmt.Elif> elseIfBranches = new ArrayList<>();
+    for (Stmt elif : stmtList(node, 2)) {
+      elseIfBranches.add((Stmt.Elif) elif);
+    }
+    Stmt elseBranch = stmt(node, 3 + elseIfBranches.size());
+    return new Stmt.If(expr(node, 0), stmt(node, 1), elseIfBranches, elseBranch);
+  }
+
+  @Override
+  public Object visitElifStmt(int node) {
+    return new Stmt.Elif(expr(node, 0), stmt(node, 1));
+  }
+
+  @Override
+  public Object visitPrintStmt(int node) {
+    return new Stmt.Print(expr(node, 0));
+  }
+
+  @Override
+  public Object visitReturnStmt(int node) {
+    return new Stmt.Return(token(node, 0), expr(node, 1));
+  }
+
+  @Override
+  public Object visitBreakStmt(int node) {
+    return new Stmt.Break(token(node, 0));
+  }
+
+  @Override
+  public Object visitVarStmt(int node) {
+    return new Stmt.Var(token(node, 0), expr(node, 1));
+  }
+
+  @Override
+  public Object visitWhileStmt(int node) {
+    return new Stmt.While(expr(node, 0), stmt(node, 1));
+  }
+
+  @Override
+  public Object visitYieldStmt(int node) {
+    return new Stmt.Yield(token(node, 0), expr(node, 1));
+  }
+
+  @Override
+  public Object visitImportStmt(int node) {
+    return new Stmt.Import(token(node, 0), token(node, 1));
+  }
+
+  @Override
+  public Object visitAssignExpr(int node) {
+    Expr.Assign assign = new Expr.Assign(token(node, 0), expr(node, 1));
+    assign.depth = depth(node, 2);
+    if (assign.depth < 0)
+      assign.global = names.indexOf(assign.name.lexeme);
+    return assign;
+  }
+
+  @Override
+  public Object visitBinaryExpr(int node) {
+    return new Expr.Binary(expr(node, 0), token(node, 1), expr(node, 2));
+  }
+
+  @Override
+  public Object visitCallExpr(int node) {
+    int size = ast.operand(node, 2);
+    List<Expr> arguments = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      arguments.add(expr(node, 3 + i));
+    }
+    return new Expr.Call(expr(node, 0), token(node, 1), arguments);
+  }
+
+  @Override
+  public Object visitAnonymousFuncExpr(int node) {
+    List<Token> params = tokenList(node, 0);
+    int body = 1 + params.size();
+    Expr.AnonymousFunc function = new Expr.AnonymousFunc(params, new CompactBody(this, node, body));
+    function.isGenerator = flag(node, body + 1 + ast.operand(node, body));
+    return function;
+  }
+
+  @Override
+  public Object visitGetExpr(int node) {
+    return new Expr.Get(expr(node, 0), token(node, 1));
+  }
+
+  @Override
+  public Object visitSetExpr(int node) {
+    return new Expr.Set(expr(node, 0), token(node, 1), expr(node, 2));
+  }
+
+  @Override
+  public Object visitArrayLiteralExpr(int node) {
+    int size = ast.operand(node, 0);
+    List<Expr> elements = new ArrayList<>(size);
+    for (int i = 1; i <= size; i++) {
+      elements.add(expr(node, i));
+    }
+    return new Expr.ArrayLiteral(elements);
+  }
+
+  @Override
+  public Object visitMapLiteralExpr(int node) {
+    int size = ast.operand(node, 0);
+    List<Expr> keys = new ArrayList<>(size);
+    List<Expr> values = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      keys.add(expr(node, 1 + 2 * i));
+      values.add(expr(node, 2 + 2 * i));
+    }
+    return new Expr.MapLiteral(keys, values);
+  }
+
+  @Override
+  public Object visitIndexExpr(int node) {
+    return new Expr.Index(expr(node, 0), token(node, 1), expr(node, 2));
+  }
+
+  @Override
+  public Object visitIndexSetExpr(int node) {
+    return new Expr.IndexSet(expr(node, 0), token(node, 1), expr(node, 2), expr(node, 3));
+  }
+
+  @Override
+  public Object visitSuperExpr(int node) {
+    Expr.Super superExpr = new Expr.Super(token(node, 0), token(node, 1));
+    superExpr.depth = depth(node, 2);
+    return superExpr;
+  }
+
+  @Override
+  public Object visitThisExpr(int node) {
+    Expr.This thisExpr = new Expr.This(token(node, 0));
+    thisExpr.depth = depth(node, 1);
+    return thisExpr;
+  }
+
+  @Override
+  public Object visitGroupingExpr(int node) {
+    return new Expr.Grouping(expr(node, 0));
+  }
+
+  @Override
+  public Object visitLiteralExpr(int node) {
+    return new Expr.Literal(ast.constant(ast.operand(node, 0)));
+  }
+
+  @Override
+  public Object visitLogicalExpr(int node) {
+    return new Expr.Logical(expr(node, 0), token(node, 1), expr(node, 2));
+  }
+
+  @Override
+  public Object visitUnaryExpr(int node) {
+    return new Expr.Unary(token(node, 0), expr(node, 1));
+  }
+
+  @Override
+  public Object visitVariableExpr(int node) {
+    Expr.Variable variable = new Expr.Variable(token(node, 0));
+    variable.depth = depth(node, 1);
+    if (variable.depth < 0)
+      variable.global = names.indexOf(variable.name.lexeme);
+    return variable;
+  }
+}
@@ -0,0 +1,72 @@
+package lango.compact;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+
+import lango.astNodes.Stmt;
+
+/**
+ * The body of a function loaded from a {@link CompactAst}: it's only the index
+ * of the function's node until it's first needed, i.e. by the first call of
+ * the function, which rebuilds its statements. A function never called costs
+ * a few ints in the compact arrays, not a tree.
+ * 
+ * Bodies may be inflated by any thread, only once.
+ */
+final class CompactBody extends AbstractList<Stmt> {
+
+  /**
+   * The inflater of the tree the body belongs to, null once it's inflated.
+   */
+  private CompactAstInflater inflater;
+
+  /**
+   * The function or anonymous function node.
+   */
+  private final int node;
+
+  /**
+   * The operand the list of statements starts at.
+   */
+  private final int start;
+
+  /**
+   * The statements once they're inflated.
+   */
+  private volatile List<Stmt> statements = null;
+
+  CompactBody(CompactAstInflater inflater, int node, int start) {
+    this.inflater = inflater;
+    this.node = node;
+    this.start = start;
+  }
+
+  private List<Stmt> statements() {
+    List<Stmt> ready = statements;
+    return ready != null ? ready : inflate();
+  }
+
+  private synchronized List<Stmt> inflate() {
+    if (statements == null) {
+      statements = inflater.stmtList(node, start);
+      inflater = null;
+    }
+    return statements;
+  }
+
+  @Override
+  public Stmt get(int index) {
+    return statements().get(index);
+  }
+
+  @Override
+  public int size() {
+    return statements().size();
+  }
+
+  @Override
+  public Iterator<Stmt> iterator() {
+    return statements().iterator();
+  }
+}
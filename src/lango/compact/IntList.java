@@ -0,0 +1,27 @@
+package lango.compact;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of primitive ints, used to build the arrays of a
+ * {@link CompactAst} without boxing.
+ */
+class IntList {
+  private int[] values = new int[16];
+  private int size = 0;
+
+  void add(int value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+    values[size++] = value;
+  }
+
+  int size() {
+    return size;
+  }
+
+  int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+}
@@ -0,0 +1,129 @@
+package lango.concurrent;
+
+import java.lang.System.Logger;
+import java.lang.System.Logger.Level;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Gives access to virtual threads when the running JDK has them (Java 21+),
+ * while still compiling and running on older JDKs.
+ * 
+ * On an older JDK the callers fall back to platform threads. The fallback is
+ * logged (at debug level when the JDK simply has no virtual threads, as a
+ * warning otherwise) and its reason is given by {@link #unavailableReason()}.
+ */
+public final class VirtualThreads {
+  private VirtualThreads() {
+  }
+
+  private static final Logger LOGGER = System.getLogger(VirtualThreads.class.getName());
+
+  /**
+   * Why virtual threads are not used, null if they are.
+   */
+  private static String unavailableReason;
+
+  /**
+   * Creates a factory of virtual threads, or null if they're not available.
+   * 
+   * The methods are looked up on the public {@code Thread.Builder} interface,
+   * the builder's own class is internal to the JDK and can't be called
+   * reflectively.
+   */
+  private static ThreadFactory createFactory() {
+    Method ofVirtual;
+    try {
+      ofVirtual = Thread.class.getMethod("ofVirtual");
+    } catch (NoSuchMethodException e) {
+      unavailableReason = "Java " + Runtime.version().feature() + " has no virtual threads";
+      LOGGER.log(Level.DEBUG, "Using platform threads: " + unavailableReason);
+      return null;
+    }
+
+    try {
+      Object builder = ofVirtual.invoke(null);
+      Method factory = Class.forName("java.lang.Thread$Builder").getMethod("factory");
+      return (ThreadFactory) factory.invoke(builder);
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      unavailableReason = "creating a virtual thread factory failed: " + e;
+      LOGGER.log(Level.WARNING, "Using platform threads: " + unavailableReason, e);
+      return null;
+    }
+  }
+
+  private static final ThreadFactory FACTORY = createFactory();
+
+  /**
+   * Shared by the tasks started from scripts, see {@link #executor()}.
+   */
+  private static final ExecutorService SHARED = createSharedExecutor();
+
+  private static ExecutorService createSharedExecutor() {
+    ExecutorService executor = newThreadPerTaskExecutor();
+    if (executor != null)
+      return executor;
+
+    return Executors.newCachedThreadPool(task -> {
+      Thread thread = new Thread(task, "lango-task");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public static boolean isAvailable() {
+    return FACTORY != null;
+  }
+
+  /**
+   * @return why the callers fall back to platform threads, or null if virtual
+   *         threads are available.
+   */
+  public static String unavailableReason() {
+    return unavailableReason;
+  }
+
+  /**
+   * @return an executor that starts a new virtual thread for each task, or null
+   *         if virtual threads are not available.
+   */
+  public static ExecutorService newThreadPerTaskExecutor() {
+    if (FACTORY == null)
+      return null;
+
+    try {
+      Method executor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+      return (ExecutorService) executor.invoke(null, FACTORY);
+    } catch (ReflectiveOperationException e) {
+      return null;
+    }
+  }
+
+  /**
+   * @return an executor for short or blocking tasks started from scripts: a new
+   *         virtual thread per task when available, otherwise a cached pool of
+   *         daemon platform threads.
+   */
+  public static ExecutorService executor() {
+    return SHARED;
+  }
+
+  /**
+   * Starts a thread running the given task: a virtual thread when available,
+   * otherwise a daemon platform thread.
+   */
+  public static Thread start(String name, Runnable task) {
+    Thread thread;
+    if (FACTORY != null) {
+      thread = FACTORY.newThread(task);
+    } else {
+      thread = new Thread(task);
+      thread.setDaemon(true);
+    }
+    thread.setName(name);
+    thread.start();
+    return thread;
+  }
+}
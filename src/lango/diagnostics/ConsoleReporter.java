@@ -0,0 +1,51 @@
+package lango.diagnostics;
+
+import java.io.PrintStream;
+
+import lango.parser.RuntimeError;
+
+/**
+ * Prints errors as soon as they're reported: compile errors to the standard
+ * output and runtime errors to the standard error, as the command line does.
+ * 
+ * It may be shared by several threads, e.g. by the actors started from a
+ * script: each error is printed whole and the flags are visible to all of
+ * them.
+ */
+public class ConsoleReporter implements ErrorReporter {
+  private final PrintStream out;
+  private final PrintStream err;
+
+  private volatile boolean hadError = false;
+  private volatile boolean hadRuntimeError = false;
+
+  public ConsoleReporter() {
+    this(System.out, System.err);
+  }
+
+  public ConsoleReporter(PrintStream out, PrintStream err) {
+    this.out = out;
+    this.err = err;
+  }
+
+  @Override
+  public synchronized void report(int line, String where, String message) {
+    out.println(ErrorReporter.format(line, where, message));
+    hadError = true;
+  }
+
+  @Override
+  public synchronized void runtimeError(RuntimeError error) {
+    err.println(ErrorReporter.format(error));
+    hadRuntimeError = true;
+  }
+
+  @Override
+  public boolean hadError() {
+    return hadError;
+  }
+
+  public boolean hadRuntimeError() {
+    return hadRuntimeError;
+  }
+}
@@ -0,0 +1,103 @@
+package lango.diagnostics;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import lango.parser.RuntimeError;
+
+/**
+ * Collects the errors reported for a single compilation unit.
+ * 
+ * Errors are kept in the order they were reported and are only printed (or
+ * forwarded) when the owner asks for them, so units that are processed
+ * concurrently don't interleave their output.
+ */
+public class Diagnostics implements ErrorReporter {
+
+  /**
+   * A compile error as it was reported.
+   */
+  private static class Entry {
+    final int line;
+    final String where;
+    final String message;
+
+    Entry(int line, String where, String message) {
+      this.line = line;
+      this.where = where;
+      this.message = message;
+    }
+  }
+
+  private final List<Entry> errors = new ArrayList<>();
+  private final List<RuntimeError> runtimeErrors = new ArrayList<>();
+
+  @Override
+  public void report(int line, String where, String message) {
+    errors.add(new Entry(line, where, message));
+  }
+
+  @Override
+  public void runtimeError(RuntimeError error) {
+    runtimeErrors.add(error);
+  }
+
+  @Override
+  public boolean hadError() {
+    return !errors.isEmpty();
+  }
+
+  public boolean hadRuntimeError() {
+    return !runtimeErrors.isEmpty();
+  }
+
+  /**
+   * @return the formatted compile errors followed by the runtime errors.
+   */
+  public List<String> messages() {
+    List<String> messages = new ArrayList<>();
+    for (Entry entry : errors) {
+      messages.add(ErrorReporter.format(entry.line, entry.where, entry.message));
+    }
+    for (RuntimeError error : runtimeErrors) {
+      messages.add(ErrorReporter.format(error));
+    }
+    return Collections.unmodifiableList(messages);
+  }
+
+  /**
+   * Prints the collected messages, one per line.
+   * 
+   * @param out    the stream to print to.
+   * @param prefix prepended to each message (i.e. the name of the unit), may be
+   *               empty.
+   */
+  public void printTo(PrintStream out, String prefix) {
+    for (String message : messages()) {
+      out.println(prefix + message);
+    }
+  }
+
+  /**
+   * Reports the collected errors again to another reporter, in the same order.
+   */
+  public void reportTo(ErrorReporter reporter) {
+    for (Entry entry : errors) {
+      reporter.report(entry.line, entry.where, entry.message);
+    }
+    for (RuntimeError error : runtimeErrors) {
+      reporter.runtimeError(error);
+    }
+  }
+
+  /**
+   * Forgets the reported errors, used by the REPL which keeps going after a
+   * mistake.
+   */
+  public void clear() {
+    errors.clear();
+    runtimeErrors.clear();
+  }
+}
@@ -0,0 +1,69 @@
+package lango.diagnostics;
+
+import lango.parser.RuntimeError;
+import lango.scanner.Token;
+import lango.scanner.TokenType;
+
+/**
+ * Receives the errors found by the scanner, the parser, the resolver and the
+ * interpreter.
+ * 
+ * Each compilation unit gets its own reporter, so several units can be scanned
+ * and parsed at the same time without sharing any error state, and each
+ * embedding context reports to its own reporter.
+ */
+public interface ErrorReporter {
+
+  /**
+   * Reports an error that occurred at a specific line.
+   * 
+   * @param line    the line at which the error occurred.
+   * @param where   describes where the error occurred within the line.
+   * @param message the error message.
+   */
+  void report(int line, String where, String message);
+
+  /**
+   * Reports an error that stopped the execution of a script.
+   */
+  void runtimeError(RuntimeError error);
+
+  /**
+   * @return whether at least one compile error was reported.
+   */
+  boolean hadError();
+
+  // TODO : Add the beginning and end column.
+  /**
+   * Notifies the user about syntax error that occurred at a specific line
+   * number using a message.
+   * 
+   * @param line
+   * @param message
+   */
+  default void error(int line, String message) {
+    report(line, "", message);
+  }
+
+  default void error(Token token, String message) {
+    if (token.type == TokenType.EOF) {
+      report(token.line, " at end", message);
+    } else {
+      report(token.line, " at '" + token.lexeme + "'", message);
+    }
+  }
+
+  /**
+   * Formats a compile error the way it's shown to the user.
+   */
+  static String format(int line, String where, String message) {
+    return "[line " + line + "] Error" + where + ": " + message;
+  }
+
+  /**
+   * Formats a runtime error the way it's shown to the user.
+   */
+  static String format(RuntimeError error) {
+    return error.getMessage() + "\n[line " + error.token.line + "]";
+  }
+}
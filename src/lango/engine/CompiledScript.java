@@ -0,0 +1,60 @@
+package lango.engine;
+
+import java.util.Collections;
+import java.util.List;
+
+import lango.GlobalNames;
+import lango.astNodes.Stmt;
+import lango.frontend.CompilationUnit;
+
+/**
+ * A script that was scanned, parsed and resolved without errors.
+ * 
+ * The resolution is stored on the syntax tree itself, not in an interpreter, so
+ * a compiled script isn't tied to any context of the engine that compiled it,
+ * whose {@link GlobalNames} its globals are indexed with. The tree is never modified
+ * after it was resolved, and it's only reachable through the final fields of
+ * this class, so once created a script can be shared between threads and
+ * executed by many contexts at the same time, each one with its own globals.
+ */
+public final class CompiledScript {
+  private final String name;
+  private final List<Stmt> statements;
+  private final GlobalNames names;
+
+  private CompiledScript(String name, List<Stmt> statements, GlobalNames names) {
+    this.name = name;
+    this.statements = Collections.unmodifiableList(statements);
+    this.names = names;
+  }
+
+  /**
+   * Wraps a compilation unit that compiled without errors.
+   * 
+   * @throws IllegalArgumentException if the unit has compile errors.
+   */
+  public static CompiledScript from(CompilationUnit unit) {
+    if (unit.hadError()) {
+      throw new IllegalArgumentException("'" + unit.name + "' has compile errors.");
+    }
+
+    return new CompiledScript(unit.name, unit.statements, unit.names);
+  }
+
+  public String name() {
+    return name;
+  }
+
+  List<Stmt> statements() {
+    return statements;
+  }
+
+  GlobalNames names() {
+    return names;
+  }
+
+  @Override
+  public String toString() {
+    return "<script " + name + ">";
+  }
+}
@@ -0,0 +1,160 @@
+package lango.engine;
+
+import java.util.Arrays;
+import java.util.List;
+
+import lango.collections.LangoRope;
+import lango.diagnostics.ErrorReporter;
+import lango.frontend.CompilationUnit;
+import lango.functions.LangoCallable;
+import lango.interpreter.HeapCloner;
+import lango.interpreter.Interpreter;
+import lango.output.Output;
+import lango.parser.RuntimeError;
+import lango.scanner.Token;
+import lango.scanner.TokenType;
+
+/**
+ * An isolated Lango runtime: its own interpreter, globals and error reporter.
+ * 
+ * Functions of a context may be called from several threads at once, each call
+ * runs with a scope of its own and only the globals are shared. Still, scripts
+ * sharing arrays or instances between threads must coordinate through
+ * channels, and a REPL session belongs to one thread. Use one context per
+ * independent script.
+ */
+public class LangoContext {
+  private final LangoEngine engine;
+  private final ErrorReporter reporter;
+  private final Interpreter interpreter;
+
+  LangoContext(LangoEngine engine, ErrorReporter reporter, Output output) {
+    this.engine = engine;
+    this.reporter = reporter;
+    this.interpreter = new Interpreter(reporter, output, engine.modules(), engine.frontEnd().names());
+  }
+
+  /**
+   * Compiles and executes a script in this context.
+   * 
+   * @param name   the name of the script used when reporting errors.
+   * @param source the source code.
+   * @return false if the script had a compile or a runtime error, the errors are
+   *         sent to the context's reporter.
+   */
+  public boolean eval(String name, String source) {
+    CompilationUnit unit = engine.frontEnd().compile(name, source);
+    if (unit.hadError()) {
+      unit.diagnostics.reportTo(reporter);
+      return false;
+    }
+
+    return execute(CompiledScript.from(unit));
+  }
+
+  /**
+   * Executes a compiled script with this context's globals. The same script may
+   * be executed by other contexts at the same time.
+   * 
+   * @return false if a runtime error occurred.
+   * @throws IllegalArgumentException if the script was compiled by another
+   *                                  engine.
+   */
+  public boolean execute(CompiledScript script) {
+    if (script.names() != interpreter.globals().names()) {
+      throw new IllegalArgumentException("'" + script.name() + "' was compiled by another engine.");
+    }
+    return interpreter.interpret(script.statements());
+  }
+
+  /**
+   * Reads a global variable.
+   * 
+   * @throws RuntimeError if the variable isn't defined.
+   */
+  public Object get(String name) {
+    return LangoRope.flatten(interpreter.globals().get(identifier(name)));
+  }
+
+  /**
+   * Defines (or redefines) a global variable, i.e. to expose a value or a
+   * native function to the scripts.
+   */
+  public void define(String name, Object value) {
+    interpreter.globals().define(name, value);
+  }
+
+  /**
+   * Calls a global function or class.
+   * 
+   * @param name      the name of the global.
+   * @param arguments the arguments, which must be Lango values.
+   * @return the value returned by the function.
+   * @throws RuntimeError if the global isn't callable, the number of arguments
+   *                      doesn't match or the function fails.
+   */
+  public Object call(String name, Object... arguments) {
+    Token identifier = identifier(name);
+    Object callee = interpreter.globals().get(identifier);
+    if (!(callee instanceof LangoCallable)) {
+      throw new RuntimeError(identifier, "Can only call functions and classes");
+    }
+
+    LangoCallable function = (LangoCallable) callee;
+    List<Object> args = Arrays.asList(arguments);
+    if (function.arity() >= 0 && args.size() != function.arity()) {
+      throw new RuntimeError(identifier, "Expected " +
+          function.arity() + " arguments but got " +
+          args.size() + ".");
+    }
+
+    return LangoRope.flatten(interpreter.call(function, args));
+  }
+
+  /**
+   * Creates a context starting with a copy of the globals of this one, i.e. of
+   * a context that already ran a common prelude, which is much cheaper than
+   * running the prelude again. The contexts don't share any mutable value
+   * afterwards, the new context prints to the same output. This context must
+   * not be running meanwhile.
+   */
+  public LangoContext fork() {
+    return fork(reporter);
+  }
+
+  /**
+   * @param reporter receives the errors of the new context.
+   * @see #fork()
+   */
+  public LangoContext fork(ErrorReporter reporter) {
+    LangoContext fork = new LangoContext(engine, reporter, output());
+    HeapCloner.cloneGlobals(interpreter.globals(), fork.interpreter.globals());
+    return fork;
+  }
+
+  /**
+   * Creates an interactive session that runs its entries in this context.
+   */
+  public ReplSession newReplSession() {
+    return new ReplSession(interpreter, reporter);
+  }
+
+  public Interpreter interpreter() {
+    return interpreter;
+  }
+
+  /**
+   * @return where the scripts of this context print, which the host may flush.
+   */
+  public Output output() {
+    return interpreter.output();
+  }
+
+  public ErrorReporter reporter() {
+    return reporter;
+  }
+
+  private static Token identifier(String name) {
+    return new Token(name, TokenType.IDENTIFIER, null, 0);
+  }
+}
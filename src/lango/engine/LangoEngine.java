@@ -0,0 +1,114 @@
+package lango.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import lango.cache.AstCache;
+import lango.diagnostics.ConsoleReporter;
+import lango.diagnostics.ErrorReporter;
+import lango.frontend.CompilationUnit;
+import lango.frontend.FrontEnd;
+import lango.output.Output;
+
+/**
+ * The entry point for embedding Lango in a Java program.
+ * 
+ * An engine holds what can be shared by all the scripts (the front end, the
+ * cache of compiled trees and the imported modules) and creates the
+ * {@link LangoContext}s that run them. The engine is thread-safe. Contexts
+ * don't share any state, so many of them can run scripts concurrently, and a
+ * {@link CompiledScript} can be shared by all of them.
+ */
+public class LangoEngine {
+
+  private final FrontEnd frontEnd;
+  private final ModuleCache modules;
+
+  public LangoEngine() {
+    this(null);
+  }
+
+  /**
+   * @param cache the cache of compiled trees, may be null.
+   */
+  public LangoEngine(AstCache cache) {
+    this(cache, false);
+  }
+
+  /**
+   * @param cache       the cache of compiled trees, may be null.
+   * @param lazyParsing whether the bodies of top-level functions and methods
+   *                    are only parsed and resolved by their first call, which
+   *                    makes large libraries start faster. Compile errors in a
+   *                    body are then reported by its first call, and the cache
+   *                    isn't used.
+   */
+  public LangoEngine(AstCache cache, boolean lazyParsing) {
+    this.frontEnd = new FrontEnd(ForkJoinPool.commonPool(), cache, lazyParsing);
+    this.modules = new ModuleCache(frontEnd);
+  }
+
+  /**
+   * Creates a context that prints its errors to the console.
+   */
+  public LangoContext newContext() {
+    return newContext(new ConsoleReporter());
+  }
+
+  /**
+   * Creates a context with its own interpreter and globals, printing to the
+   * standard output.
+   * 
+   * @param reporter receives the compile and runtime errors of the context.
+   */
+  public LangoContext newContext(ErrorReporter reporter) {
+    return newContext(reporter, Output.stdout());
+  }
+
+  /**
+   * Creates a context printing to the given output, i.e. an
+   * {@link Output.Memory} to collect what the scripts print.
+   * 
+   * @param reporter receives the compile and runtime errors of the context.
+   */
+  public LangoContext newContext(ErrorReporter reporter, Output output) {
+    return new LangoContext(this, reporter, output);
+  }
+
+  /**
+   * Scans, parses and resolves a script once, so it can be executed by any
+   * number of contexts.
+   * 
+   * @param name   the name of the script used when reporting errors.
+   * @param source the source code.
+   * @return the compiled script.
+   * @throws ScriptCompileException if the script has compile errors.
+   */
+  public CompiledScript compile(String name, String source) {
+    CompilationUnit unit = frontEnd.compile(name, source);
+    if (unit.hadError()) {
+      throw new ScriptCompileException(name, unit.diagnostics.messages());
+    }
+
+    return CompiledScript.from(unit);
+  }
+
+  /**
+   * Reads and compiles the given files in parallel.
+   * 
+   * @return the compiled units in the same order as the given paths.
+   */
+  public List<CompilationUnit> compileFiles(List<Path> paths) throws IOException {
+    return frontEnd.compileFiles(paths);
+  }
+
+  FrontEnd frontEnd() {
+    return frontEnd;
+  }
+
+  ModuleCache modules() {
+    return modules;
+  }
+}
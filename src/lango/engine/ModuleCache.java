@@ -0,0 +1,234 @@
+package lango.engine;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lango.GlobalEnvironment;
+import lango.frontend.CompilationUnit;
+import lango.frontend.FrontEnd;
+import lango.functions.NativeFunction;
+import lango.interpreter.HeapCloner;
+import lango.interpreter.Interpreter;
+import lango.interpreter.ModuleLoader;
+import lango.parser.RuntimeError;
+import lango.scanner.Token;
+
+/**
+ * The modules loaded by the scripts of an engine.
+ * 
+ * A module is a script run once, in globals of its own, when it's first
+ * imported. The globals it defines (its functions, classes and variables,
+ * including those it imported itself) are then copied into the globals of
+ * every importer, in any context of the engine, the way
+ * {@link LangoContext#fork()} copies globals: the importers share the
+ * compiled tree and don't share any mutable value. Importing a library is so
+ * a copy of what it defined, it's not parsed, resolved or run again.
+ * 
+ * A module is loaded again when its file changed, i.e. its modification time
+ * or size, which is checked at each import.
+ * 
+ * A module path is relative to the directory of the module importing it, or
+ * to the working directory in the entry script. Modules at different paths
+ * are loaded concurrently, no lock is held while a module's code runs.
+ */
+final class ModuleCache implements ModuleLoader {
+
+  private static final class Module {
+    final FileTime modified;
+    final long size;
+    final GlobalEnvironment globals;
+
+    /**
+     * The names of the globals defined by the module.
+     */
+    final List<String> exports;
+
+    Module(BasicFileAttributes attributes, GlobalEnvironment globals, List<String> exports) {
+      this.modified = attributes.lastModifiedTime();
+      this.size = attributes.size();
+      this.globals = globals;
+      this.exports = exports;
+    }
+
+    boolean isCurrent(BasicFileAttributes attributes) {
+      return modified.equals(attributes.lastModifiedTime()) && size == attributes.size();
+    }
+  }
+
+  /**
+   * A module loaded, or being loaded, by a thread.
+   */
+  private static final class Entry {
+    final CompletableFuture<Module> module = new CompletableFuture<>();
+    final Thread loader = Thread.currentThread();
+  }
+
+  private final FrontEnd frontEnd;
+
+  /**
+   * The modules by absolute path. A module is loaded by the first thread
+   * importing it, the threads importing it meanwhile wait for it, and modules
+   * at other paths are loaded concurrently.
+   */
+  private final ConcurrentHashMap<Path, Entry> modules = new ConcurrentHashMap<>();
+
+  /**
+   * The module each thread waits for, to report circular imports across
+   * threads instead of waiting forever.
+   */
+  private final ConcurrentHashMap<Thread, Entry> waiting = new ConcurrentHashMap<>();
+
+  /**
+   * The paths of the modules the current thread is running, the innermost
+   * first. Imports run by a module are relative to its directory.
+   */
+  private final ThreadLocal<Deque<Path>> running = ThreadLocal.withInitial(ArrayDeque::new);
+
+  ModuleCache(FrontEnd frontEnd) {
+    this.frontEnd = frontEnd;
+  }
+
+  @Override
+  public void importModule(String name, Token keyword, Interpreter importer) {
+    Path path;
+    try {
+      Path module = running.get().peek();
+      // The entry script's imports are relative to the working directory.
+      path = (module == null ? Path.of(name).toAbsolutePath() : module.resolveSibling(name)).normalize();
+    } catch (InvalidPathException e) {
+      throw new RuntimeError(keyword, "Invalid module path '" + name + "'.");
+    }
+
+    Module module = load(path, name, keyword, importer);
+    if (importer.markImported(module)) {
+      HeapCloner.copyGlobals(module.globals, importer.globals(), module.exports);
+    }
+  }
+
+  private Module load(Path path, String name, Token keyword, Interpreter importer) {
+    while (true) {
+      BasicFileAttributes attributes;
+      try {
+        attributes = Files.readAttributes(path, BasicFileAttributes.class);
+      } catch (IOException e) {
+        throw new RuntimeError(keyword, "Could not read module '" + name + "': " + e + ".");
+      }
+
+      Entry entry = modules.get(path);
+      if (entry != null) {
+        Module module = entry.module.isDone() ? entry.module.getNow(null) : await(entry, name, keyword);
+        if (module != null && module.isCurrent(attributes))
+          return module;
+      }
+
+      // The thread that installs its own entry loads the module, the others
+      // start over with the entry it installed.
+      Entry loading = new Entry();
+      boolean installed = entry == null ? modules.putIfAbsent(path, loading) == null
+          : modules.replace(path, entry, loading);
+      if (installed)
+        return load(path, name, attributes, loading, keyword, importer);
+    }
+  }
+
+  private Module load(Path path, String name, BasicFileAttributes attributes, Entry entry, Token keyword,
+      Interpreter importer) {
+    Deque<Path> modulesRunning = running.get();
+    modulesRunning.push(path);
+    try {
+      String source;
+      try {
+        source = Files.readString(path);
+      } catch (IOException e) {
+        throw new RuntimeError(keyword, "Could not read module '" + name + "': " + e + ".");
+      }
+
+      Module module = run(name, source, attributes, keyword, importer);
+      entry.module.complete(module);
+      return module;
+    } catch (RuntimeException | Error e) {
+      // A module that failed is loaded again by the next import.
+      modules.remove(path, entry);
+      entry.module.completeExceptionally(e);
+      throw e;
+    } finally {
+      modulesRunning.pop();
+    }
+  }
+
+  /**
+   * Waits for a module another thread, or this one, is loading.
+   * 
+   * @return the module, or null if it failed and should be loaded again.
+   * @throws RuntimeError if waiting would never end, i.e. the module imports
+   *                      the module being loaded by this thread.
+   */
+  private Module await(Entry entry, String name, Token keyword) {
+    Thread current = Thread.currentThread();
+    waiting.put(current, entry);
+    try {
+      // Follows the loaders waiting for each other, back to this thread in a
+      // circular import.
+      for (Entry next = entry; next != null && !next.module.isDone(); next = waiting.get(next.loader)) {
+        if (next.loader == current)
+          throw new RuntimeError(keyword, "Circular import of module '" + name + "'.");
+      }
+
+      return entry.module.join();
+    } catch (CompletionException e) {
+      return null;
+    } finally {
+      waiting.remove(current);
+    }
+  }
+
+  private Module run(String name, String source, BasicFileAttributes attributes, Token keyword,
+      Interpreter importer) {
+    CompilationUnit unit = frontEnd.compile(name, source);
+    if (unit.hadError()) {
+      unit.diagnostics.reportTo(importer.reporter());
+      throw new RuntimeError(keyword, "Module '" + name + "' has compile errors.");
+    }
+
+    Interpreter interpreter = new Interpreter(importer.reporter(), importer.output(), this, frontEnd.names());
+    GlobalEnvironment globals = interpreter.globals();
+
+    // The natives the host defined for the importer (i.e. javaClass) are
+    // available to the module as well.
+    importer.globals().forEach((global, value) -> {
+      if (value instanceof NativeFunction) {
+        globals.define(global, value);
+      }
+    });
+    Map<String, Object> builtins = new HashMap<>();
+    globals.forEach(builtins::put);
+
+    try {
+      interpreter.run(unit.statements);
+    } catch (RuntimeError error) {
+      throw new RuntimeError(keyword,
+          "Error in module '" + name + "' at line " + error.token.line + ": " + error.getMessage());
+    }
+
+    List<String> exports = new ArrayList<>();
+    globals.forEach((global, value) -> {
+      if (!builtins.containsKey(global) || builtins.get(global) != value) {
+        exports.add(global);
+      }
+    });
+    return new Module(attributes, globals, exports);
+  }
+}
@@ -0,0 +1,67 @@
+package lango.engine;
+
+import lango.diagnostics.Diagnostics;
+import lango.diagnostics.ErrorReporter;
+import lango.frontend.CompilationUnit;
+import lango.frontend.FrontEnd;
+import lango.interpreter.Interpreter;
+import lango.semanticAnalysis.Resolver;
+
+/**
+ * The state of an interactive session that lives across the entries.
+ * 
+ * The globals (in the interpreter) and the resolver's symbol tables are kept
+ * for the whole session, while each entry is scanned, parsed and resolved on
+ * its own. The resolution is stored on the syntax tree of the entry, so once an
+ * entry ran, its tree is only kept alive by the functions and classes it
+ * declared.
+ */
+public class ReplSession {
+  private final Interpreter interpreter;
+  private final FrontEnd frontEnd = new FrontEnd();
+
+  /**
+   * Errors of the current entry, cleared before each entry because the session
+   * shouldn't be terminated when the user makes a mistake.
+   */
+  private final Diagnostics diagnostics = new Diagnostics();
+  private final Resolver resolver;
+
+  /**
+   * Where the errors of the entries are reported.
+   */
+  private final ErrorReporter reporter;
+
+  public ReplSession(Interpreter interpreter, ErrorReporter reporter) {
+    this.interpreter = interpreter;
+    this.reporter = reporter;
+    this.resolver = new Resolver(diagnostics, interpreter.globals().names());
+  }
+
+  /**
+   * Compiles and executes one entry.
+   * 
+   * @param source the entry's source code.
+   * @return whether the entry compiled and ran without errors.
+   */
+  public boolean eval(String source) {
+    diagnostics.clear();
+    CompilationUnit unit = frontEnd.parse("<stdin>", source, diagnostics);
+
+    // Stop if there is a syntax error.
+    if (diagnostics.hadError()) {
+      diagnostics.reportTo(reporter);
+      return false;
+    }
+
+    resolver.resolve(unit.statements);
+
+    // Stop if there's a resolution error.
+    if (diagnostics.hadError()) {
+      diagnostics.reportTo(reporter);
+      return false;
+    }
+
+    return interpreter.interpret(unit.statements);
+  }
+}
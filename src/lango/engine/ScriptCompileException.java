@@ -0,0 +1,16 @@
+package lango.engine;
+
+import java.util.List;
+
+/**
+ * Thrown when a script given to {@link LangoEngine#compile} has syntax or
+ * resolution errors.
+ */
+public class ScriptCompileException extends RuntimeException {
+  public final List<String> messages;
+
+  ScriptCompileException(String name, List<String> messages) {
+    super("'" + name + "' has compile errors:\n" + String.join("\n", messages));
+    this.messages = messages;
+  }
+}
@@ -0,0 +1,116 @@
+package lango.engine;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import lango.diagnostics.Diagnostics;
+import lango.interpreter.ScriptInterruptedException;
+
+/**
+ * A single run of a script submitted to a {@link ScriptExecutor}.
+ * 
+ * The result completes with true when the script ran to its end, false when it
+ * stopped on a runtime error (see {@link #diagnostics()}), with a
+ * {@link CancellationException} when it was cancelled and with a
+ * {@link TimeoutException} when it ran out of time.
+ */
+public class ScriptExecution {
+  private final LangoContext context;
+  private final Diagnostics diagnostics;
+  private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+  /**
+   * The thread running the script, null when it's not running. Guarded by
+   * this, so a late interrupt never reaches a thread that moved on to another
+   * task.
+   */
+  private Thread thread = null;
+
+  ScriptExecution(LangoContext context, Diagnostics diagnostics) {
+    this.context = context;
+    this.diagnostics = diagnostics;
+  }
+
+  void run(CompiledScript script, Consumer<LangoContext> setup, Semaphore permits) {
+    synchronized (this) {
+      thread = Thread.currentThread();
+    }
+
+    try {
+      permits.acquire();
+      try {
+        // It may have been cancelled or timed out while waiting for a permit.
+        if (result.isDone())
+          return;
+
+        setup.accept(context);
+        result.complete(context.execute(script));
+      } finally {
+        permits.release();
+      }
+    } catch (ScriptInterruptedException | InterruptedException e) {
+      // The result was already completed by whoever stopped the script.
+      result.completeExceptionally(new CancellationException(e.getMessage()));
+    } catch (Throwable e) {
+      result.completeExceptionally(e);
+    } finally {
+      synchronized (this) {
+        thread = null;
+        // Clears an interrupt that arrived after the script finished.
+        Thread.interrupted();
+      }
+    }
+  }
+
+  /**
+   * Stops the script, it throws at its next loop iteration or call, and a
+   * native function blocked in I/O is interrupted.
+   * 
+   * @return false if the script already finished.
+   */
+  public boolean cancel() {
+    return stop(new CancellationException("Script was cancelled."));
+  }
+
+  void timeOut(long timeoutMillis) {
+    stop(new TimeoutException("Script timed out after " + timeoutMillis + " ms."));
+  }
+
+  private boolean stop(Throwable reason) {
+    if (!result.completeExceptionally(reason))
+      return false;
+
+    context.interpreter().interrupt(reason.getMessage());
+    synchronized (this) {
+      if (thread != null)
+        thread.interrupt();
+    }
+    return true;
+  }
+
+  /**
+   * @return a view of the result, cancelling it doesn't stop the script, use
+   *         {@link #cancel()} instead.
+   */
+  public CompletableFuture<Boolean> result() {
+    return result.copy();
+  }
+
+  /**
+   * @return the context the script runs in, i.e. to read its globals once it's
+   *         done.
+   */
+  public LangoContext context() {
+    return context;
+  }
+
+  /**
+   * @return the runtime errors of the script.
+   */
+  public Diagnostics diagnostics() {
+    return diagnostics;
+  }
+}
@@ -0,0 +1,128 @@
+package lango.engine;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import lango.concurrent.VirtualThreads;
+import lango.diagnostics.Diagnostics;
+
+/**
+ * Runs compiled scripts concurrently, each one in a fresh
+ * {@link LangoContext} or in a fork of a warmed one.
+ * 
+ * Every submitted script gets its own virtual thread, so scripts blocked in
+ * native I/O don't hold a platform thread, and tens of thousands of them can be
+ * in flight. At most {@code maxConcurrency} of them execute at the same time,
+ * the others wait for a permit on their (cheap) virtual thread. On a JDK
+ * without virtual threads, a fixed pool of {@code maxConcurrency} platform
+ * threads is used instead.
+ * 
+ * A script can be cancelled at any time and is stopped when its timeout
+ * elapses. The interpreter checks for this at every loop iteration and call.
+ */
+public class ScriptExecutor implements AutoCloseable {
+  private final LangoEngine engine;
+  private final ExecutorService threads;
+  private final Semaphore permits;
+
+  /**
+   * The timeout used by {@link #submit(CompiledScript)}, zero for no timeout.
+   */
+  private final long defaultTimeoutMillis;
+
+  /**
+   * Fires the timeouts.
+   */
+  private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(daemon("lango-timer"));
+
+  /**
+   * @param engine               creates the contexts of the scripts.
+   * @param maxConcurrency       the number of scripts that may execute at the
+   *                             same time.
+   * @param defaultTimeoutMillis the default timeout of a script, zero for no
+   *                             timeout.
+   */
+  public ScriptExecutor(LangoEngine engine, int maxConcurrency, long defaultTimeoutMillis) {
+    this.engine = engine;
+    this.permits = new Semaphore(maxConcurrency);
+    this.defaultTimeoutMillis = defaultTimeoutMillis;
+
+    ExecutorService virtualThreads = VirtualThreads.newThreadPerTaskExecutor();
+    this.threads = virtualThreads != null ? virtualThreads
+        : Executors.newFixedThreadPool(maxConcurrency, daemon("lango-script"));
+  }
+
+  public ScriptExecution submit(CompiledScript script) {
+    return submit(script, defaultTimeoutMillis, context -> {
+    });
+  }
+
+  /**
+   * Runs a script in a new context.
+   * 
+   * @param script        the script to run.
+   * @param timeoutMillis stops the script after this time, zero for no timeout.
+   * @param setup         prepares the context before the script runs, i.e. to
+   *                      define the globals holding the request.
+   * @return the running script.
+   */
+  public ScriptExecution submit(CompiledScript script, long timeoutMillis, Consumer<LangoContext> setup) {
+    Diagnostics diagnostics = new Diagnostics();
+    return submit(engine.newContext(diagnostics), diagnostics, script, timeoutMillis, setup);
+  }
+
+  /**
+   * Runs a script in a fork of the given context (see
+   * {@link LangoContext#fork()}), so a prelude it already ran isn't run again
+   * for each script. The template is copied before this method returns and
+   * must not be running meanwhile.
+   * 
+   * @param template      the context whose globals the script starts with.
+   * @param script        the script to run.
+   * @param timeoutMillis stops the script after this time, zero for no timeout.
+   * @param setup         prepares the context before the script runs.
+   * @return the running script.
+   */
+  public ScriptExecution submit(LangoContext template, CompiledScript script, long timeoutMillis,
+      Consumer<LangoContext> setup) {
+    Diagnostics diagnostics = new Diagnostics();
+    return submit(template.fork(diagnostics), diagnostics, script, timeoutMillis, setup);
+  }
+
+  private ScriptExecution submit(LangoContext context, Diagnostics diagnostics, CompiledScript script,
+      long timeoutMillis, Consumer<LangoContext> setup) {
+    ScriptExecution execution = new ScriptExecution(context, diagnostics);
+
+    if (timeoutMillis > 0) {
+      ScheduledFuture<?> timeout = timer.schedule(() -> execution.timeOut(timeoutMillis), timeoutMillis,
+          TimeUnit.MILLISECONDS);
+      execution.result().whenComplete((result, error) -> timeout.cancel(false));
+    }
+
+    threads.execute(() -> execution.run(script, setup, permits));
+    return execution;
+  }
+
+  /**
+   * Stops accepting scripts, the running ones are left to finish.
+   */
+  @Override
+  public void close() {
+    threads.shutdown();
+    timer.shutdown();
+  }
+
+  private static ThreadFactory daemon(String name) {
+    return task -> {
+      Thread thread = new Thread(task, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
@@ -0,0 +1,40 @@
+package lango.frontend;
+
+import java.util.List;
+
+import lango.GlobalNames;
+import lango.astNodes.Stmt;
+import lango.diagnostics.Diagnostics;
+
+/**
+ * A single source file (or REPL entry) after it went through the front end.
+ * 
+ * Every unit owns its {@link Diagnostics}, so errors are reported per unit and
+ * not through any global state.
+ */
+public class CompilationUnit {
+  /**
+   * The name of the unit, usually the path of the source file.
+   */
+  public final String name;
+  public final String source;
+  public final List<Stmt> statements;
+  public final Diagnostics diagnostics;
+
+  /**
+   * The table the global variables of the statements are indexed with.
+   */
+  public final GlobalNames names;
+
+  CompilationUnit(String name, String source, List<Stmt> statements, Diagnostics diagnostics, GlobalNames names) {
+    this.name = name;
+    this.source = source;
+    this.statements = statements;
+    this.diagnostics = diagnostics;
+    this.names = names;
+  }
+
+  public boolean hadError() {
+    return diagnostics.hadError();
+  }
+}
@@ -0,0 +1,197 @@
+package lango.frontend;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import lango.GlobalNames;
+import lango.astNodes.Stmt;
+import lango.cache.AstCache;
+import lango.compact.CompactAst;
+import lango.compact.CompactAstBuilder;
+import lango.compact.CompactAstInflater;
+import lango.diagnostics.Diagnostics;
+import lango.parser.Parser;
+import lango.scanner.Scanner;
+import lango.scanner.Token;
+import lango.semanticAnalysis.Resolver;
+
+/**
+ * Runs the scanner, the parser and the resolver over one or more compilation
+ * units.
+ * 
+ * Compiling a unit only touches that unit's tokens, tree and diagnostics, so
+ * several files are read and compiled in parallel on a fork-join pool.
+ * 
+ * When an {@link AstCache} is given, files whose content was already compiled
+ * in a previous run are loaded from it instead. A unit compiled with a cache
+ * runs from the flat {@link CompactAst} stored in it, whether it was loaded or
+ * just compiled: only its top-level statements are rebuilt as nodes, the body
+ * of a function is rebuilt by its first call.
+ * 
+ * A lazy front end only skims the bodies of top-level functions and methods,
+ * which are parsed and resolved by their first call (see
+ * {@link lango.parser.LazyBody}), so code that's never called costs almost
+ * nothing. It doesn't use the cache, which stores complete trees.
+ * 
+ * The global variables of the trees are indexed with the {@link GlobalNames}
+ * of the front end, which the environments running them must share.
+ */
+public class FrontEnd {
+
+  private final ForkJoinPool pool;
+
+  /**
+   * The cache of resolved trees, may be null.
+   */
+  private final AstCache cache;
+
+  /**
+   * Whether function bodies are parsed lazily.
+   */
+  private final boolean lazy;
+
+  private final GlobalNames names = new GlobalNames();
+
+  public FrontEnd() {
+    this(ForkJoinPool.commonPool(), null);
+  }
+
+  public FrontEnd(ForkJoinPool pool, AstCache cache) {
+    this(pool, cache, false);
+  }
+
+  /**
+   * @param cache the cache of resolved trees, may be null, ignored when lazy.
+   * @param lazy  whether function bodies are parsed by their first call.
+   */
+  public FrontEnd(ForkJoinPool pool, AstCache cache, boolean lazy) {
+    this.pool = pool;
+    this.cache = lazy ? null : cache;
+    this.lazy = lazy;
+  }
+
+  /**
+   * @return the table the global variables of the compiled trees are indexed
+   *         with.
+   */
+  public GlobalNames names() {
+    return names;
+  }
+
+  /**
+   * Scans and parses a single source string, reporting the errors to the given
+   * diagnostics. The statements are not resolved.
+   */
+  public CompilationUnit parse(String name, String source, Diagnostics diagnostics) {
+    Scanner scanner = new Scanner(source, diagnostics);
+    List<Token> tokens = scanner.scanTokens();
+    Parser parser = lazy ? new Parser(tokens, diagnostics, source, scanner.offsets())
+        : new Parser(tokens, diagnostics);
+    List<Stmt> statements = parser.parse();
+
+    return new CompilationUnit(name, source, statements, diagnostics, names);
+  }
+
+  /**
+   * Scans, parses and resolves a single source string on the calling thread.
+   * 
+   * @param name   the name of the unit used when reporting errors.
+   * @param source the source code.
+   * @return the compiled unit, which has to be checked for errors.
+   */
+  public CompilationUnit compile(String name, String source) {
+    if (cache != null) {
+      CompactAst cached = cache.load(source);
+      if (cached != null) {
+        return new CompilationUnit(name, source, new CompactAstInflater(cached, names).statements(), new Diagnostics(),
+            names);
+      }
+    }
+
+    CompilationUnit unit = parse(name, source, new Diagnostics());
+
+    // Don't resolve a tree that has syntax errors.
+    if (unit.hadError())
+      return unit;
+
+    Resolver resolver = new Resolver(unit.diagnostics, names);
+    resolver.resolve(unit.statements);
+
+    if (cache != null && !unit.hadError()) {
+      CompactAst compact = CompactAstBuilder.build(unit.statements);
+      cache.store(source, compact);
+      // The parsed tree is dropped, so the first run behaves like the next ones.
+      return new CompilationUnit(name, source, new CompactAstInflater(compact, names).statements(),
+          unit.diagnostics, names);
+    }
+
+    return unit;
+  }
+
+  /**
+   * Reads and compiles the given files concurrently.
+   * 
+   * @param paths the source files.
+   * @return the compiled units in the same order as the given paths.
+   * @throws IOException if one of the files can't be read.
+   */
+  public List<CompilationUnit> compileFiles(List<Path> paths) throws IOException {
+    // A single file doesn't need to go through the pool.
+    if (paths.size() == 1) {
+      List<CompilationUnit> units = new ArrayList<>();
+      units.add(compileFile(paths.get(0)));
+      return units;
+    }
+
+    List<CompileTask> tasks = new ArrayList<>();
+    for (Path path : paths) {
+      tasks.add(new CompileTask(path));
+    }
+
+    try {
+      return pool.invoke(new RecursiveTask<List<CompilationUnit>>() {
+        @Override
+        protected List<CompilationUnit> compute() {
+          invokeAll(tasks);
+
+          List<CompilationUnit> units = new ArrayList<>();
+          for (CompileTask task : tasks) {
+            units.add(task.join());
+          }
+          return units;
+        }
+      });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private CompilationUnit compileFile(Path path) throws IOException {
+    byte[] bytes = Files.readAllBytes(path);
+    return compile(path.toString(), new String(bytes, Charset.defaultCharset()));
+  }
+
+  private class CompileTask extends RecursiveTask<CompilationUnit> {
+    private final Path path;
+
+    CompileTask(Path path) {
+      this.path = path;
+    }
+
+    @Override
+    protected CompilationUnit compute() {
+      try {
+        return compileFile(path);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
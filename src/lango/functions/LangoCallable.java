@@ -2,11 +2,11 @@ package lango.functions;
 
 import java.util.List;
 
-import lango.interpreter.Interpreter;
+import lango.interpreter.Evaluator;
 
 public interface LangoCallable {
 
-  Object call(Interpreter interpreter, List<Object> arguments);
+  Object call(Evaluator evaluator, List<Object> arguments);
 
   int arity();
 }
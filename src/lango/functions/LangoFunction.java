@@ -6,7 +6,8 @@ import lango.Environment;
 import lango.classes.LangoInstance;
 import lango.Return;
 import lango.astNodes.Stmt;
-import lango.interpreter.Interpreter;
+import lango.interpreter.Evaluator;
+import lango.parser.LazyBody;
 
 public class LangoFunction implements LangoCallable {
 
@@ -25,6 +26,18 @@ public class LangoFunction implements LangoCallable {
 
   }
 
+  public Environment closure() {
+    return closure;
+  }
+
+  /**
+   * @return the same function closing over another scope, i.e. a copy of its
+   *         scope.
+   */
+  public LangoFunction withClosure(Environment closure) {
+    return new LangoFunction(declaration, closure, isInitializer);
+  }
+
   public LangoFunction bind(LangoInstance instance) {
     /// A closure is created to capture the "this" within the closure.
     Environment environment = new Environment(closure);
@@ -33,15 +46,25 @@ public class LangoFunction implements LangoCallable {
   }
 
   @Override
-  public Object call(Interpreter interpreter, List<Object> arguments) {
+  public Object call(Evaluator evaluator, List<Object> arguments) {
     Environment environment = new Environment(closure);
     for (int i = 0; i < declaration.params.size(); i++) {
       environment.define(declaration.params.get(i).lexeme,
           arguments.get(i));
     }
 
+    // A skimmed body is parsed by the first call, which tells whether it's a
+    // generator.
+    if (declaration.body instanceof LazyBody) {
+      ((LazyBody) declaration.body).statements();
+    }
+
+    if (declaration.isGenerator) {
+      return new LangoGenerator(evaluator.interpreter(), declaration.body, environment);
+    }
+
     try {
-      interpreter.executeBlock(declaration.body, environment);
+      evaluator.executeBlock(declaration.body, environment);
     } catch (Return returnValue) {
       if (isInitializer)
         return closure.getAt(0, "this");
@@ -60,6 +83,8 @@ public class LangoFunction implements LangoCallable {
 
   @Override
   public String toString() {
+    if (declaration.name == null)
+      return "<fn>";
     return "<fn " + declaration.name.lexeme + ">";
   }
 }
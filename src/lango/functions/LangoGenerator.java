@@ -0,0 +1,250 @@
+package lango.functions;
+
+import java.lang.ref.Cleaner;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import lango.Environment;
+import lango.Return;
+import lango.astNodes.Stmt;
+import lango.concurrent.VirtualThreads;
+import lango.interpreter.Evaluator;
+import lango.interpreter.Interpreter;
+import lango.interpreter.ScriptInterruptedException;
+
+/**
+ * The object returned by a call to a generator, i.e. a function containing a
+ * yield statement.
+ * 
+ * The body runs on a thread of its own (a virtual thread when the JDK has
+ * them), started by the first request for a value. Each yield hands a value to
+ * the caller and parks the body until the next value is requested, so a
+ * generator only ever holds one value, however many it produces.
+ * 
+ * The thread is given back as soon as the body ends, or when the generator is
+ * closed while the body is parked at a yield. A generator that is no longer
+ * reachable is closed when it's collected, in case the script didn't close it.
+ * 
+ * A generator can't be resumed or closed from its own body, directly or through
+ * the generators it resumes: its caller waits for it, so it would never go on.
+ */
+public class LangoGenerator {
+
+  private static final Cleaner CLEANER = Cleaner.create();
+
+  /**
+   * How long a wait lasts before checking again if the script was
+   * interrupted.
+   */
+  private static final long POLL_MILLIS = 50;
+
+  private final Body body;
+
+  /**
+   * Closes the body, at the latest when the generator is collected.
+   */
+  private final Cleaner.Cleanable cleanable;
+
+  // Guarded by this.
+  private boolean started = false;
+  private boolean finished = false;
+  private boolean hasValue = false;
+  private Object value = null;
+
+  LangoGenerator(Interpreter interpreter, List<Stmt> statements, Environment environment) {
+    body = new Body(interpreter, statements, environment);
+    cleanable = CLEANER.register(this, body::close);
+  }
+
+  /**
+   * Runs the body up to its next yield, unless a value is already waiting.
+   * 
+   * @return false if the body ended without yielding another value.
+   */
+  public boolean hasNext(Evaluator caller) {
+    checkNotRunning();
+    synchronized (this) {
+      advance(caller);
+      return hasValue;
+    }
+  }
+
+  /**
+   * @return the next value yielded by the body, nil once it ended.
+   */
+  public Object next(Evaluator caller) {
+    checkNotRunning();
+    synchronized (this) {
+      advance(caller);
+      if (!hasValue)
+        return null;
+
+      Object next = value;
+      value = null;
+      hasValue = false;
+      return next;
+    }
+  }
+
+  /**
+   * Ends the body at the yield it's parked at, if any, and gives its thread
+   * back. Afterwards the generator yields no more values.
+   */
+  public void close() {
+    checkNotRunning();
+    synchronized (this) {
+      finished = true;
+      hasValue = false;
+      value = null;
+      cleanable.clean();
+    }
+  }
+
+  /**
+   * Fails if the current thread runs the body of this generator, or of a
+   * generator it is waiting for.
+   */
+  private void checkNotRunning() {
+    for (Body running = Body.CURRENT.get(); running != null; running = running.resumer) {
+      if (running == body)
+        throw new NativeError("A generator can't be used from its own body.");
+    }
+  }
+
+  private void advance(Evaluator caller) {
+    if (hasValue || finished)
+      return;
+
+    body.resumer = Body.CURRENT.get();
+    if (!started) {
+      started = true;
+      VirtualThreads.executor().execute(body::run);
+    } else {
+      body.resumes.add(Body.RESUME);
+    }
+
+    Object signal = body.await(body.signals, caller.interpreter());
+    if (signal == Body.END) {
+      finished = true;
+      cleanable.clean();
+    } else if (signal instanceof Failure) {
+      finished = true;
+      cleanable.clean();
+      throw ((Failure) signal).error;
+    } else {
+      value = signal == Body.NIL ? null : signal;
+      hasValue = true;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "<generator>";
+  }
+
+  private static final class Failure {
+    final RuntimeException error;
+
+    Failure(RuntimeException error) {
+      this.error = error;
+    }
+  }
+
+  /**
+   * Thrown at the yield a closed generator is parked at, to end its body.
+   */
+  private static final class Closed extends RuntimeException {
+    Closed() {
+      super(null, null, false, false);
+    }
+  }
+
+  /**
+   * The running side of the generator. It must not reference the generator,
+   * otherwise the generator would never be collected while its body is parked.
+   */
+  private static final class Body implements Evaluator.Generator {
+    static final Object RESUME = new Object();
+    static final Object CLOSE = new Object();
+    static final Object END = new Object();
+    static final Object NIL = new Object();
+
+    /**
+     * The body running on the current thread, if any.
+     */
+    static final ThreadLocal<Body> CURRENT = new ThreadLocal<>();
+
+    final Interpreter interpreter;
+    final List<Stmt> statements;
+    final Environment environment;
+
+    /**
+     * The body waiting for this one to yield, null if it's not a generator's
+     * body that resumed it.
+     */
+    volatile Body resumer;
+
+    /**
+     * From the caller to the body: RESUME or CLOSE.
+     */
+    final BlockingQueue<Object> resumes = new LinkedBlockingQueue<>();
+
+    /**
+     * From the body to the caller: a value, END or a failure.
+     */
+    final BlockingQueue<Object> signals = new LinkedBlockingQueue<>();
+
+    Body(Interpreter interpreter, List<Stmt> statements, Environment environment) {
+      this.interpreter = interpreter;
+      this.statements = statements;
+      this.environment = environment;
+    }
+
+    void run() {
+      CURRENT.set(this);
+      try {
+        interpreter.newEvaluator(this).executeBlock(statements, environment);
+        signals.add(END);
+      } catch (Return returnValue) {
+        signals.add(END);
+      } catch (Closed closed) {
+        // Nobody is waiting for a value anymore.
+      } catch (RuntimeException e) {
+        signals.add(new Failure(e));
+      } finally {
+        CURRENT.remove();
+      }
+    }
+
+    @Override
+    public void yieldValue(Object value) {
+      signals.add(value == null ? NIL : value);
+      if (await(resumes, interpreter) == CLOSE)
+        throw new Closed();
+    }
+
+    void close() {
+      resumes.add(CLOSE);
+    }
+
+    /**
+     * Waits for the other side, checking now and then if the script was
+     * interrupted.
+     */
+    Object await(BlockingQueue<Object> queue, Interpreter interpreter) {
+      try {
+        while (true) {
+          interpreter.checkInterrupted();
+          Object element = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+          if (element != null)
+            return element;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ScriptInterruptedException("Interrupted while running a generator.");
+      }
+    }
+  }
+}
@@ -0,0 +1,11 @@
+package lango.functions;
+
+/**
+ * Thrown by a {@link NativeFunction} that was called with invalid arguments.
+ * It has no token, the interpreter reports it at the line of the call.
+ */
+public class NativeError extends RuntimeException {
+  public NativeError(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,68 @@
+package lango.functions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lango.collections.LangoRope;
+import lango.interpreter.Evaluator;
+
+/**
+ * A function implemented in Java and exposed to scripts as a global.
+ * 
+ * The body reports a misuse (i.e. an argument of the wrong type) by throwing a
+ * {@link NativeError}, which the interpreter turns into a runtime error at the
+ * call site. Strings made by concatenation are flattened before they're handed
+ * to the body, so it only ever gets {@link String}s.
+ */
+public class NativeFunction implements LangoCallable {
+
+  public interface Body {
+    Object call(Evaluator evaluator, List<Object> arguments);
+  }
+
+  private final String name;
+  private final int arity;
+  private final Body body;
+
+  public NativeFunction(String name, int arity, Body body) {
+    this.name = name;
+    this.arity = arity;
+    this.body = body;
+  }
+
+  public String name() {
+    return name;
+  }
+
+  @Override
+  public Object call(Evaluator evaluator, List<Object> arguments) {
+    return body.call(evaluator, flatten(arguments));
+  }
+
+  /**
+   * @return the arguments with their ropes replaced by strings, the same list
+   *         if there's none.
+   */
+  private static List<Object> flatten(List<Object> arguments) {
+    List<Object> flat = arguments;
+    for (int i = 0; i < arguments.size(); i++) {
+      Object argument = arguments.get(i);
+      if (argument instanceof LangoRope) {
+        if (flat == arguments)
+          flat = new ArrayList<>(arguments);
+        flat.set(i, argument.toString());
+      }
+    }
+    return flat;
+  }
+
+  @Override
+  public int arity() {
+    return arity;
+  }
+
+  @Override
+  public String toString() {
+    return "<native fn " + name + ">";
+  }
+}
@@ -0,0 +1,303 @@
+package lango.interop;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.HashMap;
+import java.util.Map;
+
+import lango.actors.LangoActor;
+import lango.classes.LangoInstance;
+import lango.collections.LangoArray;
+import lango.collections.LangoMap;
+import lango.collections.LangoRope;
+import lango.functions.LangoCallable;
+import lango.functions.LangoGenerator;
+import lango.functions.NativeError;
+import lango.interpreter.Interpreter;
+import lango.json.JsonReader;
+import lango.natives.LangoChannel;
+import lango.natives.LangoFile;
+import lango.natives.LangoFuture;
+
+/**
+ * Converts values between Lango and Java.
+ *
+ * Lango numbers are doubles: they're passed to any numeric parameter (the
+ * integral ones only take integral values) and every Java number comes back as
+ * a double. Strings go both ways, a char becomes a string of one character,
+ * booleans and null map to themselves. Any other Java object comes back
+ * wrapped in a {@link JavaObject} and is unwrapped when passed to Java again.
+ *
+ * The converters are method handles specialized for one Java type, so a call
+ * site filters its arguments and result without looking at the types again.
+ */
+final class Conversions {
+  private Conversions() {
+  }
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+  /**
+   * Converters from a Lango value to each primitive type.
+   */
+  private static final Map<Class<?>, MethodHandle> TO_PRIMITIVE = new HashMap<>();
+
+  /**
+   * Converters from each primitive type to a Lango value.
+   */
+  private static final Map<Class<?>, MethodHandle> FROM_PRIMITIVE = new HashMap<>();
+
+  private static final MethodHandle TO_STRING = find("toJavaString", String.class, Object.class);
+  private static final MethodHandle UNWRAP = find("unwrap", Object.class, Object.class);
+  private static final MethodHandle TO_LANGO = find("toLango", Object.class, Object.class);
+  private static final MethodHandle IS_NULL = find("isNull", boolean.class, Object.class);
+
+  static {
+    TO_PRIMITIVE.put(double.class, find("toDouble", double.class, Object.class));
+    TO_PRIMITIVE.put(float.class, find("toFloat", float.class, Object.class));
+    TO_PRIMITIVE.put(long.class, find("toLong", long.class, Object.class));
+    TO_PRIMITIVE.put(int.class, find("toInt", int.class, Object.class));
+    TO_PRIMITIVE.put(short.class, find("toShort", short.class, Object.class));
+    TO_PRIMITIVE.put(byte.class, find("toByte", byte.class, Object.class));
+    TO_PRIMITIVE.put(char.class, find("toChar", char.class, Object.class));
+    TO_PRIMITIVE.put(boolean.class, find("toBoolean", boolean.class, Object.class));
+
+    FROM_PRIMITIVE.put(double.class, find("fromDouble", Object.class, double.class));
+    FROM_PRIMITIVE.put(float.class, find("fromDouble", Object.class, double.class));
+    FROM_PRIMITIVE.put(long.class, find("fromLong", Object.class, long.class));
+    FROM_PRIMITIVE.put(int.class, find("fromInt", Object.class, int.class));
+    FROM_PRIMITIVE.put(short.class, find("fromInt", Object.class, int.class));
+    FROM_PRIMITIVE.put(byte.class, find("fromInt", Object.class, int.class));
+    FROM_PRIMITIVE.put(char.class, find("fromChar", Object.class, char.class));
+    FROM_PRIMITIVE.put(boolean.class, find("fromBoolean", Object.class, boolean.class));
+  }
+
+  private static MethodHandle find(String name, Class<?> returnType, Class<?> parameterType) {
+    try {
+      return LOOKUP.findStatic(Conversions.class, name, MethodType.methodType(returnType, parameterType));
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * How well a Lango value fits a parameter type, to pick an overload.
+   *
+   * @return 0 for an exact fit, higher for a looser one, -1 if the value can't
+   *         be passed.
+   */
+  static int cost(Class<?> type, Object value) {
+    Class<?> boxed = type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+
+    if (value == null)
+      return type.isPrimitive() ? -1 : 1;
+
+    if (value instanceof Double) {
+      if (boxed == Double.class)
+        return 0;
+      if (boxed == Float.class)
+        return 1;
+      if (boxed == Long.class)
+        return 2;
+      if (boxed == Integer.class)
+        return 3;
+      if (boxed == Short.class || boxed == Byte.class)
+        return 4;
+      return type.isAssignableFrom(Double.class) ? 5 : -1;
+    }
+
+    if (LangoRope.isString(value)) {
+      if (type == String.class)
+        return 0;
+      if (type == CharSequence.class)
+        return 1;
+      if (type.isAssignableFrom(String.class))
+        return 2;
+      return boxed == Character.class ? 3 : -1;
+    }
+
+    if (value instanceof Boolean) {
+      if (boxed == Boolean.class)
+        return 0;
+      return type.isAssignableFrom(Boolean.class) ? 2 : -1;
+    }
+
+    Object target = unwrap(value);
+    if (type.isPrimitive() || !type.isInstance(target))
+      return -1;
+    return type == target.getClass() ? 0 : 1;
+  }
+
+  /**
+   * @return a handle converting a Lango value (typed Object) to the given Java
+   *         type.
+   */
+  static MethodHandle toJava(Class<?> type) {
+    MethodHandle primitive = TO_PRIMITIVE.get(type);
+    if (primitive != null)
+      return primitive;
+
+    Class<?> unboxed = MethodType.methodType(type).unwrap().returnType();
+    if (unboxed != type && TO_PRIMITIVE.containsKey(unboxed)) {
+      // A boxed type also takes nil.
+      MethodHandle convert = TO_PRIMITIVE.get(unboxed).asType(MethodType.methodType(type, Object.class));
+      MethodHandle nil = MethodHandles.dropArguments(MethodHandles.constant(type, null), 0, Object.class);
+      return MethodHandles.guardWithTest(IS_NULL, nil, convert);
+    }
+
+    if (type == String.class || type == CharSequence.class)
+      return TO_STRING.asType(MethodType.methodType(type, Object.class));
+    return UNWRAP.asType(MethodType.methodType(type, Object.class));
+  }
+
+  /**
+   * @return a handle converting a value of the given Java type (not void) to a
+   *         Lango value (typed Object).
+   */
+  static MethodHandle toLango(Class<?> type) {
+    MethodHandle primitive = FROM_PRIMITIVE.get(type);
+    if (primitive != null)
+      return primitive.asType(MethodType.methodType(Object.class, type));
+    if (type == String.class)
+      return MethodHandles.identity(Object.class).asType(MethodType.methodType(Object.class, String.class));
+    return TO_LANGO.asType(MethodType.methodType(Object.class, type));
+  }
+
+  /**
+   * Converts a value of unknown type, i.e. a field value.
+   */
+  static Object toJava(Object value, Class<?> type) {
+    try {
+      return toJava(type).asType(MethodType.methodType(Object.class, Object.class)).invokeExact(value);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private static boolean isNull(Object value) {
+    return value == null;
+  }
+
+  private static double toDouble(Object value) {
+    if (!(value instanceof Double))
+      throw new NativeError("Expect a number but got " + describe(value) + ".");
+    return (double) value;
+  }
+
+  private static float toFloat(Object value) {
+    return (float) toDouble(value);
+  }
+
+  private static long toLong(Object value) {
+    double number = toDouble(value);
+    if (number != Math.rint(number) || number >= 0x1p63 || number < -0x1p63)
+      throw new NativeError("Expect an integer but got " + describe(value) + ".");
+    return (long) number;
+  }
+
+  private static int toInt(Object value) {
+    double number = toDouble(value);
+    if ((int) number != number)
+      throw new NativeError("Expect a 32-bit integer but got " + describe(value) + ".");
+    return (int) number;
+  }
+
+  private static short toShort(Object value) {
+    int number = toInt(value);
+    if ((short) number != number)
+      throw new NativeError("Expect a 16-bit integer but got " + describe(value) + ".");
+    return (short) number;
+  }
+
+  private static byte toByte(Object value) {
+    int number = toInt(value);
+    if ((byte) number != number)
+      throw new NativeError("Expect an 8-bit integer but got " + describe(value) + ".");
+    return (byte) number;
+  }
+
+  private static char toChar(Object value) {
+    if (!LangoRope.isString(value) || ((CharSequence) value).length() != 1)
+      throw new NativeError("Expect a string of one character but got " + describe(value) + ".");
+    return value.toString().charAt(0);
+  }
+
+  private static boolean toBoolean(Object value) {
+    if (!(value instanceof Boolean))
+      throw new NativeError("Expect a boolean but got " + describe(value) + ".");
+    return (boolean) value;
+  }
+
+  private static String toJavaString(Object value) {
+    if (value != null && !LangoRope.isString(value))
+      throw new NativeError("Expect a string but got " + describe(value) + ".");
+    return value == null ? null : value.toString();
+  }
+
+  /**
+   * @return the Java object of a wrapper, the string of a rope, any other value
+   *         as it is.
+   */
+  static Object unwrap(Object value) {
+    if (value instanceof JavaObject)
+      return ((JavaObject) value).target();
+    if (value instanceof JavaClass)
+      return ((JavaClass) value).type();
+    return LangoRope.flatten(value);
+  }
+
+  private static Object fromDouble(double value) {
+    return value;
+  }
+
+  private static Object fromLong(long value) {
+    return (double) value;
+  }
+
+  private static Object fromInt(int value) {
+    return (double) value;
+  }
+
+  private static Object fromChar(char value) {
+    return String.valueOf(value);
+  }
+
+  private static Object fromBoolean(boolean value) {
+    return value;
+  }
+
+  /**
+   * Converts a value returned by Java whose type isn't known statically.
+   */
+  static Object toLango(Object value) {
+    if (value == null || value instanceof Double || value instanceof String || value instanceof Boolean)
+      return value;
+    if (value instanceof Number)
+      return ((Number) value).doubleValue();
+    if (value instanceof Character)
+      return value.toString();
+    if (value instanceof Class)
+      return new JavaClass((Class<?>) value);
+    if (isLangoValue(value))
+      return value;
+    return new JavaObject(value);
+  }
+
+  /**
+   * @return whether a value is one of the interpreter's own, handed to Java
+   *         and back, which is returned as it is instead of being wrapped.
+   */
+  private static boolean isLangoValue(Object value) {
+    return value instanceof LangoArray || value instanceof LangoMap || value instanceof LangoCallable
+        || value instanceof LangoInstance || value instanceof LangoGenerator || value instanceof LangoActor
+        || value instanceof LangoChannel || value instanceof LangoFuture || value instanceof LangoFile
+        || value instanceof JsonReader;
+  }
+
+  private static String describe(Object value) {
+    return Interpreter.stringify(value);
+  }
+}
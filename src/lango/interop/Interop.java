@@ -0,0 +1,55 @@
+package lango.interop;
+
+import lango.collections.LangoRope;
+import lango.engine.LangoContext;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+
+/**
+ * Lets the scripts of a context use Java classes and objects.
+ *
+ * It's not installed by default: a script that can reach Java can do anything
+ * the host can, so a host opts in for the contexts it trusts.
+ */
+public final class Interop {
+  private Interop() {
+  }
+
+  /**
+   * Defines {@code javaClass(name)}, which returns the public Java class of
+   * the given binary name.
+   */
+  public static void install(LangoContext context) {
+    context.define("javaClass", new NativeFunction("javaClass", 1, (evaluator, arguments) -> {
+      Object name = arguments.get(0);
+      if (!LangoRope.isString(name))
+        throw new NativeError("Argument of 'javaClass' must be the name of a class.");
+
+      Class<?> type;
+      try {
+        type = Class.forName(name.toString());
+      } catch (ClassNotFoundException | LinkageError e) {
+        throw new NativeError("Could not load Java class '" + name + "': " + e + ".");
+      }
+      if (!JavaMembers.isAccessible(type))
+        throw new NativeError("Java class '" + name + "' isn't public.");
+      return new JavaClass(type);
+    }));
+  }
+
+  /**
+   * Converts a Java value for a script, i.e. to define it in a context: numbers
+   * become Lango numbers and objects are wrapped, so scripts can call their
+   * methods.
+   */
+  public static Object wrap(Object value) {
+    return Conversions.toLango(value);
+  }
+
+  /**
+   * @return the Java object of a value returned by a script, unwrapped.
+   */
+  public static Object unwrap(Object value) {
+    return Conversions.unwrap(value);
+  }
+}
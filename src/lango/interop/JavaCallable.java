@@ -0,0 +1,18 @@
+package lango.interop;
+
+import lango.functions.LangoCallable;
+
+/**
+ * A Java method or constructor. It takes any number of arguments, the
+ * overload is picked by them.
+ */
+public interface JavaCallable extends LangoCallable {
+
+  /**
+   * @return -1, the arguments are checked against the overloads instead.
+   */
+  @Override
+  default int arity() {
+    return -1;
+  }
+}
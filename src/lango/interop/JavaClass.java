@@ -0,0 +1,70 @@
+package lango.interop;
+
+import java.util.List;
+
+import lango.functions.NativeError;
+import lango.interpreter.Evaluator;
+import lango.parser.RuntimeError;
+import lango.scanner.Token;
+
+/**
+ * A Java class handed to a script. Its public static fields and methods are
+ * properties, and calling it calls a public constructor.
+ */
+public final class JavaClass implements JavaValue, JavaCallable {
+  private final Class<?> type;
+
+  JavaClass(Class<?> type) {
+    this.type = type;
+  }
+
+  public Class<?> type() {
+    return type;
+  }
+
+  @Override
+  public Object get(Token name) {
+    JavaMembers members = JavaMembers.of(type);
+
+    JavaMembers.FieldAccess field = members.staticField(name.lexeme);
+    if (field != null)
+      return field.get(name, null);
+
+    OverloadSet method = members.staticMethod(name.lexeme);
+    if (method != null)
+      return new JavaMethod(method, null);
+
+    throw new RuntimeError(name, "Undefined static member '" + name.lexeme + "' of " + type.getName() + ".");
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    JavaMembers.FieldAccess field = JavaMembers.of(type).staticField(name.lexeme);
+    if (field == null)
+      throw new RuntimeError(name, "Undefined static field '" + name.lexeme + "' of " + type.getName() + ".");
+    field.set(name, null, value);
+  }
+
+  @Override
+  public Object call(Evaluator evaluator, List<Object> arguments) {
+    OverloadSet constructors = JavaMembers.of(type).constructors();
+    if (constructors == null)
+      throw new NativeError("Class " + type.getName() + " has no public constructor.");
+    return constructors.invoke(null, arguments);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof JavaClass && type == ((JavaClass) other).type;
+  }
+
+  @Override
+  public int hashCode() {
+    return type.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return "<java class " + type.getName() + ">";
+  }
+}
@@ -0,0 +1,252 @@
+package lango.interop;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import lango.functions.NativeError;
+import lango.parser.RuntimeError;
+import lango.scanner.Token;
+
+/**
+ * The public members of a Java class that scripts can use: fields, methods by
+ * name and constructors, looked up once per class.
+ *
+ * An object may be of a class that isn't accessible (i.e. the class of
+ * {@code List.of()}), its methods are then reached through the accessible
+ * classes and interfaces it extends, like Java code would do.
+ */
+final class JavaMembers {
+  private static final ClassValue<JavaMembers> MEMBERS = new ClassValue<>() {
+    @Override
+    protected JavaMembers computeValue(Class<?> type) {
+      return new JavaMembers(type);
+    }
+  };
+
+  /**
+   * Reads or writes a field of an object, converting its value.
+   */
+  static final class FieldAccess {
+    final String name;
+
+    /**
+     * (receiver) -> Object for an instance field, () -> Object for a static one.
+     */
+    final MethodHandle getter;
+
+    /**
+     * Takes the receiver and the value for an instance field, only the value
+     * for a static one, null if the field is final.
+     */
+    final MethodHandle setter;
+    final Class<?> type;
+    final boolean isStatic;
+
+    private FieldAccess(Class<?> owner, Field field) throws ReflectiveOperationException {
+      MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+      this.name = field.getName();
+      this.type = field.getType();
+      this.isStatic = Modifier.isStatic(field.getModifiers());
+
+      MethodHandle get = isStatic ? lookup.findStaticGetter(owner, name, type) : lookup.findGetter(owner, name, type);
+      this.getter = MethodHandles.filterReturnValue(get, Conversions.toLango(type)).asType(
+          isStatic ? MethodType.methodType(Object.class) : MethodType.methodType(Object.class, Object.class));
+
+      if (Modifier.isFinal(field.getModifiers())) {
+        this.setter = null;
+      } else {
+        MethodHandle set = isStatic ? lookup.findStaticSetter(owner, name, type) : lookup.findSetter(owner, name, type);
+        this.setter = set.asType(set.type().generic());
+      }
+    }
+
+    /**
+     * @param receiver the object, ignored for a static field.
+     */
+    Object get(Token token, Object receiver) {
+      try {
+        return isStatic ? (Object) getter.invokeExact() : (Object) getter.invokeExact(receiver);
+      } catch (Throwable e) {
+        throw new RuntimeError(token, "Could not read field '" + name + "': " + e + ".");
+      }
+    }
+
+    /**
+     * @param receiver the object, ignored for a static field.
+     */
+    void set(Token token, Object receiver, Object value) {
+      if (setter == null)
+        throw new RuntimeError(token, "Field '" + name + "' is final.");
+
+      Object converted;
+      try {
+        converted = Conversions.toJava(value, type);
+      } catch (NativeError error) {
+        throw new RuntimeError(token, error.getMessage());
+      }
+      try {
+        if (isStatic) {
+          setter.invoke(converted);
+        } else {
+          setter.invoke(receiver, converted);
+        }
+      } catch (Throwable e) {
+        throw new RuntimeError(token, "Could not write field '" + name + "': " + e + ".");
+      }
+    }
+  }
+
+  private final Map<String, FieldAccess> fields = new HashMap<>();
+  private final Map<String, FieldAccess> staticFields = new HashMap<>();
+  private final Map<String, OverloadSet> methods = new HashMap<>();
+  private final Map<String, OverloadSet> staticMethods = new HashMap<>();
+  private final OverloadSet constructors;
+
+  private JavaMembers(Class<?> type) {
+    Map<String, List<Executable>> methodsByName = new LinkedHashMap<>();
+    Map<String, List<Class<?>>> ownersByName = new HashMap<>();
+    Set<String> signatures = new HashSet<>();
+
+    // The most specific accessible type declaring a method reaches it.
+    for (Class<?> owner : accessibleSupertypes(type)) {
+      for (Method method : owner.getMethods()) {
+        if (Modifier.isStatic(method.getModifiers()) || method.isBridge())
+          continue;
+        if (signatures.add(method.getName() + Arrays.toString(method.getParameterTypes()))) {
+          methodsByName.computeIfAbsent(method.getName(), name -> new ArrayList<>()).add(method);
+          ownersByName.computeIfAbsent(method.getName(), name -> new ArrayList<>()).add(owner);
+        }
+      }
+      for (Field field : owner.getFields()) {
+        if (!Modifier.isStatic(field.getModifiers()) && !fields.containsKey(field.getName())) {
+          addField(fields, owner, field);
+        }
+      }
+    }
+    methodsByName.forEach((name, overloads) ->
+        methods.put(name, new OverloadSet(name, overloads, ownersByName.get(name))));
+
+    if (!isAccessible(type)) {
+      constructors = null;
+      return;
+    }
+
+    Map<String, List<Executable>> staticsByName = new LinkedHashMap<>();
+    for (Method method : type.getMethods()) {
+      if (Modifier.isStatic(method.getModifiers())) {
+        staticsByName.computeIfAbsent(method.getName(), name -> new ArrayList<>()).add(method);
+      }
+    }
+    staticsByName.forEach((name, overloads) ->
+        staticMethods.put(name, new OverloadSet(name, overloads, ownersOf(type, overloads.size()))));
+
+    for (Field field : type.getFields()) {
+      if (Modifier.isStatic(field.getModifiers())) {
+        addField(staticFields, type, field);
+      }
+    }
+
+    List<Executable> publicConstructors = new ArrayList<>();
+    if (!Modifier.isAbstract(type.getModifiers())) {
+      for (Constructor<?> constructor : type.getConstructors()) {
+        publicConstructors.add(constructor);
+      }
+    }
+    constructors = publicConstructors.isEmpty() ? null
+        : new OverloadSet("<init>", publicConstructors, ownersOf(type, publicConstructors.size()));
+  }
+
+  static JavaMembers of(Class<?> type) {
+    return MEMBERS.get(type);
+  }
+
+  FieldAccess field(String name) {
+    return fields.get(name);
+  }
+
+  FieldAccess staticField(String name) {
+    return staticFields.get(name);
+  }
+
+  OverloadSet method(String name) {
+    return methods.get(name);
+  }
+
+  OverloadSet staticMethod(String name) {
+    return staticMethods.get(name);
+  }
+
+  /**
+   * @return the public constructors, null if there are none.
+   */
+  OverloadSet constructors() {
+    return constructors;
+  }
+
+  /**
+   * Whether code outside the class's module can use it: it's public and its
+   * package is exported.
+   */
+  static boolean isAccessible(Class<?> type) {
+    return Modifier.isPublic(type.getModifiers()) && type.getModule().isExported(type.getPackageName());
+  }
+
+  /**
+   * @return the type, its superclasses and the interfaces they implement that
+   *         are accessible, the most specific first.
+   */
+  private static List<Class<?>> accessibleSupertypes(Class<?> type) {
+    List<Class<?>> supertypes = new ArrayList<>();
+    Set<Class<?>> seen = new HashSet<>();
+    Deque<Class<?>> pending = new ArrayDeque<>();
+
+    for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+      pending.add(c);
+    }
+    while (!pending.isEmpty()) {
+      Class<?> c = pending.poll();
+      if (!seen.add(c))
+        continue;
+      if (isAccessible(c)) {
+        supertypes.add(c);
+      }
+      pending.addAll(Arrays.asList(c.getInterfaces()));
+    }
+    if (type.isInterface()) {
+      supertypes.add(Object.class);
+    }
+    return supertypes;
+  }
+
+  private static void addField(Map<String, FieldAccess> fields, Class<?> owner, Field field) {
+    try {
+      fields.put(field.getName(), new FieldAccess(owner, field));
+    } catch (ReflectiveOperationException e) {
+      // Not reachable through the public lookup, scripts don't see it.
+    }
+  }
+
+  private static List<Class<?>> ownersOf(Class<?> type, int count) {
+    List<Class<?>> owners = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      owners.add(type);
+    }
+    return owners;
+  }
+}
@@ -0,0 +1,32 @@
+package lango.interop;
+
+import java.util.List;
+
+import lango.interpreter.Evaluator;
+
+/**
+ * The methods of a Java object sharing a name, bound to the object.
+ */
+public final class JavaMethod implements JavaCallable {
+  private final OverloadSet overloads;
+
+  /**
+   * The object, null for a static method.
+   */
+  private final Object receiver;
+
+  JavaMethod(OverloadSet overloads, Object receiver) {
+    this.overloads = overloads;
+    this.receiver = receiver;
+  }
+
+  @Override
+  public Object call(Evaluator evaluator, List<Object> arguments) {
+    return overloads.invoke(receiver, arguments);
+  }
+
+  @Override
+  public String toString() {
+    return "<java method " + overloads.name() + ">";
+  }
+}
@@ -0,0 +1,58 @@
+package lango.interop;
+
+import lango.parser.RuntimeError;
+import lango.scanner.Token;
+
+/**
+ * A Java object handed to a script. Its public fields and methods are
+ * properties; it's printed and compared like the object itself.
+ */
+public final class JavaObject implements JavaValue {
+  private final Object target;
+
+  JavaObject(Object target) {
+    this.target = target;
+  }
+
+  public Object target() {
+    return target;
+  }
+
+  @Override
+  public Object get(Token name) {
+    JavaMembers members = JavaMembers.of(target.getClass());
+
+    JavaMembers.FieldAccess field = members.field(name.lexeme);
+    if (field != null)
+      return field.get(name, target);
+
+    OverloadSet method = members.method(name.lexeme);
+    if (method != null)
+      return new JavaMethod(method, target);
+
+    throw new RuntimeError(name, "Undefined property '" + name.lexeme + "'.");
+  }
+
+  @Override
+  public void set(Token name, Object value) {
+    JavaMembers.FieldAccess field = JavaMembers.of(target.getClass()).field(name.lexeme);
+    if (field == null)
+      throw new RuntimeError(name, "Undefined field '" + name.lexeme + "'.");
+    field.set(name, target, value);
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof JavaObject && target.equals(((JavaObject) other).target);
+  }
+
+  @Override
+  public int hashCode() {
+    return target.hashCode();
+  }
+
+  @Override
+  public String toString() {
+    return String.valueOf(target);
+  }
+}
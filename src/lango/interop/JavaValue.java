@@ -0,0 +1,18 @@
+package lango.interop;
+
+import lango.scanner.Token;
+
+/**
+ * A Java object or class seen by scripts, whose public members are read and
+ * written with the property syntax, like the fields of an instance.
+ */
+public interface JavaValue {
+
+  /**
+   * @return the value of a field, or a method bound to the value.
+   * @throws lango.parser.RuntimeError if there's no such member.
+   */
+  Object get(Token name);
+
+  void set(Token name, Object value);
+}
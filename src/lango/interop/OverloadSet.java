@@ -0,0 +1,230 @@
+package lango.interop;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import lango.functions.NativeError;
+import lango.interpreter.ScriptInterruptedException;
+import lango.parser.RuntimeError;
+
+/**
+ * The public methods of a class sharing a name, or its public constructors,
+ * one of which is picked for each call by the number and the types of the
+ * arguments: the one whose parameters take them with the fewest conversions.
+ *
+ * The set keeps its last picks (see {@link Pick}) by the classes of the
+ * arguments, a few of them so a method called with different types in
+ * different places isn't resolved again on each call. The handle of each
+ * overload, with its conversions, is also built once.
+ */
+final class OverloadSet {
+  private final String name;
+  private final Executable[] overloads;
+
+  /**
+   * The accessible type each overload is looked up in.
+   */
+  private final Class<?>[] owners;
+
+  /**
+   * The adapted handles of the overloads, built on first use. Those collecting
+   * variable arguments are built for each number of arguments instead.
+   */
+  private final AtomicReferenceArray<MethodHandle> handles;
+
+  /**
+   * How many picks are kept.
+   */
+  private static final int MAX_PICKS = 8;
+
+  /**
+   * The last picks, the most recent first. Replaced as a whole, so it's read
+   * without locking; picks lost by racing calls are just made again.
+   */
+  private volatile Pick[] picks = new Pick[0];
+
+  OverloadSet(String name, List<Executable> overloads, List<Class<?>> owners) {
+    this.name = name;
+    this.overloads = overloads.toArray(new Executable[0]);
+    this.owners = owners.toArray(new Class<?>[0]);
+    this.handles = new AtomicReferenceArray<>(this.overloads.length);
+  }
+
+  String name() {
+    return name;
+  }
+
+  /**
+   * Calls the overload fitting the arguments.
+   *
+   * @param receiver the object of an instance method, ignored otherwise.
+   * @throws NativeError if no overload fits or the Java code throws.
+   */
+  Object invoke(Object receiver, List<Object> arguments) {
+    Object[] values = arguments.toArray();
+    Pick pick = pick(values);
+
+    try {
+      return (Object) pick.handle.invokeExact(receiver, values);
+    } catch (NativeError | RuntimeError | ScriptInterruptedException e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new NativeError("Java " + describe() + " threw " + e + ".");
+    }
+  }
+
+  /**
+   * @return the pick made for the classes of the arguments, made now if it's
+   *         not kept.
+   */
+  private Pick pick(Object[] arguments) {
+    Pick[] kept = picks;
+    for (Pick pick : kept) {
+      if (pick.matches(arguments))
+        return pick;
+    }
+
+    Pick pick = new Pick(arguments, resolve(arguments));
+    Pick[] updated = new Pick[Math.min(kept.length + 1, MAX_PICKS)];
+    updated[0] = pick;
+    System.arraycopy(kept, 0, updated, 1, updated.length - 1);
+    picks = updated;
+    return pick;
+  }
+
+  /**
+   * @return the handle of the overload with the lowest total cost for the
+   *         arguments, the first one found on a tie.
+   */
+  private MethodHandle resolve(Object[] arguments) {
+    int best = -1;
+    boolean bestCollects = false;
+    int bestCost = Integer.MAX_VALUE;
+
+    for (int i = 0; i < overloads.length; i++) {
+      int cost = cost(overloads[i], arguments, false);
+      boolean collects = false;
+      if (cost < 0 && overloads[i].isVarArgs()) {
+        cost = cost(overloads[i], arguments, true);
+        collects = true;
+      }
+      if (cost >= 0 && cost < bestCost) {
+        best = i;
+        bestCollects = collects;
+        bestCost = cost;
+      }
+    }
+
+    if (best < 0)
+      throw new NativeError("No " + describe() + " takes these " + arguments.length + " arguments.");
+    if (bestCollects)
+      return adapt(overloads[best], owners[best], arguments.length);
+
+    MethodHandle handle = handles.get(best);
+    if (handle == null) {
+      handle = adapt(overloads[best], owners[best], -1);
+      handles.compareAndSet(best, null, handle);
+    }
+    return handle;
+  }
+
+  /**
+   * @param collects whether the trailing arguments are collected into the
+   *                 array of a variable arity overload.
+   * @return the cost of passing the arguments to an overload, -1 if it can't
+   *         take them.
+   */
+  private static int cost(Executable overload, Object[] arguments, boolean collects) {
+    Class<?>[] types = overload.getParameterTypes();
+    int fixed = collects ? types.length - 1 : types.length;
+    if (collects ? arguments.length < fixed : arguments.length != fixed)
+      return -1;
+
+    // Collecting costs more than an overload taking the arguments as they are.
+    int total = collects ? 1 : 0;
+    for (int i = 0; i < arguments.length; i++) {
+      Class<?> type = i < fixed ? types[i] : types[fixed].getComponentType();
+      int cost = Conversions.cost(type, arguments[i]);
+      if (cost < 0)
+        return -1;
+      total += cost;
+    }
+    return total;
+  }
+
+  /**
+   * Makes the handle of an overload taking the receiver and the Lango values of
+   * the arguments in an array, and returning a Lango value.
+   *
+   * @param arguments the number of arguments to collect the trailing ones of
+   *                  into the variable arity array, -1 to take the parameters
+   *                  as they are.
+   */
+  private static MethodHandle adapt(Executable overload, Class<?> owner, int arguments) {
+    MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+    boolean isConstructor = !(overload instanceof Method);
+    boolean isStatic = isConstructor || Modifier.isStatic(overload.getModifiers());
+
+    MethodHandle handle;
+    try {
+      if (isConstructor) {
+        handle = lookup.findConstructor(owner, MethodType.methodType(void.class, overload.getParameterTypes()));
+      } else {
+        MethodType type = MethodType.methodType(((Method) overload).getReturnType(), overload.getParameterTypes());
+        handle = isStatic ? lookup.findStatic(owner, overload.getName(), type)
+            : lookup.findVirtual(owner, overload.getName(), type);
+      }
+    } catch (ReflectiveOperationException e) {
+      throw new NativeError("Can't access " + overload + ".");
+    }
+
+    int offset = isStatic ? 0 : 1;
+    if (arguments >= 0) {
+      Class<?>[] types = overload.getParameterTypes();
+      handle = handle.asCollector(types[types.length - 1], arguments - types.length + 1);
+    } else {
+      handle = handle.asFixedArity();
+    }
+
+    // Convert each argument from its Lango value.
+    List<Class<?>> types = handle.type().parameterList();
+    MethodHandle[] converters = new MethodHandle[types.size() - offset];
+    for (int i = 0; i < converters.length; i++) {
+      converters[i] = Conversions.toJava(types.get(i + offset));
+    }
+    handle = MethodHandles.filterArguments(handle, offset, converters);
+
+    // Convert the result to a Lango value, nil for void.
+    Class<?> result = handle.type().returnType();
+    if (result == void.class) {
+      MethodHandle nil = MethodHandles.dropArguments(MethodHandles.constant(Object.class, null), 0,
+          handle.type().parameterList());
+      handle = MethodHandles.foldArguments(nil, handle);
+    } else {
+      handle = MethodHandles.filterReturnValue(handle, Conversions.toLango(result));
+    }
+
+    // (receiver, Object...) -> Object
+    if (isStatic) {
+      handle = MethodHandles.dropArguments(handle, 0, Object.class);
+    }
+    return handle.asType(handle.type().generic())
+        .asSpreader(Object[].class, converters.length);
+  }
+
+  private String describe() {
+    Class<?> owner = overloads[0].getDeclaringClass();
+    return name.equals("<init>") ? "constructor of " + owner.getName() : "method " + owner.getName() + "." + name;
+  }
+
+  @Override
+  public String toString() {
+    return "<java " + describe() + ">";
+  }
+}
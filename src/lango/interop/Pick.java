@@ -0,0 +1,58 @@
+package lango.interop;
+
+import java.lang.invoke.MethodHandle;
+
+import lango.collections.LangoRope;
+
+/**
+ * An overload picked for the classes of some arguments, with its handle: the
+ * conversions of the arguments and of the result are built in. Following calls
+ * with the same argument classes skip the resolution and invoke the handle
+ * straight away.
+ *
+ * A pick is immutable, so it may be shared by threads.
+ */
+final class Pick {
+  private final Class<?>[] argumentClasses;
+
+  /**
+   * Takes the receiver (ignored by static methods and constructors) and the
+   * arguments as Lango values, returns a Lango value.
+   */
+  final MethodHandle handle;
+
+  Pick(Object[] arguments, MethodHandle handle) {
+    this.argumentClasses = new Class<?>[arguments.length];
+    for (int i = 0; i < arguments.length; i++) {
+      argumentClasses[i] = classOf(arguments[i]);
+    }
+    this.handle = handle;
+  }
+
+  /**
+   * @return whether the pick was made for the classes of these arguments.
+   */
+  boolean matches(Object[] arguments) {
+    if (arguments.length != argumentClasses.length)
+      return false;
+    for (int i = 0; i < arguments.length; i++) {
+      if (classOf(arguments[i]) != argumentClasses[i])
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * @return the class an overload was picked for: the class of the wrapped
+   *         object for a Java object, null for nil.
+   */
+  private static Class<?> classOf(Object value) {
+    if (value == null)
+      return null;
+    if (value instanceof JavaObject)
+      return ((JavaObject) value).target().getClass();
+    if (value instanceof LangoRope)
+      return String.class;
+    return value.getClass();
+  }
+}
@@ -0,0 +1,607 @@
+package lango.interpreter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import lango.Environment;
+import lango.GlobalEnvironment;
+import lango.classes.LangoClass;
+import lango.collections.LangoArray;
+import lango.collections.LangoMap;
+import lango.collections.LangoRope;
+import lango.classes.LangoInstance;
+import lango.Return;
+import lango.Break;
+import lango.astNodes.Expr;
+import lango.functions.LangoCallable;
+import lango.functions.LangoFunction;
+import lango.functions.NativeError;
+import lango.interop.JavaValue;
+import lango.astNodes.Stmt;
+import lango.astNodes.Expr.*;
+import lango.astNodes.Stmt.*;
+import lango.parser.*;
+import lango.scanner.Token;
+import lango.scanner.TokenType;
+
+/**
+ * Walks the syntax tree on behalf of an {@link Interpreter}, on a single
+ * thread.
+ * 
+ * The current scope changes as blocks and calls are entered, so it's kept
+ * here, not in the interpreter: each thread running code of an interpreter
+ * does it with an evaluator of its own, and passes it along to the functions
+ * it calls. Evaluators are cheap, one is created per entry into the
+ * interpreter.
+ */
+public class Evaluator implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
+
+  /**
+   * The generator whose body an evaluator runs.
+   */
+  public interface Generator {
+    /**
+     * Hands a value to the caller of the generator and waits to be resumed.
+     */
+    void yieldValue(Object value);
+  }
+
+  private final Interpreter interpreter;
+
+  /**
+   * The generator this evaluator runs the body of, null otherwise.
+   */
+  private final Generator generator;
+
+  /**
+   * Fixed reference to the outermost global environment, shared with every
+   * evaluator of the interpreter.
+   */
+  private final GlobalEnvironment globals;
+
+  /**
+   * Tracks current environment as it changes when we enter or exit local scopes.
+   */
+  private Environment environment;
+
+  Evaluator(Interpreter interpreter, Generator generator) {
+    this.interpreter = interpreter;
+    this.generator = generator;
+    this.globals = interpreter.globals();
+    this.environment = globals;
+  }
+
+  public Interpreter interpreter() {
+    return interpreter;
+  }
+
+  /**
+   * Throws a {@link ScriptInterruptedException} if the interpreter was asked to
+   * stop, natives that block call it while waiting.
+   */
+  public void checkInterrupted() {
+    interpreter.checkInterrupted();
+  }
+
+  /**
+   * Executes the given statements in the global scope.
+   */
+  void execute(List<Stmt> statements) {
+    for (Stmt statement : statements) {
+      execute(statement);
+    }
+  }
+
+  private void execute(Stmt stmt) {
+    stmt.accept(this);
+  }
+
+  @Override
+  public Object visitBinaryExpr(Binary expr) {
+    Object left = evaluate(expr.left);
+    Object right = evaluate(expr.right);
+
+    switch (expr.operator.type) {
+      case MINUS:
+        checkNumberOperands(expr.operator, right, left);
+        return (double) left - (double) right;
+      case SLASH:
+        checkNumberOperands(expr.operator, right, left);
+        if ((double) right == 0) {
+          throw new RuntimeError(expr.operator, "You can't divide by zero");
+        }
+        return (double) left / (double) right;
+      case STAR:
+        checkNumberOperands(expr.operator, right, left);
+        return (double) left * (double) right;
+      case PLUS:
+        if (LangoRope.isString(left) || LangoRope.isString(right)) {
+          return LangoRope.concat(left, right);
+        }
+        if (left instanceof Double && right instanceof Double) {
+          return (double) left + (double) right;
+        }
+        throw new RuntimeError(expr.operator, "Operands must be two numbers or two strings.");
+      case GREATER:
+        checkNumberOperands(expr.operator, right, left);
+        return (double) left > (double) right;
+      case GREATER_EQUAL:
+        checkNumberOperands(expr.operator, right, left);
+        return (double) left >= (double) right;
+      case LESS:
+        checkNumberOperands(expr.operator, right, left);
+        return (double) left < (double) right;
+      case LESS_EQUAL:
+        checkNumberOperands(expr.operator, right, left);
+        return (double) left <= (double) right;
+      case BANG_EQUAL:
+        return !isEqual(left, right);
+      case EQUAL_EQUAL:
+        return isEqual(left, right);
+      default:
+        break;
+    }
+    return null;
+  }
+
+  @Override
+  public Object visitGroupingExpr(Grouping expr) {
+    return evaluate(expr.expression);
+  }
+
+  @Override
+  public Object visitLiteralExpr(Literal expr) {
+    return expr.value;
+  }
+
+  @Override
+  public Object visitUnaryExpr(Unary expr) {
+    Object right = evaluate(expr.right);
+
+    switch (expr.operator.type) {
+      case BANG:
+        return !isTruthy(right);
+      case MINUS:
+        checkNumberOperand(expr.operator, right);
+        return -(double) right;
+      default:
+        return null;
+
+    }
+  }
+
+  /**
+   * Checks if the operand/s is/are of type double to make sure an mathematical
+   * operation is valid.
+   * 
+   * @param operator
+   * @param operand
+   */
+  private void checkNumberOperand(Token operator, Object operand) {
+    if (operand instanceof Double)
+      return;
+    throw new RuntimeError(operator, "Operand must be a number.");
+  }
+
+  private void checkNumberOperands(Token operator, Object right, Object left) {
+    if (right instanceof Double && left instanceof Double)
+      return;
+    throw new RuntimeError(operator, "Operands must be numbers.");
+  }
+
+  private Object evaluate(Expr expr) {
+    return expr.accept(this);
+  }
+
+  private boolean isEqual(Object a, Object b) {
+    if (a == null && b == null)
+      return true;
+    if (a == null)
+      return false;
+
+    return LangoRope.flatten(a).equals(LangoRope.flatten(b));
+  }
+
+  /**
+   * Checks if the [object] is truthful.
+   * 
+   * Note that only 'false' and 'nil' are falsy values
+   * 
+   * @param object
+   * @return
+   */
+  private boolean isTruthy(Object object) {
+    if (object == null)
+      return false;
+    if (object instanceof Boolean)
+      return (boolean) object;
+
+    return true;
+  }
+
+  @Override
+  public Void visitExpressionStmt(Expression stmt) {
+    evaluate(stmt.expression);
+    return null;
+  }
+
+  @Override
+  public Void visitPrintStmt(Print stmt) {
+    Object value = evaluate(stmt.expression);
+    interpreter.output().println(Interpreter.stringify(value));
+    return null;
+  }
+
+  @Override
+  public Void visitVarStmt(Var stmt) {
+    Object value = null;
+    if (stmt.initializer != null) {
+      value = evaluate(stmt.initializer);
+    }
+
+    environment.define(stmt.name.lexeme, value);
+    return null;
+  }
+
+  @Override
+  public Object visitVariableExpr(Variable expr) {
+    if (expr.depth >= 0) {
+      return environment.getAt(expr.depth, expr.name.lexeme);
+    }
+
+    return globals.slot(expr.global, expr.name).get();
+  }
+
+  /**
+   * Looks up a variable using the distance computed by the resolver.
+   * 
+   * @param name  the variable's name.
+   * @param depth the distance to the variable's scope, -1 for globals.
+   */
+  private Object lookUpVariable(Token name, int depth) {
+    if (depth >= 0) {
+      return environment.getAt(depth, name.lexeme);
+    } else {
+      return globals.get(name);
+    }
+  }
+
+  @Override
+  public Object visitAssignExpr(Assign expr) {
+    Object value = evaluate(expr.value);
+    if (expr.depth >= 0) {
+      environment.assignAt(expr.depth, expr.name, value);
+    } else {
+      globals.slot(expr.global, expr.name).set(value);
+    }
+    /**
+     * Assigned value is returned because assignment is an expression that can be
+     * nested inside other expressions.
+     * 
+     * ```
+     * var a = 4;
+     * print a = 5; // "5"
+     * ```
+     */
+    return value;
+  }
+
+  @Override
+  public Void visitBlockStmt(Block stmt) {
+    executeBlock(stmt.statements, new Environment(environment));
+    return null;
+  }
+
+  @Override
+  public Void visitClassStmt(Stmt.Class stmt) {
+    Object superclass = null;
+    if (stmt.superclass != null) {
+      superclass = evaluate(stmt.superclass);
+      if (!(superclass instanceof LangoClass)) {
+        throw new RuntimeError(stmt.superclass.name,
+            "Superclass must be a class.");
+      }
+    }
+
+    environment.define(stmt.name.lexeme, null);
+
+    if (stmt.superclass != null) {
+      environment = new Environment(environment);
+      environment.define("super", superclass);
+    }
+
+    Map<String, LangoFunction> methods = new HashMap<>();
+    for (Stmt.Function method : stmt.methods) {
+      LangoFunction function = new LangoFunction(method, environment, method.name.lexeme.equals("init"));
+      methods.put(method.name.lexeme, function);
+    }
+
+    LangoClass klass = new LangoClass(stmt.name.lexeme, (LangoClass) superclass, methods);
+
+    if (superclass != null) {
+      environment = environment.enclosing;
+    }
+
+    environment.assign(stmt.name, klass);
+    return null;
+  }
+
+  public void executeBlock(List<Stmt> statements, Environment environment) {
+    Environment previous = this.environment;
+
+    try {
+      this.environment = environment;
+      for (Stmt stmt : statements) {
+        execute(stmt);
+      }
+    } finally {
+      this.environment = previous;
+    }
+  }
+
+  @Override
+  public Void visitIfStmt(If stmt) {
+    if (isTruthy(evaluate(stmt.condition))) {
+      execute(stmt.thenBranch);
+    } else if (!stmt.elseIfBranches.isEmpty()) {
+      for (Elif elseIfStatement : stmt.elseIfBranches) {
+        if (isTruthy(evaluate(elseIfStatement.condition))) {
+          execute(elseIfStatement.body);
+          break;
+        }
+      }
+    } else if (stmt.elseBranch != null) {
+      execute(stmt.elseBranch);
+    }
+
+    return null;
+  }
+
+  @Override
+  public Void visitElifStmt(Elif stmt) {
+    if (isTruthy(stmt.condition))
+      execute(stmt.body);
+    return null;
+  }
+
+  @Override
+  public Object visitLogicalExpr(Logical expr) {
+    Object left = evaluate(expr.left);
+    if (expr.operator.type == TokenType.OR) {
+      if (isTruthy(left))
+        return left;
+    } else {
+      if (!isTruthy(left))
+        return left;
+    }
+
+    return evaluate(expr.right);
+  }
+
+  @Override
+  public Object visitSetExpr(Set expr) {
+    Object object = evaluate(expr.object);
+
+    if (!(object instanceof LangoInstance) && !(object instanceof JavaValue)) {
+      throw new RuntimeError(expr.name,
+          "Only instances have fields.");
+    }
+
+    Object value = evaluate(expr.value);
+
+    if (object instanceof JavaValue) {
+      ((JavaValue) object).set(expr.name, value);
+    } else {
+      ((LangoInstance) object).set(expr.name, value);
+    }
+    return value;
+  }
+
+  @Override
+  public Object visitArrayLiteralExpr(ArrayLiteral expr) {
+    Object[] elements = new Object[expr.elements.size()];
+    for (int i = 0; i < elements.length; i++) {
+      elements[i] = evaluate(expr.elements.get(i));
+    }
+    return new LangoArray(elements);
+  }
+
+  @Override
+  public Object visitMapLiteralExpr(MapLiteral expr) {
+    LangoMap map = new LangoMap();
+    for (int i = 0; i < expr.keys.size(); i++) {
+      Object key = evaluate(expr.keys.get(i));
+      map.put(key, evaluate(expr.values.get(i)));
+    }
+    return map;
+  }
+
+  @Override
+  public Object visitIndexExpr(Index expr) {
+    Object object = evaluate(expr.object);
+    Object index = evaluate(expr.index);
+
+    if (object instanceof LangoArray) {
+      LangoArray array = (LangoArray) object;
+      return array.get(arrayIndex(expr.bracket, array, index));
+    }
+    if (object instanceof LangoMap) {
+      return ((LangoMap) object).get(index);
+    }
+
+    throw new RuntimeError(expr.bracket, "Only arrays and maps can be indexed.");
+  }
+
+  @Override
+  public Object visitIndexSetExpr(IndexSet expr) {
+    Object object = evaluate(expr.object);
+    Object index = evaluate(expr.index);
+
+    if (object instanceof LangoMap) {
+      Object value = evaluate(expr.value);
+      ((LangoMap) object).put(index, value);
+      return value;
+    }
+    if (!(object instanceof LangoArray)) {
+      throw new RuntimeError(expr.bracket, "Only arrays and maps can be indexed.");
+    }
+
+    LangoArray array = (LangoArray) object;
+    int position = arrayIndex(expr.bracket, array, index);
+    Object value = evaluate(expr.value);
+    array.set(position, value);
+    return value;
+  }
+
+  /**
+   * Checks that an index is an integer within the bounds of an array.
+   */
+  private int arrayIndex(Token bracket, LangoArray array, Object index) {
+    if (!(index instanceof Double)) {
+      throw new RuntimeError(bracket, "Array index must be a number.");
+    }
+
+    double value = (double) index;
+    if (value != Math.floor(value)) {
+      throw new RuntimeError(bracket, "Array index must be an integer.");
+    }
+    if (value < 0 || value >= array.size()) {
+      throw new RuntimeError(bracket,
+          "Array index " + Interpreter.stringify(index) + " out of bounds for length " + array.size() + ".");
+    }
+
+    return (int) value;
+  }
+
+  @Override
+  public Object visitSuperExpr(Super expr) {
+    int distance = expr.depth;
+    LangoClass superclass = (LangoClass) environment.getAt(
+        distance, "super");
+
+    LangoInstance object = (LangoInstance) environment.getAt(
+        distance - 1, "this");
+
+    LangoFunction method = superclass.findMethod(expr.method.lexeme);
+
+    if (method == null) {
+      throw new RuntimeError(expr.method,
+          "Undefined property '" + expr.method.lexeme + "'.");
+    }
+
+    return method.bind(object);
+  }
+
+  @Override
+  public Object visitThisExpr(Expr.This expr) {
+    return lookUpVariable(expr.keyword, expr.depth);
+  }
+
+  @Override
+  public Void visitWhileStmt(Stmt.While stmt) {
+    while (isTruthy(evaluate(stmt.condition))) {
+      try {
+        execute(stmt.body);
+      } catch (Break b) {
+        break;
+      }
+      checkInterrupted();
+    }
+    return null;
+  }
+
+  @Override
+  public Object visitCallExpr(Call expr) {
+    Object callee = evaluate(expr.callee);
+
+    List<Object> arguments = new ArrayList<>();
+
+    for (Expr argument : expr.arguments) {
+      arguments.add(evaluate(argument));
+    }
+
+    if (!(callee instanceof LangoCallable)) {
+      throw new RuntimeError(expr.paren, "Can only call functions and classes");
+    }
+
+    LangoCallable function = (LangoCallable) callee;
+
+    if (function.arity() >= 0 && arguments.size() != function.arity()) {
+      throw new RuntimeError(expr.paren, "Expected " +
+          function.arity() + " arguments but got " +
+          arguments.size() + ".");
+    }
+
+    checkInterrupted();
+    try {
+      return function.call(this, arguments);
+    } catch (NativeError error) {
+      throw new RuntimeError(expr.paren, error.getMessage());
+    }
+  }
+
+  @Override
+  public Object visitGetExpr(Get expr) {
+    Object object = evaluate(expr.object);
+
+    if (object instanceof LangoInstance) {
+      return ((LangoInstance) object).get(expr.name);
+    }
+    if (object instanceof JavaValue) {
+      return ((JavaValue) object).get(expr.name);
+    }
+
+    throw new RuntimeError(expr.name, "Only instances have properties.");
+  }
+
+  @Override
+  public Void visitFunctionStmt(Function stmt) {
+    LangoFunction function = new LangoFunction(stmt, environment, false);
+    environment.define(stmt.name.lexeme, function);
+    return null;
+  }
+
+  @Override
+  public Void visitReturnStmt(Stmt.Return stmt) {
+    Object value = null;
+    if (stmt.value != null)
+      value = evaluate(stmt.value);
+
+    throw new Return(value);
+  }
+
+  @Override
+  public Void visitYieldStmt(Stmt.Yield stmt) {
+    Object value = null;
+    if (stmt.value != null)
+      value = evaluate(stmt.value);
+
+    if (generator == null) {
+      throw new RuntimeError(stmt.keyword, "Can only yield from the body of a generator.");
+    }
+
+    checkInterrupted();
+    generator.yieldValue(value);
+    return null;
+  }
+
+  @Override
+  public Void visitBreakStmt(Stmt.Break stmt) {
+    throw new Break();
+  }
+
+  @Override
+  public Void visitImportStmt(Stmt.Import stmt) {
+    interpreter.importModule((String) stmt.path.literal, stmt.keyword);
+    return null;
+  }
+
+  @Override
+  public Object visitAnonymousFuncExpr(AnonymousFunc expr) {
+    Stmt.Function declaration = new Stmt.Function(null, expr.params, expr.body);
+    declaration.isGenerator = expr.isGenerator;
+    return new LangoFunction(declaration, environment, false);
+  }
+}
\ No newline at end of file
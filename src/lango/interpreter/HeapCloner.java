@@ -0,0 +1,151 @@
+package lango.interpreter;
+
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import lango.Environment;
+import lango.GlobalEnvironment;
+import lango.classes.LangoClass;
+import lango.classes.LangoInstance;
+import lango.functions.LangoFunction;
+import lango.collections.LangoArray;
+import lango.collections.LangoMap;
+
+/**
+ * Copies everything reachable from the globals of an interpreter into the
+ * globals of another one, so a context warmed by a prelude (classes, helper
+ * functions, configuration tables) can be cloned instead of running the
+ * prelude again.
+ * 
+ * Scopes, functions (with their closures), classes, instances, arrays and maps
+ * are copied, keeping cycles and shared references, so the two interpreters
+ * never share a mutable value. Values that are immutable or can't be copied
+ * are shared: strings (ropes included), numbers, natives, and the futures,
+ * channels, generators and actors, which stay tied to the code that created
+ * them.
+ * 
+ * The graph is walked with a queue rather than recursion, so long chains of
+ * instances don't overflow the stack.
+ */
+public final class HeapCloner {
+  private final Map<Object, Object> copies = new IdentityHashMap<>();
+
+  /**
+   * The originals whose copies still have to be filled.
+   */
+  private final Deque<Object> pending = new ArrayDeque<>();
+
+  private HeapCloner() {
+  }
+
+  /**
+   * Copies the globals of {@code from} into {@code to}. {@code from} must not
+   * be running meanwhile.
+   */
+  public static void cloneGlobals(GlobalEnvironment from, GlobalEnvironment to) {
+    HeapCloner cloner = new HeapCloner();
+    cloner.copies.put(from, to);
+    cloner.pending.add(from);
+    cloner.drain();
+  }
+
+  /**
+   * Copies the given globals of {@code from} into {@code to}, i.e. those a
+   * module defined. What they reach is copied as by
+   * {@link #cloneGlobals(GlobalEnvironment, GlobalEnvironment)}, except that
+   * the other globals of {@code from} aren't copied. {@code from} must not be
+   * running meanwhile.
+   */
+  public static void copyGlobals(GlobalEnvironment from, GlobalEnvironment to, Collection<String> names) {
+    HeapCloner cloner = new HeapCloner();
+    cloner.copies.put(from, to);
+
+    Set<String> copied = new HashSet<>(names);
+    from.forEach((name, value) -> {
+      if (copied.contains(name)) {
+        to.define(name, cloner.copy(value));
+      }
+    });
+    cloner.drain();
+  }
+
+  private void drain() {
+    while (!pending.isEmpty()) {
+      fill(pending.poll());
+    }
+  }
+
+  /**
+   * @return the copy of a value, created empty when it's first met.
+   */
+  private Object copy(Object value) {
+    if (!(value instanceof Environment || value instanceof LangoFunction || value instanceof LangoClass
+        || value instanceof LangoInstance || value instanceof LangoArray || value instanceof LangoMap)) {
+      return value;
+    }
+
+    Object copy = copies.get(value);
+    if (copy != null)
+      return copy;
+
+    if (value instanceof Environment) {
+      Environment environment = (Environment) value;
+      copy = new Environment((Environment) copy(environment.enclosing));
+      pending.add(value);
+    } else if (value instanceof LangoFunction) {
+      LangoFunction function = (LangoFunction) value;
+      copy = function.withClosure((Environment) copy(function.closure()));
+    } else if (value instanceof LangoClass) {
+      LangoClass klass = (LangoClass) value;
+      Map<String, LangoFunction> methods = new HashMap<>();
+      for (Map.Entry<String, LangoFunction> method : klass.methods().entrySet()) {
+        methods.put(method.getKey(), (LangoFunction) copy(method.getValue()));
+      }
+      copy = new LangoClass(klass.name(), (LangoClass) copy(klass.superclass()), methods);
+    } else if (value instanceof LangoInstance) {
+      copy = ((LangoClass) copy(((LangoInstance) value).klass())).instantiate();
+      pending.add(value);
+    } else if (value instanceof LangoMap) {
+      copy = new LangoMap();
+      pending.add(value);
+    } else if (((LangoArray) value).holdsNumbers()) {
+      copy = ((LangoArray) value).copy();
+    } else {
+      copy = new LangoArray(((LangoArray) value).size());
+      pending.add(value);
+    }
+
+    copies.put(value, copy);
+    return copy;
+  }
+
+  /**
+   * Copies the contents of an original into its copy.
+   */
+  private void fill(Object original) {
+    Object copy = copies.get(original);
+
+    if (original instanceof Environment) {
+      Environment environment = (Environment) copy;
+      ((Environment) original).forEach((name, value) -> environment.define(name, copy(value)));
+    } else if (original instanceof LangoInstance) {
+      LangoInstance instance = (LangoInstance) copy;
+      ((LangoInstance) original).fields().forEach((name, value) -> instance.setField(name, copy(value)));
+    } else if (original instanceof LangoMap) {
+      // A key compared by identity (an instance, an array) is replaced by its
+      // copy, which is as unique in the copied heap.
+      ((LangoMap) original).forEach((key, value) -> ((LangoMap) copy).put(copy(key), copy(value)));
+    } else {
+      LangoArray array = (LangoArray) original;
+      for (int i = 0; i < array.size(); i++) {
+        ((LangoArray) copy).set(i, copy(array.get(i)));
+      }
+    }
+  }
+}
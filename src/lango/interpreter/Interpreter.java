@@ -1,52 +1,177 @@
 package lango.interpreter;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-
-import lango.Environment;
-import lango.classes.LangoClass;
-import lango.classes.LangoInstance;
-import lango.Return;
-import lango.Break;
-import lango.astNodes.Expr;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lango.GlobalEnvironment;
+import lango.GlobalNames;
 import lango.functions.LangoCallable;
-import lango.functions.LangoFunction;
+import lango.functions.NativeFunction;
+import lango.natives.ArrayNatives;
+import lango.natives.ConcurrencyNatives;
+import lango.natives.FileNatives;
+import lango.natives.GeneratorNatives;
+import lango.natives.JsonNatives;
+import lango.natives.MapNatives;
+import lango.natives.ParallelNatives;
+import lango.natives.VectorNatives;
 import lango.astNodes.Stmt;
-import lango.astNodes.Expr.*;
-import lango.astNodes.Stmt.*;
-import lango.main.Lango;
+import lango.diagnostics.ErrorReporter;
+import lango.output.Output;
 import lango.parser.*;
 import lango.scanner.Token;
-import lango.scanner.TokenType;
 
-public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
+/**
+ * Runs Lango code against a set of globals.
+ * 
+ * An interpreter may be entered by several threads at once, i.e. a host
+ * calling Lango callbacks from its own threads: every entry point runs the
+ * code with an {@link Evaluator} of its own, which holds the current scope, so
+ * only the globals are shared. They're held in a concurrent map, a global
+ * defined or assigned by one thread is visible to the threads reading it
+ * afterwards. Arrays, maps and instances are not synchronized.
+ */
+public class Interpreter {
 
   /**
    * Fixed reference to the outermost global environment.
    */
 
-  private final Environment globals = new Environment();
+  private final GlobalEnvironment globals;
+
+  /**
+   * Receives the runtime errors.
+   */
+  private final ErrorReporter reporter;
+
+  /**
+   * Where {@code print} writes.
+   */
+  private final Output output;
+
+  /**
+   * Loads the modules the scripts import, null if they can't import any.
+   */
+  private final ModuleLoader modules;
+
+  /**
+   * The modules whose globals were defined in the globals already, importing
+   * one of them again does nothing.
+   */
+  private final Set<Object> importedModules = ConcurrentHashMap.newKeySet();
 
   /**
-   * Stores the the distance for each expression declared in local scopes.
+   * Why the execution should stop, set from another thread by
+   * {@link #interrupt}. It's checked at loop back-edges and at calls, so a
+   * script can't run forever once it's interrupted.
    */
-  private final Map<Expr, Integer> locals = new HashMap<>();
+  private volatile String interruption = null;
+
+  public Interpreter(ErrorReporter reporter) {
+    this(reporter, Output.stdout());
+  }
+
+  public Interpreter(ErrorReporter reporter, Output output) {
+    this(reporter, output, null);
+  }
+
   /**
-   * Tracks current environment as it changes when we enter or exit local scopes.
+   * @param modules loads the modules the scripts import, may be null.
    */
-  private Environment environment = globals;
+  public Interpreter(ErrorReporter reporter, Output output, ModuleLoader modules) {
+    this(reporter, output, modules, new GlobalNames());
+  }
 
-  public Interpreter() {
+  /**
+   * @param modules loads the modules the scripts import, may be null.
+   * @param names   the table the trees this interpreter runs are resolved
+   *                with, i.e. the one of the engine's front end.
+   */
+  public Interpreter(ErrorReporter reporter, Output output, ModuleLoader modules, GlobalNames names) {
+    this.globals = new GlobalEnvironment(names);
+    this.reporter = reporter;
+    this.output = output;
+    this.modules = modules;
     defineGlobalFunctions();
   }
 
+  /**
+   * Creates an evaluator starting in the global scope, for the current thread
+   * to run code of this interpreter, i.e. a native calling a function on
+   * another thread.
+   */
+  public Evaluator newEvaluator() {
+    return new Evaluator(this, null);
+  }
+
+  /**
+   * Creates an evaluator running the body of a generator, on the generator's
+   * thread.
+   */
+  public Evaluator newEvaluator(Evaluator.Generator generator) {
+    return new Evaluator(this, generator);
+  }
+
+  /**
+   * Asks the interpreter to stop, the running script throws a
+   * {@link ScriptInterruptedException} at its next loop iteration or call.
+   * 
+   * @param reason the message of the exception.
+   */
+  public void interrupt(String reason) {
+    interruption = reason;
+  }
+
+  /**
+   * Throws a {@link ScriptInterruptedException} if the interpreter was asked to
+   * stop, natives that block call it while waiting.
+   */
+  public void checkInterrupted() {
+    String reason = interruption;
+    if (reason != null) {
+      throw new ScriptInterruptedException(reason);
+    }
+  }
+
+  /**
+   * @return the outermost global environment.
+   */
+  public GlobalEnvironment globals() {
+    return globals;
+  }
+
+  public Output output() {
+    return output;
+  }
+
+  public ErrorReporter reporter() {
+    return reporter;
+  }
+
+  /**
+   * Runs an {@code import} statement.
+   */
+  void importModule(String path, Token keyword) {
+    if (modules == null)
+      throw new RuntimeError(keyword, "Can't import modules here.");
+    modules.importModule(path, keyword, this);
+  }
+
+  /**
+   * Records that the globals of a module were defined in the globals.
+   * 
+   * @return false if they were already.
+   */
+  public boolean markImported(Object module) {
+    return importedModules.add(module);
+  }
+
   private void defineGlobalFunctions() {
     globals.define("clock", new LangoCallable() {
 
       @Override
-      public Object call(Interpreter interpreter, List<Object> arguments) {
+      public Object call(Evaluator evaluator, List<Object> arguments) {
         return (double) System.currentTimeMillis() / 1000.0;
       }
 
@@ -64,8 +189,8 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
     globals.define("print", new LangoCallable() {
 
       @Override
-      public Object call(Interpreter interpreter, List<Object> arguments) {
-        System.out.println(arguments.get(0));
+      public Object call(Evaluator evaluator, List<Object> arguments) {
+        output.println(String.valueOf(arguments.get(0)));
         return null;
       }
 
@@ -79,134 +204,59 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
         return "native function";
       }
     });
-  }
-
-  public void interpret(List<Stmt> statements) {
-    try {
-      for (Stmt statement : statements) {
-        execute(statement);
-      }
-    } catch (RuntimeError error) {
-      Lango.runtimeError(error);
-    }
-  }
-
-  private void execute(Stmt stmt) {
-    stmt.accept(this);
-  }
-
-  public void resolve(Expr expr, int depth) {
-    locals.put(expr, depth);
-  }
-
-  @Override
-  public Object visitBinaryExpr(Binary expr) {
-    Object left = evaluate(expr.left);
-    Object right = evaluate(expr.right);
-
-    switch (expr.operator.type) {
-      case MINUS:
-        checkNumberOperands(expr.operator, right, left);
-        return (double) left - (double) right;
-      case SLASH:
-        checkNumberOperands(expr.operator, right, left);
-        if ((double) right == 0) {
-          throw new RuntimeError(expr.operator, "You can't divide by zero");
-        }
-        return (double) left / (double) right;
-      case STAR:
-        checkNumberOperands(expr.operator, right, left);
-        return (double) left * (double) right;
-      case PLUS:
-        if (left instanceof String || right instanceof String) {
-          return stringify(left) + stringify(right);
-
-        }
-        if (left instanceof Double && right instanceof Double) {
-          return (double) left + (double) right;
-        }
-        throw new RuntimeError(expr.operator, "Operands must be two numbers or two strings.");
-      case GREATER:
-        checkNumberOperands(expr.operator, right, left);
-        return (double) left > (double) right;
-      case GREATER_EQUAL:
-        checkNumberOperands(expr.operator, right, left);
-        return (double) left >= (double) right;
-      case LESS:
-        checkNumberOperands(expr.operator, right, left);
-        return (double) left < (double) right;
-      case LESS_EQUAL:
-        checkNumberOperands(expr.operator, right, left);
-        return (double) left <= (double) right;
-      case BANG_EQUAL:
-        return !isEqual(left, right);
-      case EQUAL_EQUAL:
-        return isEqual(left, right);
-      default:
-        break;
-    }
-    return null;
-  }
 
-  @Override
-  public Object visitGroupingExpr(Grouping expr) {
-    return evaluate(expr.expression);
-  }
+    globals.define("flush", new NativeFunction("flush", 0, (evaluator, arguments) -> {
+      output.flush();
+      return null;
+    }));
 
-  @Override
-  public Object visitLiteralExpr(Literal expr) {
-    return expr.value;
+    ArrayNatives.define(globals);
+    MapNatives.define(globals);
+    GeneratorNatives.define(globals);
+    ConcurrencyNatives.define(globals);
+    ParallelNatives.define(globals);
+    FileNatives.define(globals);
+    JsonNatives.define(globals);
+    VectorNatives.define(globals);
   }
 
-  @Override
-  public Object visitUnaryExpr(Unary expr) {
-    Object right = evaluate(expr.right);
-
-    switch (expr.operator.type) {
-      case BANG:
-        return !isTruthy(right);
-      case MINUS:
-        checkNumberOperand(expr.operator, right);
-        return -(double) right;
-      default:
-        return null;
-
+  /**
+   * Executes the given statements, stopping at the first runtime error.
+   * 
+   * @return false if a runtime error occurred.
+   */
+  public boolean interpret(List<Stmt> statements) {
+    try {
+      run(statements);
+      return true;
+    } catch (RuntimeError error) {
+      // What was printed before the error shows up before it.
+      output.flush();
+      reporter.runtimeError(error);
+      return false;
     }
   }
 
   /**
-   * Checks if the operand/s is/are of type double to make sure an mathematical
-   * operation is valid.
+   * Executes the given statements, leaving a runtime error to the caller.
    * 
-   * @param operator
-   * @param operand
+   * @throws RuntimeError if the execution fails.
    */
-  private void checkNumberOperand(Token operator, Object operand) {
-    if (operand instanceof Double)
-      return;
-    throw new RuntimeError(operator, "Operand must be a number.");
-  }
-
-  private void checkNumberOperands(Token operator, Object right, Object left) {
-    if (right instanceof Double && left instanceof Double)
-      return;
-    throw new RuntimeError(operator, "Operands must be numbers.");
-  }
-
-  private Object evaluate(Expr expr) {
-    return expr.accept(this);
+  public void run(List<Stmt> statements) {
+    newEvaluator().execute(statements);
   }
 
-  private boolean isEqual(Object a, Object b) {
-    if (a == null && b == null)
-      return true;
-    if (a == null)
-      return false;
-
-    return a.equals(b);
+  /**
+   * Calls a function, class or native on the current thread.
+   * 
+   * @param arguments as many as the callable's arity.
+   * @throws RuntimeError if the call fails.
+   */
+  public Object call(LangoCallable callable, List<Object> arguments) {
+    return callable.call(newEvaluator(), arguments);
   }
 
-  private String stringify(Object object) {
+  public static String stringify(Object object) {
     if (object == null)
       return "nil";
 
@@ -221,284 +271,4 @@ public class Interpreter implements Expr.Visitor<Object>, Stmt.Visitor<Void> {
 
     return object.toString();
   }
-
-  /**
-   * Checks if the [object] is truthful.
-   * 
-   * Note that only 'false' and 'nil' are falsy values
-   * 
-   * @param object
-   * @return
-   */
-  private boolean isTruthy(Object object) {
-    if (object == null)
-      return false;
-    if (object instanceof Boolean)
-      return (boolean) object;
-
-    return true;
-  }
-
-  @Override
-  public Void visitExpressionStmt(Expression stmt) {
-    evaluate(stmt.expression);
-    return null;
-  }
-
-  @Override
-  public Void visitPrintStmt(Print stmt) {
-    Object value = evaluate(stmt.expression);
-    System.out.println(stringify(value));
-    return null;
-  }
-
-  @Override
-  public Void visitVarStmt(Var stmt) {
-    Object value = null;
-    if (stmt.initializer != null) {
-      value = evaluate(stmt.initializer);
-    }
-
-    environment.define(stmt.name.lexeme, value);
-    return null;
-  }
-
-  @Override
-  public Object visitVariableExpr(Variable expr) {
-    return lookUpVariable(expr.name, expr);
-  }
-
-  private Object lookUpVariable(Token name, Expr expr) {
-    Integer distance = locals.get(expr);
-    if (distance != null) {
-      return environment.getAt(distance, name.lexeme);
-    } else {
-      return globals.get(name);
-    }
-  }
-
-  @Override
-  public Object visitAssignExpr(Assign expr) {
-    Object value = evaluate(expr.value);
-    Integer distance = locals.get(expr);
-    if (distance != null) {
-      environment.assignAt(distance, expr.name, value);
-    } else {
-      globals.assign(expr.name, value);
-    }
-    /**
-     * Assigned value is returned because assignment is an expression that can be
-     * nested inside other expressions.
-     * 
-     * ```
-     * var a = 4;
-     * print a = 5; // "5"
-     * ```
-     */
-    return value;
-  }
-
-  @Override
-  public Void visitBlockStmt(Block stmt) {
-    executeBlock(stmt.statements, new Environment(environment));
-    return null;
-  }
-
-  @Override
-  public Void visitClassStmt(Stmt.Class stmt) {
-    Object superclass = null;
-    if (stmt.superclass != null) {
-      superclass = evaluate(stmt.superclass);
-      if (!(superclass instanceof LangoClass)) {
-        throw new RuntimeError(stmt.superclass.name,
-            "Superclass must be a class.");
-      }
-    }
-
-    environment.define(stmt.name.lexeme, null);
-
-    if (stmt.superclass != null) {
-      environment = new Environment(environment);
-      environment.define("super", superclass);
-    }
-
-    Map<String, LangoFunction> methods = new HashMap<>();
-    for (Stmt.Function method : stmt.methods) {
-      LangoFunction function = new LangoFunction(method, environment, method.name.lexeme.equals("init"));
-      methods.put(method.name.lexeme, function);
-    }
-
-    LangoClass klass = new LangoClass(stmt.name.lexeme, (LangoClass) superclass, methods);
-
-    if (superclass != null) {
-      environment = environment.enclosing;
-    }
-
-    environment.assign(stmt.name, klass);
-    return null;
-  }
-
-  public void executeBlock(List<Stmt> statements, Environment environment) {
-    Environment previous = this.environment;
-
-    try {
-      this.environment = environment;
-      for (Stmt stmt : statements) {
-        execute(stmt);
-      }
-    } finally {
-      this.environment = previous;
-    }
-  }
-
-  @Override
-  public Void visitIfStmt(If stmt) {
-    if (isTruthy(evaluate(stmt.condition))) {
-      execute(stmt.thenBranch);
-    } else if (!stmt.elseIfBranches.isEmpty()) {
-      for (Elif elseIfStatement : stmt.elseIfBranches) {
-        if (isTruthy(evaluate(elseIfStatement.condition))) {
-          execute(elseIfStatement.body);
-          break;
-        }
-      }
-    } else if (stmt.elseBranch != null) {
-      execute(stmt.elseBranch);
-    }
-
-    return null;
-  }
-
-  @Override
-  public Void visitElifStmt(Elif stmt) {
-    if (isTruthy(stmt.condition))
-      execute(stmt.body);
-    return null;
-  }
-
-  @Override
-  public Object visitLogicalExpr(Logical expr) {
-    Object left = evaluate(expr.left);
-    if (expr.operator.type == TokenType.OR) {
-      if (isTruthy(left))
-        return left;
-    } else {
-      if (!isTruthy(left))
-        return left;
-    }
-
-    return evaluate(expr.right);
-  }
-
-  @Override
-  public Object visitSetExpr(Set expr) {
-    Object object = evaluate(expr.object);
-
-    if (!(object instanceof LangoInstance)) {
-      throw new RuntimeError(expr.name,
-          "Only instances have fields.");
-    }
-
-    Object value = evaluate(expr.value);
-
-    ((LangoInstance) object).set(expr.name, value);
-    return value;
-  }
-
-  @Override
-  public Object visitSuperExpr(Super expr) {
-    int distance = locals.get(expr);
-    LangoClass superclass = (LangoClass) environment.getAt(
-        distance, "super");
-
-    LangoInstance object = (LangoInstance) environment.getAt(
-        distance - 1, "this");
-
-    LangoFunction method = superclass.findMethod(expr.method.lexeme);
-
-    if (method == null) {
-      throw new RuntimeError(expr.method,
-          "Undefined property '" + expr.method.lexeme + "'.");
-    }
-
-    return method.bind(object);
-  }
-
-  @Override
-  public Object visitThisExpr(Expr.This expr) {
-    return lookUpVariable(expr.keyword, expr);
-  }
-
-  @Override
-  public Void visitWhileStmt(Stmt.While stmt) {
-    while (isTruthy(evaluate(stmt.condition))) {
-      try {
-        execute(stmt.body);
-      } catch (Break b) {
-        break;
-      }
-    }
-    return null;
-  }
-
-  @Override
-  public Object visitCallExpr(Call expr) {
-    Object callee = evaluate(expr.callee);
-
-    List<Object> arguments = new ArrayList<>();
-
-    for (Expr argument : expr.arguments) {
-      arguments.add(evaluate(argument));
-    }
-
-    if (!(callee instanceof LangoCallable)) {
-      throw new RuntimeError(expr.paren, "Can only call functions and classes");
-    }
-
-    LangoCallable function = (LangoCallable) callee;
-
-    if (arguments.size() != function.arity()) {
-      throw new RuntimeError(expr.paren, "Expected " +
-          function.arity() + " arguments but got " +
-          arguments.size() + ".");
-    }
-    return function.call(this, arguments);
-  }
-
-  @Override
-  public Object visitGetExpr(Get expr) {
-    Object object = evaluate(expr.object);
-
-    if (object instanceof LangoInstance) {
-      return ((LangoInstance) object).get(expr.name);
-    }
-
-    throw new RuntimeError(expr.name, "Only instances have properties.");
-  }
-
-  @Override
-  public Void visitFunctionStmt(Function stmt) {
-    LangoFunction function = new LangoFunction(stmt, environment, false);
-    environment.define(stmt.name.lexeme, function);
-    return null;
-  }
-
-  @Override
-  public Void visitReturnStmt(Stmt.Return stmt) {
-    Object value = null;
-    if (stmt.value != null)
-      value = evaluate(stmt.value);
-
-    throw new Return(value);
-  }
-
-  @Override
-  public Void visitBreakStmt(Stmt.Break stmt) {
-    throw new Break();
-  }
-
-  @Override
-  public Object visitAnonymousFuncExpr(AnonymousFunc expr) {
-    return new LangoFunction(new Stmt.Function(null, expr.params, expr.body), environment, false);
-  }
-}
\ No newline at end of file
+}
@@ -0,0 +1,19 @@
+package lango.interpreter;
+
+import lango.scanner.Token;
+
+/**
+ * Loads the modules imported by the scripts of an interpreter, see
+ * {@code import}.
+ */
+public interface ModuleLoader {
+
+  /**
+   * Loads the module at the given path unless it's loaded already, and defines
+   * its globals in the globals of the importer.
+   * 
+   * @param keyword the import statement's keyword, where errors are reported.
+   * @throws lango.parser.RuntimeError if the module can't be loaded.
+   */
+  void importModule(String path, Token keyword, Interpreter importer);
+}
@@ -0,0 +1,12 @@
+package lango.interpreter;
+
+/**
+ * Thrown inside an interpreter that was asked to stop, i.e. because its script
+ * was cancelled or timed out. Scripts can't catch it, it unwinds the whole
+ * execution.
+ */
+public class ScriptInterruptedException extends RuntimeException {
+  public ScriptInterruptedException(String reason) {
+    super(reason, null, false, false);
+  }
+}
@@ -0,0 +1,10 @@
+package lango.json;
+
+/**
+ * Thrown when a text isn't valid JSON or a value can't be written as JSON.
+ */
+public class JsonException extends RuntimeException {
+  public JsonException(String message) {
+    super(message, null, false, false);
+  }
+}
@@ -0,0 +1,520 @@
+package lango.json;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
+import lango.collections.LangoArray;
+import lango.collections.LangoMap;
+
+/**
+ * A pull parser of JSON: each call to {@link #next} reads one token of the
+ * document and tells what it was, so a huge document can be walked without
+ * building it in memory. {@link #readValue} builds the value that starts at
+ * the current token instead: objects become {@link LangoMap}s, arrays
+ * {@link LangoArray}s, numbers {@link Double}s, strings {@link String}s,
+ * {@code true} and {@code false} {@link Boolean}s and {@code null} nil.
+ * 
+ * The text is read from a reader through a fixed buffer, or straight out of
+ * a string. Strings without escapes are made from the buffer in one copy, and
+ * object keys are deduplicated through a small cache, since arrays of records
+ * repeat the same keys over and over.
+ * 
+ * It's not synchronized.
+ */
+public final class JsonReader {
+
+  /**
+   * What {@link #next} read.
+   */
+  public enum Event {
+    BEGIN_OBJECT, END_OBJECT, BEGIN_ARRAY, END_ARRAY, KEY, VALUE, END
+  }
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /**
+   * Deepest nesting of objects and arrays accepted, so building a document
+   * can't overflow the stack.
+   */
+  static final int MAX_DEPTH = 1000;
+
+  private static final int KEY_CACHE_SIZE = 256;
+
+  // What the parser expects next.
+  private static final int START = 0;
+  private static final int ARRAY_FIRST = 1;
+  private static final int ARRAY_NEXT = 2;
+  private static final int OBJECT_FIRST = 3;
+  private static final int OBJECT_NEXT = 4;
+  private static final int OBJECT_COLON = 5;
+  private static final int DONE = 6;
+
+  /**
+   * Null when the whole text is in the buffer.
+   */
+  private final Reader in;
+  private final char[] buffer;
+  private int position = 0;
+  private int limit;
+  private int line = 1;
+
+  /**
+   * Whether each open container is an object.
+   */
+  private boolean[] objects = new boolean[16];
+  private int depth = 0;
+  private int state = START;
+
+  private Event event = null;
+  private Object value = null;
+
+  private final StringBuilder scratch = new StringBuilder();
+  private final String[] keyCache = new String[KEY_CACHE_SIZE];
+
+  public JsonReader(Reader in) {
+    this.in = in;
+    this.buffer = new char[BUFFER_SIZE];
+    this.limit = 0;
+  }
+
+  public JsonReader(String text) {
+    this.in = null;
+    this.buffer = text.toCharArray();
+    this.limit = buffer.length;
+  }
+
+  /**
+   * Parses a whole document.
+   * 
+   * @throws JsonException if the text isn't valid JSON.
+   */
+  public static Object parse(String text) {
+    try {
+      JsonReader reader = new JsonReader(text);
+      reader.next();
+      Object value = reader.readValue();
+      reader.next();
+      return value;
+    } catch (IOException e) {
+      // A string can't fail to be read.
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Reads the next token.
+   * 
+   * @return what it was, {@link Event#END} once the document was read.
+   * @throws JsonException if the text isn't valid JSON.
+   */
+  public Event next() throws IOException {
+    value = null;
+    event = advance();
+    return event;
+  }
+
+  /**
+   * @return the key or the value read by the last {@link #next}, null after
+   *         any other event.
+   */
+  public Object value() {
+    return value;
+  }
+
+  /**
+   * Builds the value starting at the current token, reading up to its end: the
+   * whole object or array after {@link Event#BEGIN_OBJECT} or
+   * {@link Event#BEGIN_ARRAY}, the key or the value itself after
+   * {@link Event#KEY} or {@link Event#VALUE}.
+   * 
+   * @throws JsonException if no value starts there or the text isn't valid.
+   */
+  public Object readValue() throws IOException {
+    if (event == Event.VALUE || event == Event.KEY)
+      return value;
+
+    if (event == Event.BEGIN_ARRAY) {
+      LangoArray array = new LangoArray(0);
+      while (next() != Event.END_ARRAY) {
+        array.append(readValue());
+      }
+      return array;
+    }
+
+    if (event == Event.BEGIN_OBJECT) {
+      LangoMap map = new LangoMap();
+      while (next() != Event.END_OBJECT) {
+        Object key = value;
+        next();
+        map.put(key, readValue());
+      }
+      return map;
+    }
+
+    throw new JsonException("No value starts at the current token.");
+  }
+
+  private Event advance() throws IOException {
+    switch (state) {
+      case START:
+        return readValueToken();
+      case ARRAY_FIRST:
+        if (peek() == ']')
+          return endContainer(Event.END_ARRAY);
+        return readValueToken();
+      case ARRAY_NEXT: {
+        int c = peek();
+        if (c == ']')
+          return endContainer(Event.END_ARRAY);
+        consume(',', "Expect ',' or ']' after an array element.");
+        return readValueToken();
+      }
+      case OBJECT_FIRST:
+        if (peek() == '}')
+          return endContainer(Event.END_OBJECT);
+        return readKey();
+      case OBJECT_NEXT: {
+        int c = peek();
+        if (c == '}')
+          return endContainer(Event.END_OBJECT);
+        consume(',', "Expect ',' or '}' after an object member.");
+        return readKey();
+      }
+      case OBJECT_COLON:
+        consume(':', "Expect ':' after an object key.");
+        return readValueToken();
+      default:
+        if (peek() != -1)
+          throw error("Unexpected text after the document.");
+        return Event.END;
+    }
+  }
+
+  private Event readKey() throws IOException {
+    if (peek() != '"')
+      throw error("Expect a string key.");
+    position++;
+    value = readString(true);
+    state = OBJECT_COLON;
+    return Event.KEY;
+  }
+
+  private Event readValueToken() throws IOException {
+    int c = peek();
+    switch (c) {
+      case '{':
+        position++;
+        push(true);
+        state = OBJECT_FIRST;
+        return Event.BEGIN_OBJECT;
+      case '[':
+        position++;
+        push(false);
+        state = ARRAY_FIRST;
+        return Event.BEGIN_ARRAY;
+      case '"':
+        position++;
+        value = readString(false);
+        break;
+      case 't':
+        readLiteral("true");
+        value = Boolean.TRUE;
+        break;
+      case 'f':
+        readLiteral("false");
+        value = Boolean.FALSE;
+        break;
+      case 'n':
+        readLiteral("null");
+        value = null;
+        break;
+      default:
+        if (c == '-' || (c >= '0' && c <= '9')) {
+          value = readNumber();
+          break;
+        }
+        throw error(c == -1 ? "Unexpected end of the document." : "Unexpected character '" + (char) c + "'.");
+    }
+    state = afterValue();
+    return Event.VALUE;
+  }
+
+  private void push(boolean object) {
+    if (depth == MAX_DEPTH)
+      throw error("Nesting is deeper than " + MAX_DEPTH + ".");
+    if (depth == objects.length) {
+      objects = Arrays.copyOf(objects, depth * 2);
+    }
+    objects[depth++] = object;
+  }
+
+  private Event endContainer(Event end) {
+    position++;
+    depth--;
+    state = afterValue();
+    return end;
+  }
+
+  private int afterValue() {
+    if (depth == 0)
+      return DONE;
+    return objects[depth - 1] ? OBJECT_NEXT : ARRAY_NEXT;
+  }
+
+  /**
+   * Reads a string whose opening quote was consumed.
+   */
+  private String readString(boolean key) throws IOException {
+    int start = position;
+    while (position < limit) {
+      char c = buffer[position];
+      if (c == '"') {
+        String string = key ? cachedKey(start, position - start) : new String(buffer, start, position - start);
+        position++;
+        return string;
+      }
+      if (c == '\\' || c < 0x20)
+        break;
+      position++;
+    }
+
+    // Escapes, control characters or the end of the buffer: go on in the
+    // scratch builder.
+    scratch.setLength(0);
+    scratch.append(buffer, start, position - start);
+    while (true) {
+      char c = read();
+      if (c == '"')
+        return scratch.toString();
+      if (c < 0x20)
+        throw error("Unescaped control character in a string.");
+      if (c != '\\') {
+        scratch.append(c);
+        continue;
+      }
+
+      char escaped = read();
+      switch (escaped) {
+        case '"':
+        case '\\':
+        case '/':
+          scratch.append(escaped);
+          break;
+        case 'b':
+          scratch.append('\b');
+          break;
+        case 'f':
+          scratch.append('\f');
+          break;
+        case 'n':
+          scratch.append('\n');
+          break;
+        case 'r':
+          scratch.append('\r');
+          break;
+        case 't':
+          scratch.append('\t');
+          break;
+        case 'u': {
+          int code = 0;
+          for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0)
+              throw error("Invalid unicode escape.");
+            code = code * 16 + digit;
+          }
+          scratch.append((char) code);
+          break;
+        }
+        default:
+          throw error("Invalid escape '\\" + escaped + "'.");
+      }
+    }
+  }
+
+  /**
+   * @return a string of the given characters of the buffer, the same string as
+   *         the last key with these characters when there's one in the cache.
+   */
+  private String cachedKey(int start, int length) {
+    int hash = 0;
+    for (int i = start; i < start + length; i++) {
+      hash = 31 * hash + buffer[i];
+    }
+    int slot = (hash ^ (hash >>> 16)) & (KEY_CACHE_SIZE - 1);
+
+    String cached = keyCache[slot];
+    if (cached != null && cached.length() == length) {
+      boolean same = true;
+      for (int i = 0; i < length && same; i++) {
+        same = cached.charAt(i) == buffer[start + i];
+      }
+      if (same)
+        return cached;
+    }
+
+    String key = new String(buffer, start, length);
+    keyCache[slot] = key;
+    return key;
+  }
+
+  private Double readNumber() throws IOException {
+    int start = position;
+    while (position < limit && isNumberChar(buffer[position])) {
+      position++;
+    }
+
+    CharSequence text;
+    if (position < limit || in == null) {
+      text = CharBuffer.wrap(buffer, start, position - start);
+    } else {
+      // The number may go on in the next buffer.
+      scratch.setLength(0);
+      scratch.append(buffer, start, position - start);
+      int c;
+      while ((c = peekRaw()) != -1 && isNumberChar((char) c)) {
+        scratch.append((char) c);
+        position++;
+      }
+      text = scratch;
+    }
+
+    if (!isValidNumber(text))
+      throw error("Invalid number '" + text + "'.");
+
+    // Integers that fit in a double exactly are common, they skip the string.
+    if (text.length() <= 15) {
+      long integer = 0;
+      int i = text.charAt(0) == '-' ? 1 : 0;
+      boolean digitsOnly = true;
+      for (int j = i; j < text.length() && digitsOnly; j++) {
+        char c = text.charAt(j);
+        digitsOnly = c >= '0' && c <= '9';
+        integer = integer * 10 + (c - '0');
+      }
+      if (digitsOnly) {
+        // -0 stays a negative zero.
+        return i == 1 ? -(double) integer : (double) integer;
+      }
+    }
+    return Double.parseDouble(text.toString());
+  }
+
+  private static boolean isNumberChar(char c) {
+    return (c >= '0' && c <= '9') || c == '-' || c == '+' || c == '.' || c == 'e' || c == 'E';
+  }
+
+  /**
+   * Checks the grammar of a JSON number: {@code -?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?}.
+   */
+  private static boolean isValidNumber(CharSequence text) {
+    int i = 0;
+    int length = text.length();
+    if (i < length && text.charAt(i) == '-')
+      i++;
+    if (i == length)
+      return false;
+    if (text.charAt(i) == '0') {
+      i++;
+    } else {
+      int digits = i;
+      while (i < length && Character.isDigit(text.charAt(i)))
+        i++;
+      if (i == digits)
+        return false;
+    }
+    if (i < length && text.charAt(i) == '.') {
+      int digits = ++i;
+      while (i < length && Character.isDigit(text.charAt(i)))
+        i++;
+      if (i == digits)
+        return false;
+    }
+    if (i < length && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+      i++;
+      if (i < length && (text.charAt(i) == '+' || text.charAt(i) == '-'))
+        i++;
+      int digits = i;
+      while (i < length && Character.isDigit(text.charAt(i)))
+        i++;
+      if (i == digits)
+        return false;
+    }
+    return i == length;
+  }
+
+  private void readLiteral(String literal) throws IOException {
+    for (int i = 0; i < literal.length(); i++) {
+      if (peekRaw() != literal.charAt(i))
+        throw error("Unexpected character, expect '" + literal + "'.");
+      position++;
+    }
+  }
+
+  private void consume(char expected, String message) throws IOException {
+    if (peek() != expected)
+      throw error(message);
+    position++;
+  }
+
+  /**
+   * @return the next character that isn't whitespace, without consuming it,
+   *         -1 at the end of the text.
+   */
+  private int peek() throws IOException {
+    while (true) {
+      int c = peekRaw();
+      if (c == '\n') {
+        line++;
+      } else if (c != ' ' && c != '\t' && c != '\r') {
+        return c;
+      }
+      position++;
+    }
+  }
+
+  /**
+   * @return the next character, without consuming it, -1 at the end of the
+   *         text.
+   */
+  private int peekRaw() throws IOException {
+    if (position == limit && !fill())
+      return -1;
+    return buffer[position];
+  }
+
+  private char read() throws IOException {
+    int c = peekRaw();
+    if (c == -1)
+      throw error("Unexpected end of the document.");
+    position++;
+    return (char) c;
+  }
+
+  private boolean fill() throws IOException {
+    if (in == null)
+      return false;
+
+    int read;
+    do {
+      read = in.read(buffer, 0, buffer.length);
+    } while (read == 0);
+    if (read < 0)
+      return false;
+
+    position = 0;
+    limit = read;
+    return true;
+  }
+
+  private JsonException error(String message) {
+    return new JsonException("Invalid JSON at line " + line + ": " + message);
+  }
+
+  @Override
+  public String toString() {
+    return "<json reader>";
+  }
+}
@@ -0,0 +1,129 @@
+package lango.json;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import lango.collections.LangoArray;
+import lango.collections.LangoMap;
+import lango.collections.LangoRope;
+import lango.interpreter.Interpreter;
+
+/**
+ * Writes Lango values as JSON text: maps as objects, arrays as arrays, numbers,
+ * strings, booleans and nil. Map keys must be strings or numbers, the latter
+ * written as strings.
+ */
+public final class JsonWriter {
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+  private final StringBuilder out = new StringBuilder();
+
+  /**
+   * The maps and arrays being written, to catch cycles.
+   */
+  private final Set<Object> open = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private JsonWriter() {
+  }
+
+  /**
+   * @throws JsonException if the value holds something that isn't JSON, a
+   *                       number that isn't finite or a cycle.
+   */
+  public static String stringify(Object value) {
+    JsonWriter writer = new JsonWriter();
+    writer.write(value);
+    return writer.out.toString();
+  }
+
+  private void write(Object value) {
+    if (value == null) {
+      out.append("null");
+    } else if (value instanceof Boolean) {
+      out.append((boolean) value);
+    } else if (value instanceof Double) {
+      double number = (double) value;
+      if (Double.isNaN(number) || Double.isInfinite(number))
+        throw new JsonException("Can't write " + Interpreter.stringify(value) + " as JSON.");
+      out.append(Interpreter.stringify(value));
+    } else if (LangoRope.isString(value)) {
+      writeString(value.toString());
+    } else if (value instanceof LangoArray) {
+      enter(value);
+      LangoArray array = (LangoArray) value;
+      out.append('[');
+      for (int i = 0; i < array.size(); i++) {
+        if (i > 0)
+          out.append(',');
+        write(array.get(i));
+      }
+      out.append(']');
+      open.remove(value);
+    } else if (value instanceof LangoMap) {
+      enter(value);
+      out.append('{');
+      int start = out.length();
+      ((LangoMap) value).forEach((key, element) -> {
+        if (out.length() > start)
+          out.append(',');
+        writeKey(key);
+        out.append(':');
+        write(element);
+      });
+      out.append('}');
+      open.remove(value);
+    } else {
+      throw new JsonException("Can't write " + Interpreter.stringify(value) + " as JSON.");
+    }
+  }
+
+  private void enter(Object container) {
+    if (!open.add(container))
+      throw new JsonException("Can't write a value that contains itself as JSON.");
+  }
+
+  private void writeKey(Object key) {
+    if (key instanceof Double) {
+      writeString(Interpreter.stringify(key));
+    } else if (key instanceof String) {
+      writeString((String) key);
+    } else {
+      throw new JsonException("Can't write the key " + Interpreter.stringify(key) + " as JSON.");
+    }
+  }
+
+  private void writeString(String string) {
+    out.append('"');
+    int run = 0;
+    for (int i = 0; i < string.length(); i++) {
+      char c = string.charAt(i);
+      if (c != '"' && c != '\\' && c >= 0x20)
+        continue;
+
+      // Characters that need no escape are appended a run at a time.
+      out.append(string, run, i);
+      run = i + 1;
+      switch (c) {
+        case '"':
+          out.append("\\\"");
+          break;
+        case '\\':
+          out.append("\\\\");
+          break;
+        case '\n':
+          out.append("\\n");
+          break;
+        case '\r':
+          out.append("\\r");
+          break;
+        case '\t':
+          out.append("\\t");
+          break;
+        default:
+          out.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+      }
+    }
+    out.append(string, run, string.length()).append('"');
+  }
+}
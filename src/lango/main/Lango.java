@@ -3,56 +3,85 @@ package lango.main;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
 import java.nio.file.Path;
-// import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
 
-import lango.astNodes.Stmt;
-import lango.interpreter.Interpreter;
-import lango.parser.Parser;
-import lango.parser.RuntimeError;
-import lango.scanner.Scanner;
-import lango.scanner.Token;
-import lango.scanner.TokenType;
-import lango.semanticAnalysis.Resolver;
-
+import lango.actors.ActorSystem;
+import lango.interop.Interop;
+import lango.cache.AstCache;
+import lango.diagnostics.ConsoleReporter;
+import lango.engine.CompiledScript;
+import lango.engine.LangoContext;
+import lango.engine.LangoEngine;
+import lango.engine.ReplSession;
+import lango.frontend.CompilationUnit;
+
+/**
+ * The command line interface, which runs scripts or the REPL in a single
+ * {@link LangoContext}.
+ */
 public class Lango {
-  private static final Interpreter interpreter = new Interpreter();
-
-  /**
-   * Used to ensure that we don't execute code that has a known error.
-   */
-  static boolean hadError = false;
-  static boolean hadRuntimeError = false;
 
   public static void main(String[] args) throws IOException {
-    if (args.length > 1) {
-      System.out.println("Usage: lango [script]");
-      System.exit(64);
-    } else if (args.length == 1) {
-      runFile(args[0]);
+    // Resolved trees of the scripts that were already run are cached, unless
+    // it's disabled or function bodies are parsed lazily instead.
+    boolean lazyParsing = Boolean.getBoolean("lango.lazyParsing");
+    LangoEngine engine = new LangoEngine(AstCache.fromSystemProperties(), lazyParsing);
+    ConsoleReporter reporter = new ConsoleReporter();
+    LangoContext context = engine.newContext(reporter);
+    new ActorSystem(engine, reporter).install(context);
+    Interop.install(context);
+
+    if (args.length >= 1) {
+      runFiles(engine, context, args);
     } else {
       // Run the REPL.
-      runPrompt();
+      runPrompt(context);
     }
   }
 
   /**
-   * Reads one line at a time and executes that line immediately (REPL).
+   * Compiles all the given scripts in parallel, then executes them one after
+   * another in the given order.
    * 
-   * @param path : The path given by the user which has Lox's source code.
+   * @param paths : The paths given by the user which have Lango's source code.
    * @throws IOException
    */
-  private static void runFile(String path) throws IOException {
-    // Paths.get(path);
-    byte[] bytes = Files.readAllBytes(Path.of(path));
-    run(new String(bytes, Charset.defaultCharset()));
-    if (hadError)
+  private static void runFiles(LangoEngine engine, LangoContext context, String[] paths) throws IOException {
+    List<Path> files = new ArrayList<>();
+    for (String path : paths) {
+      files.add(Path.of(path));
+    }
+
+    List<CompilationUnit> units = engine.compileFiles(files);
+
+    // Stop if there is a syntax or a resolution error in any of the files.
+    if (reportErrors(units))
       System.exit(65);
-    if (hadRuntimeError)
-      System.exit(70);
+
+    for (CompilationUnit unit : units) {
+      if (!context.execute(CompiledScript.from(unit)))
+        System.exit(70);
+    }
+  }
+
+  /**
+   * Prints the errors of each unit, prefixed by the unit's name when there's
+   * more than one.
+   * 
+   * @return whether any of the units had an error.
+   */
+  private static boolean reportErrors(List<CompilationUnit> units) {
+    boolean hadError = false;
+    for (CompilationUnit unit : units) {
+      if (!unit.hadError())
+        continue;
+
+      unit.diagnostics.printTo(System.out, units.size() > 1 ? unit.name + ": " : "");
+      hadError = true;
+    }
+    return hadError;
   }
 
   /**
@@ -60,11 +89,14 @@ public class Lango {
    * 
    * @throws IOException
    */
-  private static void runPrompt() throws IOException {
+  private static void runPrompt(LangoContext context) throws IOException {
     InputStreamReader input = new InputStreamReader(System.in);
     BufferedReader reader = new BufferedReader(input);
+    ReplSession session = context.newReplSession();
 
     while (true) {
+      // Show what the previous entry printed before the prompt.
+      context.output().flush();
       System.out.print("> ");
       /**
        * readLine reads a line which the user enters.
@@ -75,63 +107,7 @@ public class Lango {
       String line = reader.readLine();
       if (line == null)
         break;
-      run(line);
-      // The flag is reset for each loop because the REPL shouldn't be terminated when
-      // the user makes a mistake.
-      hadError = false;
+      session.eval(line);
     }
   }
-
-  private static void run(String source) {
-    Scanner scanner = new Scanner(source);
-    List<Token> tokens = scanner.scanTokens();
-    Parser parser = new Parser(tokens);
-    List<Stmt> statements = parser.parse();
-
-    // Stop if there is a syntax error.
-    if (hadError)
-      return;
-
-    Resolver resolver = new Resolver(interpreter);
-
-    resolver.resolve(statements);
-
-    // Stop if there's a resolution error.
-
-    if (hadError)
-      return;
-
-    interpreter.interpret(statements);
-  }
-
-  // TODO : Add the beginning and end column.
-  /**
-   * Notifies the user about syntax error that occurred at a specific line
-   * number using a message.
-   * 
-   * @param line
-   * @param message
-   */
-  public static void error(int line, String message) {
-    report(line, "", message);
-  }
-
-  private static void report(int line, String where, String message) {
-    System.out.println("[line " + line + "] Error" + where + ": " + message);
-    hadError = true;
-  }
-
-  public static void error(Token token, String message) {
-    if (token.type == TokenType.EOF) {
-      report(token.line, " at end", message);
-    } else {
-      report(token.line, " at '" + token.lexeme + "'", message);
-    }
-  }
-
-  public static void runtimeError(RuntimeError error) {
-    System.err.println(error.getMessage() +
-        "\n[line " + error.token.line + "]");
-    hadRuntimeError = true;
-  }
-}
\ No newline at end of file
+}
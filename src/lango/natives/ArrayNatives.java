@@ -0,0 +1,79 @@
+package lango.natives;
+
+import lango.Environment;
+import lango.collections.LangoArray;
+import lango.collections.LangoMap;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+
+/**
+ * Defines the natives working on arrays, next to the literal and index syntax:
+ * 
+ * <pre>
+ * var numbers = [];         // array(n) creates an array of n nils
+ * append(numbers, 4);
+ * numbers[0] = 5;           // same as set(numbers, 0, 5)
+ * print numbers[0];         // "5", same as get(numbers, 0)
+ * print len(numbers);       // "1", len also takes a map
+ * </pre>
+ */
+public final class ArrayNatives {
+  private ArrayNatives() {
+  }
+
+  public static void define(Environment globals) {
+    globals.define("array", new NativeFunction("array", 1, (evaluator, arguments) -> {
+      return new LangoArray(length(arguments.get(0)));
+    }));
+
+    globals.define("len", new NativeFunction("len", 1, (evaluator, arguments) -> {
+      if (arguments.get(0) instanceof LangoMap)
+        return (double) ((LangoMap) arguments.get(0)).size();
+      return (double) array(arguments.get(0), "len").size();
+    }));
+
+    globals.define("append", new NativeFunction("append", 2, (evaluator, arguments) -> {
+      array(arguments.get(0), "append").append(arguments.get(1));
+      return null;
+    }));
+
+    globals.define("get", new NativeFunction("get", 2, (evaluator, arguments) -> {
+      LangoArray array = array(arguments.get(0), "get");
+      return array.get(index(array, arguments.get(1)));
+    }));
+
+    globals.define("set", new NativeFunction("set", 3, (evaluator, arguments) -> {
+      LangoArray array = array(arguments.get(0), "set");
+      array.set(index(array, arguments.get(1)), arguments.get(2));
+      return arguments.get(2);
+    }));
+  }
+
+  static LangoArray array(Object value, String name) {
+    if (!(value instanceof LangoArray))
+      throw new NativeError("Argument of '" + name + "' must be an array.");
+    return (LangoArray) value;
+  }
+
+  static int integer(Object value, String what) {
+    if (!(value instanceof Double) || (double) value != Math.floor((double) value)
+        || Math.abs((double) value) > Integer.MAX_VALUE) {
+      throw new NativeError(what + " must be an integer.");
+    }
+    return (int) (double) value;
+  }
+
+  private static int length(Object value) {
+    int length = integer(value, "Array length");
+    if (length < 0)
+      throw new NativeError("Array length can't be negative.");
+    return length;
+  }
+
+  private static int index(LangoArray array, Object value) {
+    int index = integer(value, "Array index");
+    if (index < 0 || index >= array.size())
+      throw new NativeError("Array index " + index + " out of bounds for length " + array.size() + ".");
+    return index;
+  }
+}
@@ -0,0 +1,109 @@
+package lango.natives;
+
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+
+import lango.Environment;
+import lango.concurrent.VirtualThreads;
+import lango.functions.LangoCallable;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+import lango.interpreter.Interpreter;
+
+/**
+ * Defines the natives that let a script run work concurrently:
+ * 
+ * <pre>
+ * var results = channel(10);       // a channel holding up to 10 values
+ * var task = spawn(fun () {        // runs the function on another thread
+ *   send(results, fetch("a"));     // blocks while the channel is full
+ *   return "done";
+ * });
+ * print receive(results);          // blocks while the channel is empty
+ * print await(task);               // blocks until the task returns, "done"
+ * </pre>
+ * 
+ * A spawned function runs on a virtual thread when the JDK has them, on a
+ * pooled platform thread otherwise, with an evaluator of its own sharing
+ * the globals of the spawning one.
+ * 
+ * Variables captured by the function are shared by reference with the code
+ * that spawned it, the same as any closure. Everything done before the call to
+ * {@code spawn} is visible to the task, and everything done by the task is
+ * visible after {@code await} returns; a value sent to a channel is visible to
+ * the task receiving it along with everything done before sending it. Beyond
+ * these points, tasks writing the same variable race each other, so pass
+ * results through the return value or a channel instead.
+ * 
+ * A runtime error stopping a task is thrown again by {@code await}. Waits
+ * notice the interruption of the script, so cancelling it also ends its
+ * blocked tasks.
+ */
+public final class ConcurrencyNatives {
+  private ConcurrencyNatives() {
+  }
+
+  /**
+   * How long a blocked native waits before checking again if its script was
+   * interrupted.
+   */
+  static final long POLL_MILLIS = 50;
+
+  public static void define(Environment globals) {
+    globals.define("spawn", new NativeFunction("spawn", 1, (evaluator, arguments) -> {
+      LangoCallable function = callable(arguments.get(0), "spawn");
+      return spawn(evaluator.interpreter(), function);
+    }));
+
+    globals.define("await", new NativeFunction("await", 1, (evaluator, arguments) -> {
+      if (!(arguments.get(0) instanceof LangoFuture))
+        throw new NativeError("Can only await futures.");
+      return ((LangoFuture) arguments.get(0)).await(evaluator);
+    }));
+
+    globals.define("channel", new NativeFunction("channel", 1, (evaluator, arguments) -> {
+      Object capacity = arguments.get(0);
+      if (!(capacity instanceof Double) || (double) capacity < 1
+          || (double) capacity != Math.floor((double) capacity)) {
+        throw new NativeError("Channel capacity must be a positive integer.");
+      }
+      return new LangoChannel((int) Math.min((double) capacity, Integer.MAX_VALUE));
+    }));
+
+    globals.define("send", new NativeFunction("send", 2, (evaluator, arguments) -> {
+      channel(arguments.get(0), "send").send(evaluator, arguments.get(1));
+      return null;
+    }));
+
+    globals.define("receive", new NativeFunction("receive", 1, (evaluator, arguments) -> {
+      return channel(arguments.get(0), "receive").receive(evaluator);
+    }));
+  }
+
+  private static LangoFuture spawn(Interpreter interpreter, LangoCallable function) {
+    if (function.arity() != 0)
+      throw new NativeError("Can only spawn functions without parameters.");
+
+    CompletableFuture<Object> result = new CompletableFuture<>();
+    VirtualThreads.executor().execute(() -> {
+      try {
+        result.complete(interpreter.call(function, Collections.emptyList()));
+      } catch (Throwable e) {
+        result.completeExceptionally(e);
+      }
+    });
+    return new LangoFuture(result);
+  }
+
+  private static LangoCallable callable(Object value, String name) {
+    if (!(value instanceof LangoCallable))
+      throw new NativeError("Argument of '" + name + "' must be a function.");
+    return (LangoCallable) value;
+  }
+
+  private static LangoChannel channel(Object value, String name) {
+    if (!(value instanceof LangoChannel))
+      throw new NativeError("Argument of '" + name + "' must be a channel.");
+    return (LangoChannel) value;
+  }
+}
@@ -0,0 +1,141 @@
+package lango.natives;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import lango.Environment;
+import lango.collections.LangoRope;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+import lango.interpreter.Interpreter;
+
+/**
+ * Defines the natives reading and writing files, in UTF-8:
+ * 
+ * <pre>
+ * var log = open("app.log", "r");   // "r" reads, "w" truncates, "a" appends
+ * var line = readLine(log);         // nil at the end of the file
+ * while (line != nil) {
+ *   print line;
+ *   line = readLine(log);
+ * }
+ * close(log);
+ * 
+ * var big = mapFile("huge.log");    // reads the lines out of a memory mapping
+ * var out = open("errors.txt", "w");
+ * write(out, "first: ");           // buffered, written at the latest by close
+ * writeLine(out, readLine(big));    // writes the value and a line feed
+ * close(out);
+ * close(big);
+ * print readAll("config.txt");      // the whole file as one string
+ * </pre>
+ * 
+ * Files are read through {@link FileChannel}s a buffer at a time, so scripts
+ * can stream files far larger than the heap. A failing operation is a runtime
+ * error with the message of the underlying {@link IOException}.
+ */
+public final class FileNatives {
+  private FileNatives() {
+  }
+
+  public static void define(Environment globals) {
+    globals.define("open", new NativeFunction("open", 2, (evaluator, arguments) -> {
+      Path path = path(arguments.get(0), "open");
+      Object mode = arguments.get(1);
+      try {
+        if ("r".equals(mode))
+          return new LangoFile.Reader(path, FileChannel.open(path, StandardOpenOption.READ));
+        if ("w".equals(mode))
+          return new LangoFile.Writer(path, FileChannel.open(path, StandardOpenOption.WRITE,
+              StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING));
+        if ("a".equals(mode))
+          return new LangoFile.Writer(path, FileChannel.open(path, StandardOpenOption.WRITE,
+              StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+      } catch (IOException e) {
+        throw failure("open", path, e);
+      }
+      throw new NativeError("Mode of 'open' must be \"r\", \"w\" or \"a\".");
+    }));
+
+    globals.define("mapFile", new NativeFunction("mapFile", 1, (evaluator, arguments) -> {
+      Path path = path(arguments.get(0), "mapFile");
+      try {
+        return new LangoFile.Mapped(path, FileChannel.open(path, StandardOpenOption.READ));
+      } catch (IOException e) {
+        throw failure("map", path, e);
+      }
+    }));
+
+    globals.define("readLine", new NativeFunction("readLine", 1, (evaluator, arguments) -> {
+      LangoFile file = file(arguments.get(0), "readLine");
+      try {
+        return file.readLine();
+      } catch (IOException e) {
+        throw failure("read", file.path(), e);
+      }
+    }));
+
+    globals.define("readAll", new NativeFunction("readAll", 1, (evaluator, arguments) -> {
+      Path path = path(arguments.get(0), "readAll");
+      try {
+        return Files.readString(path);
+      } catch (IOException e) {
+        throw failure("read", path, e);
+      }
+    }));
+
+    globals.define("write", new NativeFunction("write", 2, (evaluator, arguments) -> {
+      LangoFile file = file(arguments.get(0), "write");
+      try {
+        file.write(Interpreter.stringify(arguments.get(1)));
+      } catch (IOException e) {
+        throw failure("write", file.path(), e);
+      }
+      return null;
+    }));
+
+    globals.define("writeLine", new NativeFunction("writeLine", 2, (evaluator, arguments) -> {
+      LangoFile file = file(arguments.get(0), "writeLine");
+      try {
+        file.write(Interpreter.stringify(arguments.get(1)) + "\n");
+      } catch (IOException e) {
+        throw failure("write", file.path(), e);
+      }
+      return null;
+    }));
+
+    globals.define("close", new NativeFunction("close", 1, (evaluator, arguments) -> {
+      LangoFile file = file(arguments.get(0), "close");
+      try {
+        file.close();
+      } catch (IOException e) {
+        throw failure("close", file.path(), e);
+      }
+      return null;
+    }));
+  }
+
+  private static Path path(Object value, String name) {
+    if (!LangoRope.isString(value))
+      throw new NativeError("Argument of '" + name + "' must be the path of a file.");
+    try {
+      return Path.of(value.toString());
+    } catch (InvalidPathException e) {
+      throw new NativeError("Invalid path '" + value + "'.");
+    }
+  }
+
+  private static LangoFile file(Object value, String name) {
+    if (!(value instanceof LangoFile))
+      throw new NativeError("Argument of '" + name + "' must be a file.");
+    return (LangoFile) value;
+  }
+
+  private static NativeError failure(String action, Path path, IOException e) {
+    return new NativeError("Could not " + action + " '" + path + "': " + e);
+  }
+}
@@ -0,0 +1,53 @@
+package lango.natives;
+
+import lango.Environment;
+import lango.functions.LangoGenerator;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+
+/**
+ * Defines the natives reading the values of a generator:
+ * 
+ * <pre>
+ * fun naturals() {
+ *   var n = 0;
+ *   while (true) {
+ *     yield n;
+ *     n = n + 1;
+ *   }
+ * }
+ * var numbers = naturals();
+ * while (hasNext(numbers)) print next(numbers);
+ * closeGenerator(numbers);
+ * </pre>
+ * 
+ * {@code hasNext} runs the generator up to its next yield and tells whether it
+ * yielded, {@code next} returns that value (nil once the generator ended).
+ * {@code closeGenerator} ends a generator that wasn't run to its end, giving
+ * its thread back right away.
+ */
+public final class GeneratorNatives {
+  private GeneratorNatives() {
+  }
+
+  public static void define(Environment globals) {
+    globals.define("hasNext", new NativeFunction("hasNext", 1, (evaluator, arguments) -> {
+      return generator(arguments.get(0), "hasNext").hasNext(evaluator);
+    }));
+
+    globals.define("next", new NativeFunction("next", 1, (evaluator, arguments) -> {
+      return generator(arguments.get(0), "next").next(evaluator);
+    }));
+
+    globals.define("closeGenerator", new NativeFunction("closeGenerator", 1, (evaluator, arguments) -> {
+      generator(arguments.get(0), "closeGenerator").close();
+      return null;
+    }));
+  }
+
+  private static LangoGenerator generator(Object value, String name) {
+    if (!(value instanceof LangoGenerator))
+      throw new NativeError("Argument of '" + name + "' must be a generator.");
+    return (LangoGenerator) value;
+  }
+}
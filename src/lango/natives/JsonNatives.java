@@ -0,0 +1,117 @@
+package lango.natives;
+
+import java.io.IOException;
+
+import lango.Environment;
+import lango.collections.LangoRope;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+import lango.json.JsonException;
+import lango.json.JsonReader;
+import lango.json.JsonWriter;
+
+/**
+ * Defines the natives reading and writing JSON, mapped to maps, arrays,
+ * numbers, strings, booleans and nil:
+ * 
+ * <pre>
+ * var config = jsonParse(readAll("config.json"));
+ * print config["name"];
+ * print jsonStringify({"sizes": [1, 2]});  // {"sizes":[1,2]}
+ * </pre>
+ * 
+ * A document too large to be built in memory is walked a token at a time, out
+ * of a string or a file opened for reading:
+ * 
+ * <pre>
+ * var file = open("events.json", "r");
+ * var events = jsonReader(file);
+ * jsonNext(events);                         // "array"
+ * while (jsonNext(events) != "endArray") {
+ *   var event = jsonRead(events);           // builds one element
+ *   print event["id"];
+ * }
+ * close(file);
+ * </pre>
+ * 
+ * {@code jsonNext} returns "object", "endObject", "array", "endArray", "key"
+ * or "value", and nil at the end of the document. {@code jsonRead} returns
+ * the key or value just read, or builds the whole object or array that just
+ * began.
+ */
+public final class JsonNatives {
+  private JsonNatives() {
+  }
+
+  public static void define(Environment globals) {
+    globals.define("jsonParse", new NativeFunction("jsonParse", 1, (evaluator, arguments) -> {
+      if (!LangoRope.isString(arguments.get(0)))
+        throw new NativeError("Argument of 'jsonParse' must be a string.");
+      try {
+        return JsonReader.parse(arguments.get(0).toString());
+      } catch (JsonException e) {
+        throw new NativeError(e.getMessage());
+      }
+    }));
+
+    globals.define("jsonStringify", new NativeFunction("jsonStringify", 1, (evaluator, arguments) -> {
+      try {
+        return JsonWriter.stringify(arguments.get(0));
+      } catch (JsonException e) {
+        throw new NativeError(e.getMessage());
+      }
+    }));
+
+    globals.define("jsonReader", new NativeFunction("jsonReader", 1, (evaluator, arguments) -> {
+      Object source = arguments.get(0);
+      if (LangoRope.isString(source))
+        return new JsonReader(source.toString());
+      if (source instanceof LangoFile.Reader)
+        return new JsonReader(((LangoFile.Reader) source).reader());
+      throw new NativeError("Argument of 'jsonReader' must be a string or a file opened for reading.");
+    }));
+
+    globals.define("jsonNext", new NativeFunction("jsonNext", 1, (evaluator, arguments) -> {
+      JsonReader reader = reader(arguments.get(0), "jsonNext");
+      try {
+        switch (reader.next()) {
+          case BEGIN_OBJECT:
+            return "object";
+          case END_OBJECT:
+            return "endObject";
+          case BEGIN_ARRAY:
+            return "array";
+          case END_ARRAY:
+            return "endArray";
+          case KEY:
+            return "key";
+          case VALUE:
+            return "value";
+          default:
+            return null;
+        }
+      } catch (JsonException e) {
+        throw new NativeError(e.getMessage());
+      } catch (IOException e) {
+        throw new NativeError("Could not read JSON: " + e);
+      }
+    }));
+
+    globals.define("jsonRead", new NativeFunction("jsonRead", 1, (evaluator, arguments) -> {
+      JsonReader reader = reader(arguments.get(0), "jsonRead");
+      try {
+        return reader.readValue();
+      } catch (JsonException e) {
+        throw new NativeError(e.getMessage());
+      } catch (IOException e) {
+        throw new NativeError("Could not read JSON: " + e);
+      }
+    }));
+  }
+
+  private static JsonReader reader(Object value, String name) {
+    if (!(value instanceof JsonReader))
+      throw new NativeError("Argument of '" + name + "' must be a JSON reader.");
+    return (JsonReader) value;
+  }
+}
@@ -0,0 +1,59 @@
+package lango.natives;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import lango.interpreter.Evaluator;
+import lango.interpreter.ScriptInterruptedException;
+
+/**
+ * A bounded first-in first-out queue shared by tasks: {@code send} blocks
+ * while it's full and {@code receive} blocks while it's empty.
+ */
+public class LangoChannel {
+
+  /**
+   * Stands for nil, which the queue can't hold.
+   */
+  private static final Object NIL = new Object();
+
+  private final BlockingQueue<Object> queue;
+
+  LangoChannel(int capacity) {
+    queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  void send(Evaluator evaluator, Object value) {
+    Object element = value == null ? NIL : value;
+    try {
+      while (true) {
+        evaluator.checkInterrupted();
+        if (queue.offer(element, ConcurrencyNatives.POLL_MILLIS, TimeUnit.MILLISECONDS))
+          return;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ScriptInterruptedException("Interrupted while sending to a channel.");
+    }
+  }
+
+  Object receive(Evaluator evaluator) {
+    try {
+      while (true) {
+        evaluator.checkInterrupted();
+        Object element = queue.poll(ConcurrencyNatives.POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (element != null)
+          return element == NIL ? null : element;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ScriptInterruptedException("Interrupted while receiving from a channel.");
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "<channel>";
+  }
+}
@@ -0,0 +1,296 @@
+package lango.natives;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import lango.functions.NativeError;
+
+/**
+ * A file opened by a script, read a line at a time or written to, always in
+ * UTF-8. Reading streams through a small buffer, so a file of any size is
+ * processed in constant memory.
+ *
+ * Files are closed by {@code close}, which also writes what's still buffered,
+ * or else when they're collected or the JVM exits. A file may be used by
+ * several tasks, its operations are synchronized.
+ */
+public abstract class LangoFile {
+  private final Path path;
+  private boolean closed = false;
+
+  LangoFile(Path path) {
+    this.path = path;
+  }
+
+  /**
+   * @return the next line without its terminator, null at the end of the file.
+   */
+  synchronized String readLine() throws IOException {
+    checkOpen();
+    return nextLine();
+  }
+
+  synchronized void write(String text) throws IOException {
+    checkOpen();
+    append(text);
+  }
+
+  synchronized void close() throws IOException {
+    if (closed)
+      return;
+    closed = true;
+    release();
+  }
+
+  Path path() {
+    return path;
+  }
+
+  String nextLine() throws IOException {
+    throw new NativeError("File '" + path + "' isn't open for reading.");
+  }
+
+  void append(String text) throws IOException {
+    throw new NativeError("File '" + path + "' isn't open for writing.");
+  }
+
+  abstract void release() throws IOException;
+
+  private void checkOpen() {
+    if (closed)
+      throw new NativeError("File '" + path + "' is closed.");
+  }
+
+  @Override
+  public String toString() {
+    return "<file " + path + ">";
+  }
+
+  /**
+   * Reads through a buffered reader on the file's channel.
+   */
+  static final class Reader extends LangoFile {
+    private final BufferedReader reader;
+
+    Reader(Path path, FileChannel channel) {
+      super(path);
+      this.reader = new BufferedReader(Channels.newReader(channel, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    String nextLine() throws IOException {
+      return reader.readLine();
+    }
+
+    /**
+     * @return the reader of the file, i.e. to stream a document out of it.
+     */
+    BufferedReader reader() {
+      return reader;
+    }
+
+    @Override
+    void release() throws IOException {
+      reader.close();
+    }
+  }
+
+  /**
+   * Writes through a byte buffer, which is written to the channel when it's
+   * full and when the file is closed.
+   * 
+   * A writer the script didn't close is closed when it's collected, and the
+   * writers still open when the JVM exits are closed by a shutdown hook, so
+   * what they buffered isn't lost and their file descriptors don't leak.
+   */
+  static final class Writer extends LangoFile {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final Cleaner CLEANER = Cleaner.create();
+
+    /**
+     * The buffers of the writers that weren't closed yet.
+     */
+    private static final Set<Buffer> OPEN = ConcurrentHashMap.newKeySet();
+
+    static {
+      Runtime.getRuntime().addShutdownHook(new Thread(() -> OPEN.forEach(Buffer::closeQuietly),
+          "lango-file-flush"));
+    }
+
+    /**
+     * The channel and the bytes not written to it yet, apart from the writer
+     * so that it can be closed once the writer is collected.
+     */
+    private static final class Buffer {
+      private final FileChannel channel;
+      private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+          .onMalformedInput(CodingErrorAction.REPLACE);
+      private final ByteBuffer bytes = ByteBuffer.allocateDirect(BUFFER_SIZE);
+      private boolean closed = false;
+
+      Buffer(FileChannel channel) {
+        this.channel = channel;
+      }
+
+      synchronized void append(String text) throws IOException {
+        CharBuffer chars = CharBuffer.wrap(text);
+        while (encoder.encode(chars, bytes, true).isOverflow()) {
+          drain();
+        }
+      }
+
+      private void drain() throws IOException {
+        bytes.flip();
+        while (bytes.hasRemaining()) {
+          channel.write(bytes);
+        }
+        bytes.clear();
+      }
+
+      synchronized void close() throws IOException {
+        if (closed)
+          return;
+        closed = true;
+        OPEN.remove(this);
+        try {
+          drain();
+        } finally {
+          channel.close();
+        }
+      }
+
+      void closeQuietly() {
+        try {
+          close();
+        } catch (IOException e) {
+          // Nobody is left to report it to.
+        }
+      }
+    }
+
+    private final Buffer buffer;
+    private final Cleaner.Cleanable cleanable;
+
+    Writer(Path path, FileChannel channel) {
+      super(path);
+      this.buffer = new Buffer(channel);
+      OPEN.add(buffer);
+      this.cleanable = CLEANER.register(this, buffer::closeQuietly);
+    }
+
+    @Override
+    void append(String text) throws IOException {
+      buffer.append(text);
+    }
+
+    @Override
+    void release() throws IOException {
+      try {
+        buffer.close();
+      } finally {
+        cleanable.clean();
+      }
+    }
+  }
+
+  /**
+   * Reads the lines straight out of windows of the file mapped in memory,
+   * without copying the file through a buffer. Only the bytes of a line are
+   * decoded, into the string returned.
+   */
+  static final class Mapped extends LangoFile {
+    /**
+     * Size of the mapped window, a line can't be longer.
+     */
+    static final long WINDOW_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+
+    /**
+     * Position of the window in the file.
+     */
+    private long offset = 0;
+
+    Mapped(Path path, FileChannel channel) throws IOException {
+      super(path);
+      this.channel = channel;
+      this.size = channel.size();
+      map(0);
+    }
+
+    private void map(long position) throws IOException {
+      offset = position;
+      window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+    }
+
+    @Override
+    String nextLine() throws IOException {
+      if (offset + window.position() >= size)
+        return null;
+
+      int start = window.position();
+      int end = indexOfLineEnd(start);
+      if (end < 0 && offset + window.limit() < size) {
+        // The line goes on past the window, map the next one from its start.
+        map(offset + start);
+        start = 0;
+        end = indexOfLineEnd(0);
+        if (end < 0 && offset + window.limit() < size)
+          throw new NativeError("A line of '" + path() + "' is longer than " + WINDOW_SIZE + " bytes.");
+      }
+
+      int next;
+      if (end < 0) {
+        end = next = window.limit();
+      } else {
+        next = end + 1;
+        if (window.get(end) == '\r' && next < window.limit() && window.get(next) == '\n')
+          next++;
+      }
+
+      byte[] bytes = new byte[end - start];
+      window.get(start, bytes);
+      window.position(next);
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Finds the end of a line the way {@link BufferedReader#readLine()} does: a
+     * '\n', a '\r' or a "\r\n".
+     * 
+     * @return the index of the terminator, or -1 if there's none in the window
+     *         or the window ends with a '\r' whose '\n' may be in the next one.
+     */
+    private int indexOfLineEnd(int from) {
+      for (int i = from; i < window.limit(); i++) {
+        byte b = window.get(i);
+        if (b == '\n')
+          return i;
+        if (b == '\r')
+          return i + 1 < window.limit() || offset + window.limit() >= size ? i : -1;
+      }
+      return -1;
+    }
+
+    @Override
+    void release() throws IOException {
+      window = null;
+      channel.close();
+    }
+  }
+}
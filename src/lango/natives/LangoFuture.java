@@ -0,0 +1,51 @@
+package lango.natives;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import lango.interpreter.Evaluator;
+import lango.interpreter.ScriptInterruptedException;
+
+/**
+ * The result of a function started with {@code spawn}, read with
+ * {@code await}.
+ */
+public class LangoFuture {
+  private final CompletableFuture<Object> result;
+
+  LangoFuture(CompletableFuture<Object> result) {
+    this.result = result;
+  }
+
+  /**
+   * Blocks until the task ends.
+   * 
+   * @return the value returned by the task.
+   * @throws RuntimeException the error that stopped the task, i.e. its
+   *                          {@link lango.parser.RuntimeError}.
+   */
+  Object await(Evaluator evaluator) {
+    while (true) {
+      evaluator.checkInterrupted();
+      try {
+        return result.get(ConcurrencyNatives.POLL_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (TimeoutException e) {
+        // Wake up to notice an interruption of the awaiting script.
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException)
+          throw (RuntimeException) e.getCause();
+        throw new IllegalStateException(e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new ScriptInterruptedException("Interrupted while awaiting a task.");
+      }
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "<future>";
+  }
+}
@@ -0,0 +1,44 @@
+package lango.natives;
+
+import lango.Environment;
+import lango.collections.LangoMap;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+
+/**
+ * Defines the natives working on maps, next to the literal and index syntax:
+ * 
+ * <pre>
+ * var ages = {"ada": 36};
+ * ages["alan"] = 41;
+ * print ages["ada"];         // "36", nil for a missing key
+ * print has(ages, "grace");  // "false"
+ * remove(ages, "ada");       // returns the removed value
+ * print keys(ages);          // "[alan]"
+ * print len(ages);           // "1"
+ * </pre>
+ */
+public final class MapNatives {
+  private MapNatives() {
+  }
+
+  public static void define(Environment globals) {
+    globals.define("keys", new NativeFunction("keys", 1, (evaluator, arguments) -> {
+      return map(arguments.get(0), "keys").keys();
+    }));
+
+    globals.define("has", new NativeFunction("has", 2, (evaluator, arguments) -> {
+      return map(arguments.get(0), "has").containsKey(arguments.get(1));
+    }));
+
+    globals.define("remove", new NativeFunction("remove", 2, (evaluator, arguments) -> {
+      return map(arguments.get(0), "remove").remove(arguments.get(1));
+    }));
+  }
+
+  private static LangoMap map(Object value, String name) {
+    if (!(value instanceof LangoMap))
+      throw new NativeError("Argument of '" + name + "' must be a map.");
+    return (LangoMap) value;
+  }
+}
@@ -0,0 +1,186 @@
+package lango.natives;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import lango.Environment;
+import lango.collections.LangoArray;
+import lango.functions.LangoCallable;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+import lango.interpreter.Evaluator;
+import lango.interpreter.Interpreter;
+
+/**
+ * Defines the data-parallel natives, which split their range of indices across
+ * the common fork-join pool:
+ * 
+ * <pre>
+ * var squares = parallelMap(numbers, fun (n) { return n * n; });
+ * var sum = parallelReduce(squares, fun (a, b) { return a + b; }, 0);
+ * parallelFor(0, len(numbers), fun (i) { set(numbers, i, i); });
+ * </pre>
+ * 
+ * The function is called concurrently, each chunk of the range with an
+ * evaluator of its own, so it must not depend on the order of the calls.
+ * {@code parallelReduce} folds each chunk starting from the initial value and
+ * then combines the chunks with the same function, so the function must be
+ * associative and the initial value neutral (0 for a sum, 1 for a product).
+ * 
+ * The calls run on the pool's workers, a function blocking on a channel or a
+ * future would hold a worker, so such work belongs to {@code spawn}.
+ */
+public final class ParallelNatives {
+  private ParallelNatives() {
+  }
+
+  /**
+   * Chunks per worker: more than one so idle workers can steal from slower
+   * ones, since the calls may take very different times.
+   */
+  private static final int CHUNKS_PER_WORKER = 4;
+
+  public static void define(Environment globals) {
+    globals.define("parallelMap", new NativeFunction("parallelMap", 2, (evaluator, arguments) -> {
+      LangoArray array = ArrayNatives.array(arguments.get(0), "parallelMap");
+      LangoCallable function = function(arguments.get(1), "parallelMap", 1);
+
+      Object[] results = new Object[array.size()];
+      pool().invoke(new ForEach(evaluator.interpreter(), 0, results.length, threshold(results.length), index -> {
+        results[index.value] = function.call(index.evaluator, Arrays.asList(array.get(index.value)));
+      }));
+      return new LangoArray(results);
+    }));
+
+    globals.define("parallelReduce", new NativeFunction("parallelReduce", 3, (evaluator, arguments) -> {
+      LangoArray array = ArrayNatives.array(arguments.get(0), "parallelReduce");
+      LangoCallable function = function(arguments.get(1), "parallelReduce", 2);
+      Object initial = arguments.get(2);
+
+      return pool().invoke(new Reduce(evaluator.interpreter(), array, function, initial, 0, array.size(),
+          threshold(array.size())));
+    }));
+
+    globals.define("parallelFor", new NativeFunction("parallelFor", 3, (evaluator, arguments) -> {
+      int start = ArrayNatives.integer(arguments.get(0), "Start of 'parallelFor'");
+      int end = ArrayNatives.integer(arguments.get(1), "End of 'parallelFor'");
+      LangoCallable function = function(arguments.get(2), "parallelFor", 1);
+
+      if (start < end) {
+        pool().invoke(new ForEach(evaluator.interpreter(), start, end, threshold(end - start), index -> {
+          function.call(index.evaluator, Arrays.asList((double) index.value));
+        }));
+      }
+      return null;
+    }));
+  }
+
+  private static ForkJoinPool pool() {
+    return ForkJoinPool.commonPool();
+  }
+
+  private static int threshold(int length) {
+    int chunks = pool().getParallelism() * CHUNKS_PER_WORKER;
+    return Math.max(1, length / chunks);
+  }
+
+  private static LangoCallable function(Object value, String name, int arity) {
+    if (!(value instanceof LangoCallable))
+      throw new NativeError("Argument of '" + name + "' must be a function.");
+
+    LangoCallable function = (LangoCallable) value;
+    if (function.arity() != arity)
+      throw new NativeError("Function of '" + name + "' must take " + arity + " arguments.");
+    return function;
+  }
+
+  /**
+   * The index being visited and the evaluator of its chunk.
+   */
+  private static final class Index {
+    final Evaluator evaluator;
+    int value;
+
+    Index(Evaluator evaluator) {
+      this.evaluator = evaluator;
+    }
+  }
+
+  private interface Body {
+    void visit(Index index);
+  }
+
+  private static final class ForEach extends RecursiveAction {
+    private final Interpreter interpreter;
+    private final int start;
+    private final int end;
+    private final int threshold;
+    private final Body body;
+
+    ForEach(Interpreter interpreter, int start, int end, int threshold, Body body) {
+      this.interpreter = interpreter;
+      this.start = start;
+      this.end = end;
+      this.threshold = threshold;
+      this.body = body;
+    }
+
+    @Override
+    protected void compute() {
+      if (end - start <= threshold) {
+        Index index = new Index(interpreter.newEvaluator());
+        for (index.value = start; index.value < end; index.value++) {
+          body.visit(index);
+        }
+        return;
+      }
+
+      int middle = (start + end) >>> 1;
+      invokeAll(new ForEach(interpreter, start, middle, threshold, body),
+          new ForEach(interpreter, middle, end, threshold, body));
+    }
+  }
+
+  private static final class Reduce extends RecursiveTask<Object> {
+    private final Interpreter interpreter;
+    private final LangoArray array;
+    private final LangoCallable function;
+    private final Object initial;
+    private final int start;
+    private final int end;
+    private final int threshold;
+
+    Reduce(Interpreter interpreter, LangoArray array, LangoCallable function, Object initial, int start,
+        int end, int threshold) {
+      this.interpreter = interpreter;
+      this.array = array;
+      this.function = function;
+      this.initial = initial;
+      this.start = start;
+      this.end = end;
+      this.threshold = threshold;
+    }
+
+    @Override
+    protected Object compute() {
+      if (end - start <= threshold) {
+        Evaluator chunk = interpreter.newEvaluator();
+        Object accumulator = initial;
+        for (int i = start; i < end; i++) {
+          accumulator = function.call(chunk, Arrays.asList(accumulator, array.get(i)));
+        }
+        return accumulator;
+      }
+
+      int middle = (start + end) >>> 1;
+      Reduce left = new Reduce(interpreter, array, function, initial, start, middle, threshold);
+      Reduce right = new Reduce(interpreter, array, function, initial, middle, end, threshold);
+      right.fork();
+      Object leftValue = left.compute();
+      Object rightValue = right.join();
+      return interpreter.call(function, Arrays.asList(leftValue, rightValue));
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package lango.natives;
+
+import java.util.List;
+
+import lango.Environment;
+import lango.collections.LangoArray;
+import lango.functions.NativeError;
+import lango.functions.NativeFunction;
+import lango.vector.VectorOps;
+
+/**
+ * Defines the natives computing over whole arrays of numbers at once, so a
+ * single call replaces a loop of interpreted arithmetic:
+ * 
+ * <pre>
+ * var a = [1, 2, 3];
+ * var b = [4, 5, 6];
+ * print vadd(a, b);      // [5, 7, 9], a new array
+ * print vmul(a, b);      // [4, 10, 18]
+ * print scale(a, 2);     // [2, 4, 6]
+ * print dot(a, b);       // 32
+ * print sum(a);          // 6
+ * print min(a);          // 1, nil for an empty array
+ * print max(a);          // 3
+ * </pre>
+ * 
+ * They run on the unboxed storage of the arrays with the SIMD instructions of
+ * the CPU when the JVM was started with
+ * {@code --add-modules jdk.incubator.vector}, see {@link VectorOps}.
+ */
+public final class VectorNatives {
+  private VectorNatives() {
+  }
+
+  private static final VectorOps OPS = VectorOps.best();
+
+  public static void define(Environment globals) {
+    globals.define("vadd", new NativeFunction("vadd", 2, (evaluator, arguments) -> {
+      double[] a = numbers(arguments.get(0), "vadd");
+      double[] b = numbers(arguments.get(1), "vadd");
+      int n = sameSize(arguments, "vadd");
+      double[] result = new double[n];
+      OPS.add(a, b, result, n);
+      return new LangoArray(result, n);
+    }));
+
+    globals.define("vmul", new NativeFunction("vmul", 2, (evaluator, arguments) -> {
+      double[] a = numbers(arguments.get(0), "vmul");
+      double[] b = numbers(arguments.get(1), "vmul");
+      int n = sameSize(arguments, "vmul");
+      double[] result = new double[n];
+      OPS.multiply(a, b, result, n);
+      return new LangoArray(result, n);
+    }));
+
+    globals.define("scale", new NativeFunction("scale", 2, (evaluator, arguments) -> {
+      double[] a = numbers(arguments.get(0), "scale");
+      if (!(arguments.get(1) instanceof Double))
+        throw new NativeError("Factor of 'scale' must be a number.");
+      int n = ((LangoArray) arguments.get(0)).size();
+      double[] result = new double[n];
+      OPS.scale(a, (double) arguments.get(1), result, n);
+      return new LangoArray(result, n);
+    }));
+
+    globals.define("dot", new NativeFunction("dot", 2, (evaluator, arguments) -> {
+      double[] a = numbers(arguments.get(0), "dot");
+      double[] b = numbers(arguments.get(1), "dot");
+      return OPS.dot(a, b, sameSize(arguments, "dot"));
+    }));
+
+    globals.define("sum", new NativeFunction("sum", 1, (evaluator, arguments) -> {
+      double[] a = numbers(arguments.get(0), "sum");
+      return OPS.sum(a, ((LangoArray) arguments.get(0)).size());
+    }));
+
+    globals.define("min", new NativeFunction("min", 1, (evaluator, arguments) -> {
+      double[] a = numbers(arguments.get(0), "min");
+      int n = ((LangoArray) arguments.get(0)).size();
+      return n == 0 ? null : OPS.min(a, n);
+    }));
+
+    globals.define("max", new NativeFunction("max", 1, (evaluator, arguments) -> {
+      double[] a = numbers(arguments.get(0), "max");
+      int n = ((LangoArray) arguments.get(0)).size();
+      return n == 0 ? null : OPS.max(a, n);
+    }));
+  }
+
+  /**
+   * @return the unboxed elements of an array of numbers, copied out of its
+   *         boxed storage if it had to switch to it but holds numbers only.
+   */
+  private static double[] numbers(Object value, String name) {
+    LangoArray array = ArrayNatives.array(value, name);
+    if (array.holdsNumbers())
+      return array.numbers();
+
+    double[] numbers = new double[array.size()];
+    for (int i = 0; i < numbers.length; i++) {
+      Object element = array.get(i);
+      if (!(element instanceof Double))
+        throw new NativeError("Arguments of '" + name + "' must be arrays of numbers.");
+      numbers[i] = (double) element;
+    }
+    return numbers;
+  }
+
+  private static int sameSize(List<Object> arguments, String name) {
+    int size = ((LangoArray) arguments.get(0)).size();
+    if (((LangoArray) arguments.get(1)).size() != size)
+      throw new NativeError("Arrays given to '" + name + "' must have the same length.");
+    return size;
+  }
+}
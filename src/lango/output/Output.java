@@ -0,0 +1,181 @@
+package lango.output;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Where a context prints: the lines of {@code print} are collected in a large
+ * buffer and written to a {@link Sink} in batches, when the buffer is full or
+ * on {@link #flush}, instead of going through a flushing {@link java.io.PrintStream}
+ * one line at a time.
+ * 
+ * The command line flushes the output before showing the REPL prompt and
+ * before reporting a runtime error, so the error comes after what the script
+ * printed; scripts may call the {@code flush} native. The output of
+ * {@link #stdout} is also flushed when the JVM exits.
+ * 
+ * An output may be printed to by several threads, i.e. tasks or actors, each
+ * line is written as a whole. Like {@link java.io.PrintStream}, it never
+ * throws: the first write error is kept, see {@link #checkError}, and the
+ * following lines are dropped.
+ */
+public final class Output {
+
+  /**
+   * Receives the text of an output, in batches of whole lines.
+   */
+  public interface Sink extends Closeable {
+    void write(CharSequence text) throws IOException;
+  }
+
+  /**
+   * Number of characters buffered before they're written.
+   */
+  static final int BUFFER_SIZE = 1 << 16;
+
+  private static final Output STDOUT = new Output(new StdoutSink());
+
+  static {
+    Runtime.getRuntime().addShutdownHook(new Thread(STDOUT::flush, "lango-stdout-flush"));
+  }
+
+  private final Sink sink;
+  private final StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+  private IOException error = null;
+
+  public Output(Sink sink) {
+    this.sink = sink;
+  }
+
+  /**
+   * @return the output shared by the contexts printing to the standard output.
+   */
+  public static Output stdout() {
+    return STDOUT;
+  }
+
+  /**
+   * Creates an output writing to a file, which is truncated.
+   */
+  public static Output toFile(Path path) throws IOException {
+    return new Output(new FileSink(FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)));
+  }
+
+  /**
+   * Prints a line.
+   */
+  public synchronized void println(String line) {
+    buffer.append(line).append('\n');
+    if (buffer.length() >= BUFFER_SIZE) {
+      flush();
+    }
+  }
+
+  /**
+   * Writes the buffered lines to the sink.
+   */
+  public synchronized void flush() {
+    if (buffer.length() == 0)
+      return;
+
+    if (error == null) {
+      try {
+        sink.write(buffer);
+      } catch (IOException e) {
+        error = e;
+      }
+    }
+    buffer.setLength(0);
+  }
+
+  /**
+   * Flushes the output and closes its sink, the standard output is left open.
+   */
+  public synchronized void close() {
+    flush();
+    try {
+      sink.close();
+    } catch (IOException e) {
+      if (error == null)
+        error = e;
+    }
+  }
+
+  /**
+   * @return the first error writing to the sink, null if there was none.
+   */
+  public synchronized IOException checkError() {
+    return error;
+  }
+
+  private static final class StdoutSink implements Sink {
+    @Override
+    public void write(CharSequence text) {
+      // A single write and flush per batch, with the encoding of System.out.
+      System.out.append(text);
+      System.out.flush();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+
+  private static final class FileSink implements Sink {
+    private final FileChannel channel;
+    // A lone surrogate is written as '?' rather than failing every later write.
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+    FileSink(FileChannel channel) {
+      this.channel = channel;
+    }
+
+    @Override
+    public void write(CharSequence text) throws IOException {
+      ByteBuffer bytes = encoder.encode(CharBuffer.wrap(text));
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      channel.close();
+    }
+  }
+
+  /**
+   * Keeps the text in memory, i.e. for a host embedding scripts and collecting
+   * what they print.
+   */
+  public static final class Memory implements Sink {
+    private final StringBuilder text = new StringBuilder();
+
+    @Override
+    public synchronized void write(CharSequence batch) {
+      text.append(batch);
+    }
+
+    /**
+     * @return what was written so far, the output must be flushed first.
+     */
+    public synchronized String contents() {
+      return text.toString();
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package lango.parser;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import lango.astNodes.Stmt;
+import lango.diagnostics.Diagnostics;
+import lango.diagnostics.ErrorReporter;
+import lango.scanner.Scanner;
+import lango.scanner.Token;
+
+/**
+ * The body of a function that the parser only skimmed, matching its braces:
+ * the statements are scanned and parsed from the body's source, then resolved,
+ * when they're first needed, i.e. by the first call of the function. A
+ * function never called costs its source text, not tokens and a tree.
+ *
+ * The errors of a body are so found by its first call, which throws them as a
+ * runtime error. Bodies may be parsed by any thread, only once.
+ */
+public final class LazyBody extends AbstractList<Stmt> {
+
+  /**
+   * The function the body belongs to, set by the parser.
+   */
+  Stmt.Function function;
+
+  /**
+   * The source of the body after its '{', up to its '}', null once it's
+   * parsed.
+   */
+  private String source;
+
+  /**
+   * The line the source starts at.
+   */
+  private final int line;
+
+  /**
+   * Resolves the parsed body in the scopes it was declared in, set by the
+   * resolver.
+   */
+  private Consumer<ErrorReporter> resolution = null;
+
+  /**
+   * The statements while they're being resolved.
+   */
+  private List<Stmt> parsed = null;
+
+  /**
+   * The statements once they're parsed and resolved.
+   */
+  private volatile List<Stmt> statements = null;
+
+  LazyBody(String source, int line) {
+    this.source = source;
+    this.line = line;
+  }
+
+  /**
+   * Whether the body wasn't parsed yet.
+   */
+  public boolean isPending() {
+    return statements == null && parsed == null;
+  }
+
+  /**
+   * Sets how the body is resolved once it's parsed, the resolver defers the
+   * resolution of a pending body.
+   */
+  public void resolveWith(Consumer<ErrorReporter> resolution) {
+    this.resolution = resolution;
+  }
+
+  /**
+   * Parses and resolves the body unless it's done already.
+   *
+   * @throws RuntimeError if the body has compile errors.
+   */
+  public List<Stmt> statements() {
+    List<Stmt> ready = statements;
+    return ready != null ? ready : parse();
+  }
+
+  private synchronized List<Stmt> parse() {
+    if (statements != null)
+      return statements;
+    // Asked again by the resolution of the body.
+    if (parsed != null)
+      return parsed;
+
+    Diagnostics diagnostics = new Diagnostics();
+    List<Token> tokens = new Scanner(source, diagnostics, line).scanTokens();
+    parsed = new Parser(tokens, diagnostics).lazyBody(function);
+    if (!diagnostics.hadError() && resolution != null) {
+      resolution.accept(diagnostics);
+    }
+
+    if (diagnostics.hadError()) {
+      parsed = null;
+      throw new RuntimeError(function.name,
+          "Function '" + function.name.lexeme + "' has compile errors: " + String.join(" ", diagnostics.messages()));
+    }
+
+    statements = parsed;
+    parsed = null;
+    source = null;
+    resolution = null;
+    return statements;
+  }
+
+  @Override
+  public Stmt get(int index) {
+    return statements().get(index);
+  }
+
+  @Override
+  public int size() {
+    return statements().size();
+  }
+
+  @Override
+  public Iterator<Stmt> iterator() {
+    return statements().iterator();
+  }
+}
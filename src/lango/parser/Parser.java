@@ -1,12 +1,14 @@
 package lango.parser;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import lango.astNodes.Stmt;
 import lango.astNodes.Stmt.Elif;
 import lango.astNodes.Expr;
-import lango.main.Lango;
+import lango.diagnostics.ErrorReporter;
 import lango.scanner.*;
 
 import java.util.Arrays;
@@ -54,7 +56,8 @@ import java.util.Arrays;
  * anonymousFunc))* ;
  * 
  * expression → assignment;
- * assignment -> (call ".")? IDENTIFIER "=" assignment | logic_or;
+ * assignment -> (call ".")? IDENTIFIER "=" assignment
+ * | call "[" expression "]" "=" assignment | logic_or;
  * 
  * logic_or -> logic_and ("or" logic_and)*
  * logic_and -> equality ("and" equality)*
@@ -63,9 +66,16 @@ import java.util.Arrays;
  * term → factor ( ( "-" | "+" ) factor )* ;
  * factor → unary ( ( "/" | "*" ) unary )* ;
  * unary → ( "!" | "-" ) unary | call ;
- * call -> primary ( "(" arguments? ")" | "." IDENTIFIER )*
+ * call -> primary ( "(" arguments? ")" | "." IDENTIFIER | "[" expression "]" )*
  * primary → NUMBER | STRING | "true" | "false" | "nil" | "(" expression ")" |
- * IDENTIFIER | "super" "." IDENTIFIER;
+ * IDENTIFIER | "super" "." IDENTIFIER | array | map;
+ * array -> "[" ( expression ( "," expression )* )? "]";
+ * map -> "{" ( entry ( "," entry )* )? "}";
+ * entry -> expression ":" expression;
+ * 
+ * Statements are parsed by recursive descent. Expressions (from assignment
+ * down to primary) are parsed by a Pratt parser driven by the {@link #rules}
+ * table, where each rule above is a precedence level.
  */
 
 public class Parser {
@@ -73,6 +83,102 @@ public class Parser {
   private static class ParseError extends RuntimeException {
   }
 
+  /**
+   * Binding power of the expression operators, from the loosest to the
+   * tightest.
+   */
+  private enum Precedence {
+    NONE,
+    ASSIGNMENT, // =
+    OR, // or
+    AND, // and
+    EQUALITY, // == !=
+    COMPARISON, // < > <= >=
+    TERM, // + -
+    FACTOR, // * /
+    UNARY, // ! -
+    CALL, // . () []
+    PRIMARY;
+
+    Precedence next() {
+      return values()[ordinal() + 1];
+    }
+  }
+
+  /**
+   * Parses an expression that starts with the given (already consumed) token.
+   */
+  private interface PrefixParselet {
+    Expr parse(Parser parser, Token token);
+  }
+
+  /**
+   * Parses the rest of an expression whose left operand was already parsed,
+   * given the (already consumed) operator token.
+   */
+  private interface InfixParselet {
+    Expr parse(Parser parser, Expr left, Token token);
+  }
+
+  /**
+   * How a token is parsed when it starts an expression and when it follows one.
+   */
+  private static class ParseRule {
+    final PrefixParselet prefix;
+    final InfixParselet infix;
+    /**
+     * The precedence of the token when it's used as an infix operator.
+     */
+    final Precedence precedence;
+
+    ParseRule(PrefixParselet prefix, InfixParselet infix, Precedence precedence) {
+      this.prefix = prefix;
+      this.infix = infix;
+      this.precedence = precedence;
+    }
+  }
+
+  /**
+   * The expression grammar as a table, adding an operator only takes a new
+   * entry here.
+   */
+  private static final Map<TokenType, ParseRule> rules = new EnumMap<>(TokenType.class);
+
+  static {
+    rule(TokenType.LEFT_PAREN, (parser, token) -> parser.grouping(),
+        (parser, left, token) -> parser.finishCall(left), Precedence.CALL);
+    rule(TokenType.DOT, null, (parser, left, token) -> parser.get(left), Precedence.CALL);
+    rule(TokenType.LEFT_BRACKET, (parser, token) -> parser.arrayLiteral(), Parser::index, Precedence.CALL);
+    // A brace starting a statement is a block, see statement().
+    rule(TokenType.LEFT_BRACE, (parser, token) -> parser.mapLiteral(), null, Precedence.NONE);
+    rule(TokenType.MINUS, Parser::unary, Parser::binary, Precedence.TERM);
+    rule(TokenType.PLUS, null, Parser::binary, Precedence.TERM);
+    rule(TokenType.SLASH, null, Parser::binary, Precedence.FACTOR);
+    rule(TokenType.STAR, null, Parser::binary, Precedence.FACTOR);
+    rule(TokenType.BANG, Parser::unary, null, Precedence.NONE);
+    rule(TokenType.BANG_EQUAL, null, Parser::binary, Precedence.EQUALITY);
+    rule(TokenType.EQUAL_EQUAL, null, Parser::binary, Precedence.EQUALITY);
+    rule(TokenType.GREATER, null, Parser::binary, Precedence.COMPARISON);
+    rule(TokenType.GREATER_EQUAL, null, Parser::binary, Precedence.COMPARISON);
+    rule(TokenType.LESS, null, Parser::binary, Precedence.COMPARISON);
+    rule(TokenType.LESS_EQUAL, null, Parser::binary, Precedence.COMPARISON);
+    rule(TokenType.AND, null, Parser::logical, Precedence.AND);
+    rule(TokenType.OR, null, Parser::logical, Precedence.OR);
+    rule(TokenType.EQUAL, null, Parser::assign, Precedence.ASSIGNMENT);
+    rule(TokenType.FALSE, (parser, token) -> new Expr.Literal(false), null, Precedence.NONE);
+    rule(TokenType.TRUE, (parser, token) -> new Expr.Literal(true), null, Precedence.NONE);
+    rule(TokenType.NIL, (parser, token) -> new Expr.Literal(null), null, Precedence.NONE);
+    rule(TokenType.NUMBER, (parser, token) -> new Expr.Literal(token.literal), null, Precedence.NONE);
+    rule(TokenType.STRING, (parser, token) -> new Expr.Literal(token.literal), null, Precedence.NONE);
+    rule(TokenType.SUPER, Parser::superExpression, null, Precedence.NONE);
+    rule(TokenType.THIS, (parser, token) -> new Expr.This(token), null, Precedence.NONE);
+    rule(TokenType.IDENTIFIER, (parser, token) -> new Expr.Variable(token), null, Precedence.NONE);
+  }
+
+  private static void rule(TokenType type, PrefixParselet prefix, InfixParselet infix, Precedence precedence) {
+    rules.put(type, new ParseRule(prefix, infix, precedence));
+  }
+
   /**
    * List of tokens to be parsed.
    */
@@ -83,8 +189,45 @@ public class Parser {
    */
   private int current = 0;
 
-  public Parser(List<Token> tokens) {
+  /**
+   * Receives the syntax errors found while parsing.
+   */
+  private final ErrorReporter reporter;
+
+  /**
+   * Whether a yield statement was parsed in the body of the innermost function
+   * being parsed, which makes it a generator.
+   */
+  private boolean sawYield = false;
+
+  /**
+   * The source of the tokens and the offset of each token in it, when the
+   * bodies of top-level functions and methods are skimmed, to be parsed by
+   * their first call (see {@link LazyBody}). Null otherwise.
+   */
+  private final String source;
+  private final int[] offsets;
+
+  /**
+   * Number of blocks around the current token.
+   */
+  private int blockDepth = 0;
+
+  public Parser(List<Token> tokens, ErrorReporter reporter) {
+    this(tokens, reporter, null, null);
+  }
+
+  /**
+   * Creates a parser skimming the bodies of top-level functions and methods.
+   * 
+   * @param source  the source the tokens were scanned from.
+   * @param offsets the offset of each token in the source.
+   */
+  public Parser(List<Token> tokens, ErrorReporter reporter, String source, int[] offsets) {
     this.tokens = tokens;
+    this.reporter = reporter;
+    this.source = source;
+    this.offsets = offsets;
   }
 
   /**
@@ -114,6 +257,8 @@ public class Parser {
         return function("function");
       if (match(TokenType.VAR))
         return varDeclaration();
+      if (match(TokenType.IMPORT))
+        return importDeclaration();
 
       return statement();
     } catch (ParseError error) {
@@ -165,9 +310,52 @@ public class Parser {
 
     consume(TokenType.LEFT_BRACE, "Expect '{' before a " + kind + " body.");
 
+    // Nested functions are parsed with their enclosing one, so only the
+    // resolution of top-level bodies has to be deferred.
+    if (source != null && blockDepth == 0) {
+      LazyBody body = skimBody();
+      Stmt.Function function = new Stmt.Function(name, parameters, body);
+      body.function = function;
+      return function;
+    }
+
+    boolean enclosingYield = sawYield;
+    sawYield = false;
     List<Stmt> body = block();
 
-    return new Stmt.Function(name, parameters, body);
+    Stmt.Function function = new Stmt.Function(name, parameters, body);
+    function.isGenerator = sawYield;
+    sawYield = enclosingYield;
+    return function;
+  }
+
+  /**
+   * Skips the tokens of a body up to its matching '}', keeping the source
+   * between them.
+   */
+  private LazyBody skimBody() {
+    Token first = peek();
+    int start = offsets[current];
+    int depth = 1;
+    while (!isAtEnd()) {
+      TokenType type = advance().type;
+      if (type == TokenType.LEFT_BRACE) {
+        depth++;
+      } else if (type == TokenType.RIGHT_BRACE && --depth == 0) {
+        return new LazyBody(source.substring(start, offsets[current - 1] + 1), first.line);
+      }
+    }
+
+    throw error(peek(), "Expect '}' after block.");
+  }
+
+  /**
+   * Parses the tokens of a skimmed body.
+   */
+  List<Stmt> lazyBody(Stmt.Function function) {
+    List<Stmt> body = block();
+    function.isGenerator = sawYield;
+    return body;
   }
 
   private Stmt varDeclaration() {
@@ -181,6 +369,13 @@ public class Parser {
     return new Stmt.Var(name, initializer);
   }
 
+  private Stmt importDeclaration() {
+    Token keyword = previous();
+    Token path = consume(TokenType.STRING, "Expect a module path after 'import'.");
+    consume(TokenType.SEMICOLON, "Expect ';' after import.");
+    return new Stmt.Import(keyword, path);
+  }
+
   private Stmt statement() {
     if (match(TokenType.IF))
       return ifStatement();
@@ -190,6 +385,8 @@ public class Parser {
       return whileStatement();
     if (match(TokenType.RETURN))
       return returnStatement();
+    if (match(TokenType.YIELD))
+      return yieldStatement();
     if (match(TokenType.BREAK))
       return breakStatement();
     if (match(TokenType.PRINT))
@@ -221,6 +418,21 @@ public class Parser {
     return new Stmt.Return(keyword, value);
   }
 
+  private Stmt yieldStatement() {
+    Token keyword = previous();
+    sawYield = true;
+
+    Expr value = null;
+
+    if (!check(TokenType.SEMICOLON)) {
+      value = expression();
+    }
+
+    consume(TokenType.SEMICOLON, "Expect ';' after yield value.");
+
+    return new Stmt.Yield(keyword, value);
+  }
+
   private Stmt whileStatement() {
     consume(TokenType.LEFT_PAREN, "Expect '(' after 'while'.");
     Expr condition = expression();
@@ -310,9 +522,11 @@ public class Parser {
   private List<Stmt> block() {
     List<Stmt> statements = new ArrayList<>();
 
+    blockDepth++;
     while (!check(TokenType.RIGHT_BRACE) && !isAtEnd()) {
       statements.add(declaration());
     }
+    blockDepth--;
 
     consume(TokenType.RIGHT_BRACE, "Expect '}' after block.");
     return statements;
@@ -361,136 +575,97 @@ public class Parser {
 
     consume(TokenType.LEFT_BRACE, "Expect '{' before an anonymous function body.");
 
+    boolean enclosingYield = sawYield;
+    sawYield = false;
     List<Stmt> body = block();
 
-    return new Expr.AnonymousFunc(parameters, body);
+    Expr.AnonymousFunc function = new Expr.AnonymousFunc(parameters, body);
+    function.isGenerator = sawYield;
+    sawYield = enclosingYield;
+    return function;
   }
 
+  /**
+   * Parses an assignment, which is the expression with the lowest precedence.
+   */
   private Expr assignment() {
-    Expr expr = or();
-
-    /// We want to make assignment expression like x = y = 5; valid.
-    if (match(TokenType.EQUAL)) {
-      Token equals = previous();
-      Expr value = assignment();
-
-      if (expr instanceof Expr.Variable) {
-        Token name = ((Expr.Variable) expr).name;
-        return new Expr.Assign(name, value);
-      } else if (expr instanceof Expr.Get) {
-        Expr.Get get = (Expr.Get) expr;
-        return new Expr.Set(get.object, get.name, value);
-      }
-
-      error(equals, "Invalid assignment target.");
-    }
-
-    return expr;
+    return parsePrecedence(Precedence.ASSIGNMENT);
   }
 
-  private Expr or() {
-    Expr expr = and();
-
-    while (match(TokenType.OR)) {
-      Token operator = previous();
-      Expr right = and();
-      expr = new Expr.Logical(expr, operator, right);
+  /**
+   * Parses an expression whose operators bind at least as tightly as the given
+   * precedence.
+   * 
+   * The current token must start an expression (it has a prefix rule), then as
+   * long as the next token is an infix operator with a high enough precedence,
+   * the expression parsed so far becomes its left operand.
+   * 
+   * @param precedence the lowest precedence that may be parsed.
+   * @return the parsed expression.
+   */
+  private Expr parsePrecedence(Precedence precedence) {
+    ParseRule prefixRule = rules.get(peek().type);
+    if (prefixRule == null || prefixRule.prefix == null) {
+      throw error(peek(), "Expected expression.");
     }
 
-    return expr;
-  }
-
-  private Expr and() {
-    Expr expr = equality();
+    Expr expr = prefixRule.prefix.parse(this, advance());
 
-    while (match(TokenType.AND)) {
-      Token operator = previous();
-      Expr right = equality();
+    while (true) {
+      ParseRule infixRule = rules.get(peek().type);
+      if (infixRule == null || infixRule.infix == null || infixRule.precedence.compareTo(precedence) < 0)
+        break;
 
-      expr = new Expr.Logical(expr, operator, right);
+      expr = infixRule.infix.parse(this, expr, advance());
     }
 
     return expr;
   }
 
   /**
-   * Generates an equality expression.
-   * 
-   * @return equality expression
+   * Parses the right operand of a left-associative binary operator, it only
+   * takes the operators that bind tighter than this one.
    */
-  private Expr equality() {
-    Expr expr = comparison();
-
-    while (match(TokenType.BANG_EQUAL, TokenType.EQUAL_EQUAL)) {
-      Token operator = previous();
-      Expr right = comparison();
-      expr = new Expr.Binary(expr, operator, right);
-    }
-
-    return expr;
+  private Expr rightOperand(Token operator) {
+    return parsePrecedence(rules.get(operator.type).precedence.next());
   }
 
-  private Expr comparison() {
-    Expr expr = term();
-
-    while (match(TokenType.GREATER_EQUAL, TokenType.LESS_EQUAL, TokenType.GREATER, TokenType.LESS)) {
-      Token operator = previous();
-      Expr right = term();
-      expr = new Expr.Binary(expr, operator, right);
-    }
-    return expr;
+  private Expr binary(Expr left, Token operator) {
+    return new Expr.Binary(left, operator, rightOperand(operator));
   }
 
-  private Expr term() {
-    Expr expr = factor();
-
-    while (match(TokenType.MINUS, TokenType.PLUS)) {
-      Token operator = previous();
-      Expr right = factor();
-      expr = new Expr.Binary(expr, operator, right);
-    }
-
-    return expr;
+  private Expr logical(Expr left, Token operator) {
+    return new Expr.Logical(left, operator, rightOperand(operator));
   }
 
-  private Expr factor() {
-    Expr expr = unary();
+  private Expr assign(Expr target, Token equals) {
+    /// Assignment is right-associative to make expressions like x = y = 5; valid.
+    Expr value = parsePrecedence(Precedence.ASSIGNMENT);
 
-    while (match(TokenType.SLASH, TokenType.STAR)) {
-      Token operator = previous();
-      Expr right = unary();
-      expr = new Expr.Binary(expr, operator, right);
+    if (target instanceof Expr.Variable) {
+      Token name = ((Expr.Variable) target).name;
+      return new Expr.Assign(name, value);
+    } else if (target instanceof Expr.Get) {
+      Expr.Get get = (Expr.Get) target;
+      return new Expr.Set(get.object, get.name, value);
+    } else if (target instanceof Expr.Index) {
+      Expr.Index index = (Expr.Index) target;
+      return new Expr.IndexSet(index.object, index.bracket, index.index, value);
     }
 
-    return expr;
+    error(equals, "Invalid assignment target.");
+    return target;
   }
 
-  private Expr unary() {
-    if (match(TokenType.BANG, TokenType.MINUS)) {
-      Token operator = previous();
-      Expr right = unary();
-      return new Expr.Unary(operator, right);
-    }
-
-    return call();
+  private Expr unary(Token operator) {
+    Expr right = parsePrecedence(Precedence.UNARY);
+    return new Expr.Unary(operator, right);
   }
 
-  private Expr call() {
-    Expr expr = primary();
-    while (true) {
-      // call()()();
-      if (match(TokenType.LEFT_PAREN)) {
-        expr = finishCall(expr);
-      } else if (match(TokenType.DOT)) {
-        // obj.callMethod().val;
-        Token name = consume(TokenType.IDENTIFIER, "Expect property name after '.'.");
-        expr = new Expr.Get(expr, name);
-      } else {
-        break;
-      }
-    }
-
-    return expr;
+  private Expr get(Expr object) {
+    // obj.callMethod().val;
+    Token name = consume(TokenType.IDENTIFIER, "Expect property name after '.'.");
+    return new Expr.Get(object, name);
   }
 
   private Expr finishCall(Expr callee) {
@@ -511,39 +686,51 @@ public class Parser {
     return new Expr.Call(callee, paren, arguments);
   }
 
-  private Expr primary() {
-    if (match(TokenType.FALSE))
-      return new Expr.Literal(false);
-    if (match(TokenType.TRUE))
-      return new Expr.Literal(true);
-    if (match(TokenType.NIL))
-      return new Expr.Literal(null);
+  private Expr index(Expr object, Token bracket) {
+    Expr index = expression();
+    consume(TokenType.RIGHT_BRACKET, "Expect ']' after index.");
+    return new Expr.Index(object, bracket, index);
+  }
 
-    if (match(TokenType.NUMBER, TokenType.STRING)) {
-      return new Expr.Literal(previous().literal);
-    }
+  private Expr arrayLiteral() {
+    List<Expr> elements = new ArrayList<>();
 
-    if (match(TokenType.LEFT_PAREN)) {
-      Expr expr = expression();
-      consume(TokenType.RIGHT_PAREN, "Expect ')' after expression.");
-      return new Expr.Grouping(expr);
+    if (!check(TokenType.RIGHT_BRACKET)) {
+      do {
+        elements.add(expression());
+      } while (match(TokenType.COMMA));
     }
 
-    if (match(TokenType.SUPER)) {
-      Token keyword = previous();
-      consume(TokenType.DOT, "Expect '.' after 'super'.");
-      Token method = consume(TokenType.IDENTIFIER, "Expect superclass method name.");
-      return new Expr.Super(keyword, method);
-    }
+    consume(TokenType.RIGHT_BRACKET, "Expect ']' after array elements.");
+    return new Expr.ArrayLiteral(elements);
+  }
 
-    if (match(TokenType.THIS)) {
-      return new Expr.This(previous());
-    }
-    if (match(TokenType.IDENTIFIER)) {
-      return new Expr.Variable(previous());
+  private Expr mapLiteral() {
+    List<Expr> keys = new ArrayList<>();
+    List<Expr> values = new ArrayList<>();
+
+    if (!check(TokenType.RIGHT_BRACE)) {
+      do {
+        keys.add(expression());
+        consume(TokenType.COLON, "Expect ':' after map key.");
+        values.add(expression());
+      } while (match(TokenType.COMMA));
     }
 
-    throw error(peek(), "Expected expression.");
+    consume(TokenType.RIGHT_BRACE, "Expect '}' after map entries.");
+    return new Expr.MapLiteral(keys, values);
+  }
+
+  private Expr grouping() {
+    Expr expr = expression();
+    consume(TokenType.RIGHT_PAREN, "Expect ')' after expression.");
+    return new Expr.Grouping(expr);
+  }
+
+  private Expr superExpression(Token keyword) {
+    consume(TokenType.DOT, "Expect '.' after 'super'.");
+    Token method = consume(TokenType.IDENTIFIER, "Expect superclass method name.");
+    return new Expr.Super(keyword, method);
   }
 
   /**
@@ -633,7 +820,7 @@ public class Parser {
   }
 
   private ParseError error(Token token, String message) {
-    Lango.error(token, message);
+    reporter.error(token, message);
     return new ParseError();
   }
 
@@ -657,6 +844,8 @@ public class Parser {
         case WHILE:
         case PRINT:
         case RETURN:
+        case YIELD:
+        case IMPORT:
           return;
       }
 
@@ -3,7 +3,7 @@ package lango.scanner;
 import java.util.ArrayList;
 import java.util.List;
 
-import lango.main.Lango;
+import lango.diagnostics.ErrorReporter;
 
 import java.util.*;
 
@@ -19,6 +19,10 @@ public class Scanner {
    * The list of generated tokens.
    */
   private final List<Token> tokens = new ArrayList<>();
+  /**
+   * The offset in the source of each token.
+   */
+  private int[] offsets = new int[64];
   /**
    * Points to the character that is currently be considered.
    */
@@ -32,6 +36,10 @@ public class Scanner {
    * that know their location.
    */
   private int line = 1;
+  /**
+   * Receives the errors found while scanning.
+   */
+  private final ErrorReporter reporter;
   /**
    * Used to store the keywords as key/value pairs, in which each lexeme has its
    * equivalent token type.
@@ -48,12 +56,14 @@ public class Scanner {
     keywords.put("for", TokenType.FOR);
     keywords.put("fun", TokenType.FUN);
     keywords.put("if", TokenType.IF);
+    keywords.put("import", TokenType.IMPORT);
     keywords.put("elif", TokenType.ELSEIF);
     keywords.put("nil", TokenType.NIL);
     keywords.put("break", TokenType.BREAK);
     keywords.put("or", TokenType.OR);
     keywords.put("print", TokenType.PRINT);
     keywords.put("return", TokenType.RETURN);
+    keywords.put("yield", TokenType.YIELD);
     keywords.put("super", TokenType.SUPER);
     keywords.put("this", TokenType.THIS);
     keywords.put("true", TokenType.TRUE);
@@ -61,8 +71,17 @@ public class Scanner {
     keywords.put("while", TokenType.WHILE);
   }
 
-  public Scanner(String source) {
+  public Scanner(String source, ErrorReporter reporter) {
+    this(source, reporter, 1);
+  }
+
+  /**
+   * @param line the line the source starts at, i.e. for a part of a file.
+   */
+  public Scanner(String source, ErrorReporter reporter, int line) {
     this.source = source;
+    this.reporter = reporter;
+    this.line = line;
   }
 
   public List<Token> scanTokens() {
@@ -73,11 +92,19 @@ public class Scanner {
     }
     // We're adding an end of file token to imply that there're no characters to
     // scan. Makes the parser a little cleaner.
-    tokens.add(new Token("", TokenType.EOF, null, line));
+    start = current;
+    add(new Token("", TokenType.EOF, null, line));
 
     return tokens;
   }
 
+  /**
+   * @return the offset in the source of each scanned token, in the same order.
+   */
+  public int[] offsets() {
+    return Arrays.copyOf(offsets, tokens.size());
+  }
+
   /**
    * Consumes characters to generate tokens that are added to the tokens list.
    */
@@ -97,9 +124,18 @@ public class Scanner {
       case '}':
         addToken(TokenType.RIGHT_BRACE);
         break;
+      case '[':
+        addToken(TokenType.LEFT_BRACKET);
+        break;
+      case ']':
+        addToken(TokenType.RIGHT_BRACKET);
+        break;
       case ',':
         addToken(TokenType.COMMA);
         break;
+      case ':':
+        addToken(TokenType.COLON);
+        break;
       case '.':
         addToken(TokenType.DOT);
         break;
@@ -154,7 +190,7 @@ public class Scanner {
         } else if (isAlpha(c)) {
           identifier();
         } else {
-          Lango.error(line, "Unexpected character.");
+          reporter.error(line, "Unexpected character.");
         }
         break;
     }
@@ -217,7 +253,15 @@ public class Scanner {
 
   private void addToken(TokenType type, Object literal) {
     String text = source.substring(start, current);
-    tokens.add(new Token(text, type, literal, line));
+    add(new Token(text, type, literal, line));
+  }
+
+  private void add(Token token) {
+    if (tokens.size() == offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    offsets[tokens.size()] = start;
+    tokens.add(token);
   }
 
   /**
@@ -274,7 +318,7 @@ public class Scanner {
     // If we reach the end of source file without closing double quote, then the
     // string is not terminated.
     if (isAtEnd()) {
-      Lango.error(line, "Unterminated string");
+      reporter.error(line, "Unterminated string");
     }
 
     // Moving [current] pointer after the closing double quote '"'.
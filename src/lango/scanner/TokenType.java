@@ -2,7 +2,7 @@ package lango.scanner;
 
 public enum TokenType {
   // Single character tokens.
-  LEFT_PAREN, RIGHT_PAREN, LEFT_BRACE, RIGHT_BRACE, COMMA, DOT, MINUS, PLUS, SEMICOLON, SLASH, STAR,
+  LEFT_PAREN, RIGHT_PAREN, LEFT_BRACE, RIGHT_BRACE, LEFT_BRACKET, RIGHT_BRACKET, COLON, COMMA, DOT, MINUS, PLUS, SEMICOLON, SLASH, STAR,
 
   // One or more character tokens.
   BANG, BANG_EQUAL, EQUAL, EQUAL_EQUAL, GREATER, GREATER_EQUAL, LESS, LESS_EQUAL,
@@ -11,7 +11,7 @@ public enum TokenType {
   IDENTIFIER, NUMBER, STRING,
 
   // Keywords
-  AND, OR, CLASS, THIS, SUPER, ELSE, IF, ELSEIF, NIL, PRINT, RETURN, TRUE, FALSE, VAR, WHILE, FOR, FUN, BREAK,
+  AND, OR, CLASS, THIS, SUPER, ELSE, IF, ELSEIF, NIL, PRINT, RETURN, TRUE, FALSE, VAR, WHILE, FOR, FUN, BREAK, YIELD, IMPORT,
 
   // End of file
   EOF
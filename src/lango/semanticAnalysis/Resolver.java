@@ -1,10 +1,12 @@
 package lango.semanticAnalysis;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
+import lango.GlobalNames;
 import lango.astNodes.Expr;
 import lango.astNodes.Stmt;
 import lango.astNodes.Expr.*;
@@ -15,12 +17,14 @@ import lango.astNodes.Stmt.Elif;
 import lango.astNodes.Stmt.Expression;
 import lango.astNodes.Stmt.Function;
 import lango.astNodes.Stmt.If;
+import lango.astNodes.Stmt.Import;
 import lango.astNodes.Stmt.Print;
 import lango.astNodes.Stmt.Return;
 import lango.astNodes.Stmt.Var;
 import lango.astNodes.Stmt.While;
-import lango.interpreter.Interpreter;
-import lango.main.Lango;
+import lango.astNodes.Stmt.Yield;
+import lango.diagnostics.ErrorReporter;
+import lango.parser.LazyBody;
 import lango.scanner.Token;
 
 public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
@@ -39,7 +43,10 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     SUBCLASS
   }
 
-  private final Interpreter interpreter;
+  /**
+   * Receives the resolution errors.
+   */
+  private final ErrorReporter reporter;
 
   /**
    * Stack of scopes.
@@ -62,8 +69,23 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
 
   private boolean isInLoop = false;
 
-  public Resolver(Interpreter interpreter) {
-    this.interpreter = interpreter;
+  /**
+   * Whether the innermost function being resolved is a generator.
+   */
+  private boolean isInGenerator = false;
+
+  /**
+   * Numbers the global variables.
+   */
+  private final GlobalNames names;
+
+  /**
+   * @param names the table global variables are indexed with, the one of the
+   *              environments the tree will run in.
+   */
+  public Resolver(ErrorReporter reporter, GlobalNames names) {
+    this.reporter = reporter;
+    this.names = names;
   }
 
   @Override
@@ -114,7 +136,7 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     Map<String, Boolean> scope = scopes.peek();
 
     if (scope.containsKey(name.lexeme)) {
-      Lango.error(name,
+      reporter.error(name,
           "Already a variable with this name in this scope.");
     }
     scope.put(name.lexeme, false);
@@ -128,13 +150,20 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     scopes.peek().put(name.lexeme, true);
   }
 
-  private void resolveLocal(Expr expr, Token name) {
+  /**
+   * Finds the scope that declares a variable.
+   * 
+   * @return the number of scopes between the innermost scope and the one that
+   *         declares the variable, or -1 if it's not found, then it's assumed to
+   *         be global.
+   */
+  private int resolveLocal(Token name) {
     for (int i = scopes.size() - 1; i >= 0; i--) {
       if (scopes.get(i).containsKey(name.lexeme)) {
-        interpreter.resolve(expr, scopes.size() - 1 - i);
-        return;
+        return scopes.size() - 1 - i;
       }
     }
+    return -1;
   }
 
   @Override
@@ -142,18 +171,22 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     // var a = 10;
     // var x = a;
     if (!scopes.isEmpty() && scopes.peek().get(expr.name.lexeme) == Boolean.FALSE) {
-      Lango.error(expr.name,
+      reporter.error(expr.name,
           "Can't read local variable in its own initializer.");
     }
 
-    resolveLocal(expr, expr.name);
+    expr.depth = resolveLocal(expr.name);
+    if (expr.depth < 0)
+      expr.global = names.indexOf(expr.name.lexeme);
     return null;
   }
 
   @Override
   public Void visitAssignExpr(Assign expr) {
     resolve(expr.value);
-    resolveLocal(expr, expr.name);
+    expr.depth = resolveLocal(expr.name);
+    if (expr.depth < 0)
+      expr.global = names.indexOf(expr.name.lexeme);
     return null;
   }
 
@@ -168,8 +201,18 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
   }
 
   private void resolveFunction(Function function, FunctionType type) {
+    if (function.body instanceof LazyBody && ((LazyBody) function.body).isPending()) {
+      deferResolution(function, type);
+      return;
+    }
+
     FunctionType enclosingFunction = currentFunction;
     currentFunction = type;
+    // A loop outside of the function doesn't allow a break inside of it.
+    boolean enclosingLoop = isInLoop;
+    isInLoop = false;
+    boolean enclosingGenerator = isInGenerator;
+    isInGenerator = function.isGenerator;
 
     beginScope();
     for (Token param : function.params) {
@@ -180,6 +223,24 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     endScope();
 
     currentFunction = enclosingFunction;
+    isInLoop = enclosingLoop;
+    isInGenerator = enclosingGenerator;
+  }
+
+  /**
+   * Resolves a skimmed body once it's parsed, in the scopes around it now,
+   * which are only those of the class of a method.
+   */
+  private void deferResolution(Function function, FunctionType type) {
+    List<Map<String, Boolean>> enclosing = new ArrayList<>(scopes);
+    ClassType classType = currentClass;
+
+    ((LazyBody) function.body).resolveWith(reporter -> {
+      Resolver resolver = new Resolver(reporter, names);
+      resolver.scopes.addAll(enclosing);
+      resolver.currentClass = classType;
+      resolver.resolveFunction(function, type);
+    });
   }
 
   @Override
@@ -217,24 +278,43 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
   @Override
   public Void visitReturnStmt(Return stmt) {
     if (currentFunction == FunctionType.NONE) {
-      Lango.error(stmt.keyword, "Can't return from top-level code.");
+      reporter.error(stmt.keyword, "Can't return from top-level code.");
     }
 
     if (stmt.value != null) {
       if (currentFunction == FunctionType.INITIALIZER) {
-        Lango.error(stmt.keyword,
+        reporter.error(stmt.keyword,
             "Can't return a value from an initializer.");
       }
+      if (isInGenerator) {
+        reporter.error(stmt.keyword,
+            "Can't return a value from a generator.");
+      }
       resolve(stmt.value);
     }
     return null;
   }
 
+  @Override
+  public Void visitYieldStmt(Yield stmt) {
+    if (currentFunction == FunctionType.NONE) {
+      reporter.error(stmt.keyword, "Can't yield from top-level code.");
+    } else if (currentFunction == FunctionType.INITIALIZER) {
+      reporter.error(stmt.keyword, "Can't yield from an initializer.");
+    }
+
+    if (stmt.value != null)
+      resolve(stmt.value);
+    return null;
+  }
+
   @Override
   public Void visitWhileStmt(While stmt) {
+    boolean enclosingLoop = isInLoop;
     isInLoop = true;
     resolve(stmt.condition);
     resolve(stmt.body);
+    isInLoop = enclosingLoop;
     return null;
   }
 
@@ -288,7 +368,7 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
 
     if (stmt.superclass != null &&
         stmt.name.lexeme.equals(stmt.superclass.name.lexeme)) {
-      Lango.error(stmt.superclass.name,
+      reporter.error(stmt.superclass.name,
           "A class can't inherit from itself.");
     }
 
@@ -334,47 +414,90 @@ public class Resolver implements Expr.Visitor<Void>, Stmt.Visitor<Void> {
     return null;
   }
 
+  @Override
+  public Void visitArrayLiteralExpr(ArrayLiteral expr) {
+    for (Expr element : expr.elements) {
+      resolve(element);
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitMapLiteralExpr(MapLiteral expr) {
+    for (int i = 0; i < expr.keys.size(); i++) {
+      resolve(expr.keys.get(i));
+      resolve(expr.values.get(i));
+    }
+    return null;
+  }
+
+  @Override
+  public Void visitIndexExpr(Index expr) {
+    resolve(expr.object);
+    resolve(expr.index);
+    return null;
+  }
+
+  @Override
+  public Void visitIndexSetExpr(IndexSet expr) {
+    resolve(expr.value);
+    resolve(expr.object);
+    resolve(expr.index);
+    return null;
+  }
+
   @Override
   public Void visitSuperExpr(Super expr) {
 
     if (currentClass == ClassType.NONE) {
-      Lango.error(expr.keyword,
+      reporter.error(expr.keyword,
           "Can't use 'super' outside of a class.");
     } else if (currentClass != ClassType.SUBCLASS) {
-      Lango.error(expr.keyword,
+      reporter.error(expr.keyword,
           "Can't use 'super' in a class with no superclass.");
     }
 
-    resolveLocal(expr, expr.keyword);
+    expr.depth = resolveLocal(expr.keyword);
     return null;
   }
 
   @Override
   public Void visitThisExpr(This expr) {
     if (currentClass == ClassType.NONE) {
-      Lango.error(expr.keyword,
+      reporter.error(expr.keyword,
           "Can't use 'this' outside of a class.");
       return null;
     }
 
-    resolveLocal(expr, expr.keyword);
+    expr.depth = resolveLocal(expr.keyword);
     return null;
   }
 
   @Override
   public Void visitBreakStmt(Break stmt) {
     if (!isInLoop) {
-      Lango.error(stmt.keyword,
+      reporter.error(stmt.keyword,
           "Can't use 'break' outside of a loop.");
     }
 
-    isInLoop = false;
+    return null;
+  }
+
+  @Override
+  public Void visitImportStmt(Import stmt) {
+    // The module's globals are defined in the importer's globals.
+    if (!scopes.isEmpty()) {
+      reporter.error(stmt.keyword, "Can only import at the top level.");
+    }
+
     return null;
   }
 
   @Override
   public Void visitAnonymousFuncExpr(AnonymousFunc expr) {
-    resolveFunction(new Stmt.Function(null, expr.params, expr.body), FunctionType.ANONYMOUS);
+    Stmt.Function function = new Stmt.Function(null, expr.params, expr.body);
+    function.isGenerator = expr.isGenerator;
+    resolveFunction(function, FunctionType.ANONYMOUS);
     return null;
   }
 }
\ No newline at end of file
@@ -0,0 +1,70 @@
+package lango.vector;
+
+/**
+ * The operations as plain loops, which the JIT may still unroll and vectorize
+ * on its own (except the sums, which it keeps in order).
+ */
+final class ScalarOps implements VectorOps {
+
+  @Override
+  public void add(double[] a, double[] b, double[] result, int n) {
+    for (int i = 0; i < n; i++) {
+      result[i] = a[i] + b[i];
+    }
+  }
+
+  @Override
+  public void multiply(double[] a, double[] b, double[] result, int n) {
+    for (int i = 0; i < n; i++) {
+      result[i] = a[i] * b[i];
+    }
+  }
+
+  @Override
+  public void scale(double[] a, double factor, double[] result, int n) {
+    for (int i = 0; i < n; i++) {
+      result[i] = a[i] * factor;
+    }
+  }
+
+  @Override
+  public double dot(double[] a, double[] b, int n) {
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+
+  @Override
+  public double sum(double[] a, int n) {
+    double sum = 0;
+    for (int i = 0; i < n; i++) {
+      sum += a[i];
+    }
+    return sum;
+  }
+
+  @Override
+  public double min(double[] a, int n) {
+    double min = a[0];
+    for (int i = 1; i < n; i++) {
+      min = Math.min(min, a[i]);
+    }
+    return min;
+  }
+
+  @Override
+  public double max(double[] a, int n) {
+    double max = a[0];
+    for (int i = 1; i < n; i++) {
+      max = Math.max(max, a[i]);
+    }
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "scalar";
+  }
+}
@@ -0,0 +1,118 @@
+package lango.vector;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The operations on the widest vectors of doubles the CPU has, a few lanes per
+ * instruction, with a scalar loop for the elements left over.
+ * 
+ * Only compiles and loads with {@code --add-modules jdk.incubator.vector},
+ * {@link VectorOps#best()} loads it by name.
+ */
+final class SimdOps implements VectorOps {
+  private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+  @Override
+  public void add(double[] a, double[] b, double[] result, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i).add(DoubleVector.fromArray(SPECIES, b, i)).intoArray(result, i);
+    }
+    for (; i < n; i++) {
+      result[i] = a[i] + b[i];
+    }
+  }
+
+  @Override
+  public void multiply(double[] a, double[] b, double[] result, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)).intoArray(result, i);
+    }
+    for (; i < n; i++) {
+      result[i] = a[i] * b[i];
+    }
+  }
+
+  @Override
+  public void scale(double[] a, double factor, double[] result, int n) {
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES, a, i).mul(factor).intoArray(result, i);
+    }
+    for (; i < n; i++) {
+      result[i] = a[i] * factor;
+    }
+  }
+
+  @Override
+  public double dot(double[] a, double[] b, int n) {
+    DoubleVector sums = DoubleVector.zero(SPECIES);
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      sums = sums.add(DoubleVector.fromArray(SPECIES, a, i).mul(DoubleVector.fromArray(SPECIES, b, i)));
+    }
+    double sum = sums.reduceLanes(VectorOperators.ADD);
+    for (; i < n; i++) {
+      sum += a[i] * b[i];
+    }
+    return sum;
+  }
+
+  @Override
+  public double sum(double[] a, int n) {
+    DoubleVector sums = DoubleVector.zero(SPECIES);
+    int i = 0;
+    for (int bound = SPECIES.loopBound(n); i < bound; i += SPECIES.length()) {
+      sums = sums.add(DoubleVector.fromArray(SPECIES, a, i));
+    }
+    double sum = sums.reduceLanes(VectorOperators.ADD);
+    for (; i < n; i++) {
+      sum += a[i];
+    }
+    return sum;
+  }
+
+  @Override
+  public double min(double[] a, int n) {
+    double min = a[0];
+    int i = 0;
+    int bound = SPECIES.loopBound(n);
+    if (bound > 0) {
+      DoubleVector mins = DoubleVector.fromArray(SPECIES, a, 0);
+      for (i = SPECIES.length(); i < bound; i += SPECIES.length()) {
+        mins = mins.min(DoubleVector.fromArray(SPECIES, a, i));
+      }
+      min = mins.reduceLanes(VectorOperators.MIN);
+    }
+    for (; i < n; i++) {
+      min = Math.min(min, a[i]);
+    }
+    return min;
+  }
+
+  @Override
+  public double max(double[] a, int n) {
+    double max = a[0];
+    int i = 0;
+    int bound = SPECIES.loopBound(n);
+    if (bound > 0) {
+      DoubleVector maxs = DoubleVector.fromArray(SPECIES, a, 0);
+      for (i = SPECIES.length(); i < bound; i += SPECIES.length()) {
+        maxs = maxs.max(DoubleVector.fromArray(SPECIES, a, i));
+      }
+      max = maxs.reduceLanes(VectorOperators.MAX);
+    }
+    for (; i < n; i++) {
+      max = Math.max(max, a[i]);
+    }
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "simd (" + SPECIES.length() + " lanes)";
+  }
+}
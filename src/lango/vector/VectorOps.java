@@ -0,0 +1,64 @@
+package lango.vector;
+
+/**
+ * Bulk operations on the first {@code n} elements of double arrays, the
+ * arrays being at least that long.
+ * 
+ * {@link #best()} uses the SIMD instructions of the CPU through the JDK's
+ * Vector API when the {@code jdk.incubator.vector} module was added to the
+ * JVM ({@code --add-modules jdk.incubator.vector}) and falls back to plain
+ * loops otherwise, so the interpreter still compiles and runs without it.
+ * Sums are added in a different order by the two, their last bits may differ.
+ */
+public interface VectorOps {
+
+  void add(double[] a, double[] b, double[] result, int n);
+
+  void multiply(double[] a, double[] b, double[] result, int n);
+
+  void scale(double[] a, double factor, double[] result, int n);
+
+  double dot(double[] a, double[] b, int n);
+
+  double sum(double[] a, int n);
+
+  /**
+   * @param n at least 1.
+   */
+  double min(double[] a, int n);
+
+  /**
+   * @param n at least 1.
+   */
+  double max(double[] a, int n);
+
+  /**
+   * @return the SIMD operations when the Vector API is available, otherwise
+   *         the scalar ones.
+   */
+  static VectorOps best() {
+    return Holder.BEST;
+  }
+
+  /**
+   * Picks the implementation once, on first use.
+   */
+  final class Holder {
+    private Holder() {
+    }
+
+    static final VectorOps BEST = load();
+
+    private static VectorOps load() {
+      if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+        try {
+          // Loaded by name: the class only compiles with the module added.
+          return (VectorOps) Class.forName("lango.vector.SimdOps").getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+          // Not compiled in, use the scalar loops.
+        }
+      }
+      return new ScalarOps();
+    }
+  }
+}
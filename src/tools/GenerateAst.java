@@ -4,11 +4,24 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Used as a AST generator to gene rate various tree types.
  */
 public class GenerateAst {
+  /**
+   * Javadoc of the mutable fields, keyed by the field's name, written above the
+   * field in every type that declares it.
+   */
+  private static final Map<String, String> STATE_DOCS = Map.of(
+      "depth", "Number of scopes between this expression and the variable's declaration,\n"
+          + "set by the resolver. -1 means the variable is global.",
+      "global", "Index of the global variable in the GlobalNames of the engine, set by\n"
+          + "the resolver when the variable is global. -1 means the variable is local.",
+      "isGenerator", "Whether the body contains a yield statement, set by the parser. Calling a\n"
+          + "generator returns a generator object instead of running the body.");
+
   public static void main(String[] args) throws IOException {
     if (args.length != 1) {
       System.err.println("Usage: generate_ast <output directory>");
@@ -18,31 +31,37 @@ public class GenerateAst {
     String outputDir = args[0];
 
     defineAst(outputDir, "Expr",
-        Arrays.asList("Assign : Token name, Expr value",
+        Arrays.asList("Assign : Token name, Expr value ; int depth = -1, int global = -1",
             "Binary : Expr left, Token operator, Expr right",
             "Call: Expr callee, Token paren, List<Expr> arguments",
-            "AnonymousFunc : List<Token> params, List<Stmt> body",
+            "AnonymousFunc : List<Token> params, List<Stmt> body ; boolean isGenerator = false",
             "Get : Expr object, Token name",
             "Set : Expr object, Token name, Expr value",
-            "Super : Token keyword, Token method",
-            "This : Token keyword",
+            "ArrayLiteral : List<Expr> elements",
+            "MapLiteral : List<Expr> keys, List<Expr> values",
+            "Index : Expr object, Token bracket, Expr index",
+            "IndexSet : Expr object, Token bracket, Expr index, Expr value",
+            "Super : Token keyword, Token method ; int depth = -1",
+            "This : Token keyword ; int depth = -1",
             "Grouping : Expr expression",
             "Literal : Object value",
             "Logical : Expr left, Token operator, Expr right",
             "Unary : Token operator, Expr right",
-            "Variable : Token name"));
+            "Variable : Token name ; int depth = -1, int global = -1"));
 
     defineAst(outputDir, "Stmt",
         Arrays.asList("Block : List<Stmt> statements",
             "Class      : Token name, Expr.Variable superclass," +
                 " List<Stmt.Function> methods",
             "Expression : Expr expression",
-            "Function : Token name, List<Token> params, List<Stmt> body",
+            "Function : Token name, List<Token> params, List<Stmt> body ; boolean isGenerator = false",
             "If    : Expr condition, Stmt thenBranch, List<Elif> elseIfBranches, Stmt elseBranch",
             "Elif  : Expr condition, Stmt body",
             "Print : Expr expression",
             "Return: Token keyword, Expr value",
+            "Yield : Token keyword, Expr value",
             "Break: Token keyword",
+            "Import : Token keyword, Token path",
             "Var   : Token name, Expr initializer",
             "While : Expr condition, Stmt body"));
 
@@ -65,7 +84,8 @@ public class GenerateAst {
     writer.println("public abstract <R> R accept(Visitor<R> visitor);");
     for (String type : exprTypes) {
       List<String> classNameAndFields = extractSubClass(type);
-      defineType(writer, baseName, classNameAndFields.get(0), classNameAndFields.get(1));
+      defineType(writer, baseName, classNameAndFields.get(0), classNameAndFields.get(1),
+          classNameAndFields.get(2));
     }
 
     writer.println("}");
@@ -80,8 +100,12 @@ public class GenerateAst {
    * @param baseName  base class name.
    * @param className subclass name.
    * @param fieldList fields for each subclass.
+   * @param stateList mutable fields with their initial value, which are filled
+   *                  after the node is created (i.e. by the resolver), may be
+   *                  empty.
    */
-  private static void defineType(PrintWriter writer, String baseName, String className, String fieldList) {
+  private static void defineType(PrintWriter writer, String baseName, String className, String fieldList,
+      String stateList) {
     writer.println("public static class " + className + " extends " + baseName + " {");
 
     // Constructor of subclass.
@@ -109,10 +133,34 @@ public class GenerateAst {
     for (String field : fields) {
       writer.println("public" + "    final " + field + ";");
     }
+    if (!stateList.isEmpty()) {
+      for (String state : stateList.split(", ")) {
+        defineStateDoc(writer, state.split(" ")[1]);
+        writer.println("public    " + state + ";");
+      }
+    }
 
     writer.println("    }");
   }
 
+  /**
+   * Writes the Javadoc of a mutable field, if it has one.
+   * 
+   * @param writer the writer that writes to the output file.
+   * @param name   name of the field.
+   */
+  private static void defineStateDoc(PrintWriter writer, String name) {
+    String doc = STATE_DOCS.get(name);
+    if (doc == null) {
+      return;
+    }
+    writer.println("    /**");
+    for (String line : doc.split("\n")) {
+      writer.println("     * " + line);
+    }
+    writer.println("     */");
+  }
+
   /**
    * Generates a visitor interface (to implement visitor pattern).
    * 
@@ -136,13 +184,15 @@ public class GenerateAst {
    * 
    * @param type represents the string that holds the class name and the fields of
    *             the class.
-   * @return a list contains the class name as first element and fields as second
-   *         element.
+   * @return a list contains the class name as first element, fields as second
+   *         element and the mutable fields (after a ';') as third element.
    */
   private static List<String> extractSubClass(String type) {
     String[] splittedString = type.split(":");
     String className = splittedString[0].trim();
-    String fields = splittedString[1].trim();
-    return Arrays.asList(className, fields);
+    String[] fieldsAndState = splittedString[1].split(";");
+    String fields = fieldsAndState[0].trim();
+    String state = fieldsAndState.length > 1 ? fieldsAndState[1].trim() : "";
+    return Arrays.asList(className, fields, state);
   }
 }